@@ -0,0 +1,392 @@
+package com.eric.GobangGame;
+
+import com.eric.GobangGame.arena.Openings;
+import com.eric.GobangGame.core.ForbiddenDetector;
+import com.eric.GobangGame.core.GameTree;
+import com.eric.GobangGame.core.MoveLog;
+import com.eric.GobangGame.core.RuleSet;
+import com.eric.GobangGame.core.Rules;
+import com.eric.GobangGame.engine.GobangGameAi;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 分析棋盘：在 GameTree 上自由摆变化，不影响正在进行的对局
+ *
+ * 点击棋盘在当前节点下加一步（已有相同落子时进入该变化），← → 后退/沿主线前进，↑ ↓ 切换兄弟变化。
+ * 进入未分析过的节点时在后台线程上用困难难度AI搜索，结果写回树中缓存，再次进入不重复计算。
+ * 导入的文件每行一条变化，格式与 analyze 命令的输入相同（可带 "编号<TAB>" 前缀的落子列表）。
+ */
+public class AnalysisWindow extends JFrame {
+
+    private static final int MARGIN = 24;
+    private static final long EVAL_MILLIS = 500;
+    // 导入时每批交给EDT的行数
+    private static final int IMPORT_BATCH = 5000;
+
+    private final ResourceBundle messages;
+    private final RuleSet ruleSet;
+    private final GameTree tree;
+    private final int rows;
+    private final int cols;
+    private final int cellSize;
+    private final int[][] board;
+    private int current;
+
+    private final BoardPanel boardPanel = new BoardPanel();
+    private final DefaultListModel<String> childModel = new DefaultListModel<>();
+    private final JList<String> childList = new JList<>(childModel);
+    private final JLabel pathLabel = new JLabel();
+    private final JLabel evalLabel = new JLabel();
+    private final JLabel sizeLabel = new JLabel();
+
+    // 引擎分析在单个后台线程上进行；只分析仍是当前节点的请求
+    private final ExecutorService evaluator = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "gobang-analysis");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final GobangGameAi ai = new GobangGameAi(2);
+    private volatile int wanted = GameTree.NONE;
+
+    public AnalysisWindow(GobangGame game, ResourceBundle messages) {
+        super(messages.getString("analysis.title"));
+        this.messages = messages;
+        this.ruleSet = game.getRuleSet();
+        this.rows = game.getBoard().length;
+        this.cols = game.getBoard()[0].length;
+        this.cellSize = Math.max(12, 480 / Math.max(rows, cols));
+        this.board = new int[rows][cols];
+        this.tree = new GameTree(rows, cols);
+        this.current = tree.addMoveLog(game.getMoveLog());
+        ai.setRuleSet(ruleSet);
+        ai.setTimeLimit(EVAL_MILLIS);
+
+        JButton backButton = new JButton("◀");
+        JButton forwardButton = new JButton("▶");
+        JButton promoteButton = new JButton(messages.getString("analysis.promote"));
+        JButton importButton = new JButton(messages.getString("analysis.import"));
+        backButton.addActionListener(e -> back());
+        forwardButton.addActionListener(e -> forward());
+        promoteButton.addActionListener(e -> promote());
+        importButton.addActionListener(e -> chooseImport());
+
+        childList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        childList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = childList.getSelectedIndex();
+                if (e.getClickCount() == 2 && index >= 0) {
+                    goTo(tree.childAt(current, index));
+                }
+            }
+        });
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buttons.add(backButton);
+        buttons.add(forwardButton);
+        buttons.add(promoteButton);
+        buttons.add(importButton);
+
+        JPanel info = new JPanel(new GridLayout(3, 1));
+        info.add(pathLabel);
+        info.add(evalLabel);
+        info.add(sizeLabel);
+
+        JScrollPane scroll = new JScrollPane(childList);
+        scroll.setPreferredSize(new Dimension(220, boardPanel.getPreferredSize().height));
+
+        JPanel content = new JPanel(new BorderLayout(10, 5));
+        content.add(info, BorderLayout.NORTH);
+        content.add(boardPanel, BorderLayout.CENTER);
+        content.add(scroll, BorderLayout.EAST);
+        content.add(buttons, BorderLayout.SOUTH);
+        setContentPane(content);
+        bindKeys();
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                evaluator.shutdownNow();
+            }
+        });
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        pack();
+        setLocationRelativeTo(game);
+        goTo(current);
+    }
+
+    private void bindKeys() {
+        JRootPane root = getRootPane();
+        bind(root, KeyEvent.VK_LEFT, "back", this::back);
+        bind(root, KeyEvent.VK_RIGHT, "forward", this::forward);
+        bind(root, KeyEvent.VK_UP, "previous", () -> sibling(-1));
+        bind(root, KeyEvent.VK_DOWN, "next", () -> sibling(1));
+    }
+
+    private static void bind(JRootPane root, int key, String name, Runnable action) {
+        root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(key, 0), name);
+        root.getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                action.run();
+            }
+        });
+    }
+
+    // --- 导航 ---
+
+    private void goTo(int node) {
+        if (node == GameTree.NONE) return;
+        current = node;
+        tree.boardAt(node, board);
+        refresh();
+        if (!tree.isEvaluated(node) && !isOver(node)) {
+            requestEvaluation(node);
+        }
+    }
+
+    private void back() {
+        goTo(tree.getParent(current));
+    }
+
+    private void forward() {
+        goTo(tree.getFirstChild(current));
+    }
+
+    private void sibling(int delta) {
+        int parent = tree.getParent(current);
+        if (parent == GameTree.NONE) return;
+        goTo(tree.childAt(parent, Math.max(0, tree.indexInParent(current) + delta)));
+    }
+
+    private void promote() {
+        tree.promoteToMainLine(current);
+        refresh();
+    }
+
+    /**
+     * 在当前节点下落子：轮到的一方由上一步推出，终局后与禁手点不能落子
+     */
+    private void play(int row, int col) {
+        if (board[row][col] != Rules.EMPTY || isOver(current)) return;
+        int player = toMove(current);
+        if (ruleSet == RuleSet.RENJU && player == Rules.BLACK && ForbiddenDetector.of(board).isForbidden(row, col)) {
+            JOptionPane.showMessageDialog(this, messages.getString("message.forbidden_move"));
+            return;
+        }
+        goTo(tree.addChild(current, MoveLog.encode(row, col, player, cols)));
+    }
+
+    private int toMove(int node) {
+        return node == GameTree.ROOT ? Rules.BLACK : Rules.opponent(MoveLog.player(tree.getMove(node)));
+    }
+
+    private boolean isOver(int node) {
+        if (node == GameTree.ROOT) return false;
+        int index = MoveLog.index(tree.getMove(node));
+        return Rules.isWin(board, index / cols, index % cols, ruleSet);
+    }
+
+    // --- 引擎分析 ---
+
+    private void requestEvaluation(int node) {
+        wanted = node;
+        int[][] position = new int[rows][];
+        for (int i = 0; i < rows; i++) {
+            position[i] = board[i].clone();
+        }
+        int player = toMove(node);
+        evaluator.execute(() -> {
+            if (wanted != node) return; // 已经离开该节点，跳过
+            int[] best = ai.calculateMove(position, player);
+            int score = ai.getLastScore();
+            int depth = Math.max(1, ai.getLastDepth());
+            SwingUtilities.invokeLater(() -> {
+                tree.annotate(node, score, best[0], best[1], depth);
+                if (current == node) {
+                    refresh();
+                } else if (tree.getParent(node) == current) {
+                    refreshChildren();
+                }
+            });
+        });
+    }
+
+    /**
+     * 评分换算为黑方视角
+     */
+    private String evalText(int node) {
+        if (!tree.isEvaluated(node)) return "…";
+        int score = toMove(node) == Rules.BLACK ? tree.getEval(node) : -tree.getEval(node);
+        return (score > 0 ? "+" : "") + score + " (d" + tree.getEvalDepth(node) + ")";
+    }
+
+    // --- 显示 ---
+
+    private void refresh() {
+        int depth = tree.depth(current);
+        int variation = tree.indexInParent(current);
+        pathLabel.setText(depth + (variation > 0 ? "  [" + (variation + 1) + "/" + tree.childCount(tree.getParent(current)) + "]" : ""));
+        evalLabel.setText(messages.getString("analysis.eval") + ": " + evalText(current));
+        sizeLabel.setText(messages.getString("analysis.nodes") + ": " + tree.size());
+        refreshChildren();
+        boardPanel.repaint();
+    }
+
+    private void refreshChildren() {
+        childModel.clear();
+        for (int c = tree.getFirstChild(current); c != GameTree.NONE; c = tree.getNextSibling(c)) {
+            int index = MoveLog.index(tree.getMove(c));
+            childModel.addElement("(" + index / cols + "," + index % cols + ")  " + evalText(c));
+        }
+    }
+
+    // --- 导入 ---
+
+    private void chooseImport() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            importLines(chooser.getSelectedFile());
+        }
+    }
+
+    /**
+     * 在后台读取并解析文件，分批交给EDT加入树（树只在EDT上修改）
+     */
+    private void importLines(File file) {
+        new SwingWorker<Integer, short[][]>() {
+            @Override
+            protected Integer doInBackground() throws IOException {
+                int skipped = 0;
+                List<short[]> batch = new ArrayList<>(IMPORT_BATCH);
+                try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        String text = line.trim();
+                        if (text.isEmpty() || text.startsWith("#")) continue;
+                        int tab = text.indexOf('\t');
+                        if (tab >= 0) text = text.substring(tab + 1).trim();
+                        try {
+                            batch.add(encodeLine(Openings.parseMoves(text, rows)));
+                        } catch (IllegalArgumentException e) {
+                            skipped++;
+                        }
+                        if (batch.size() == IMPORT_BATCH) {
+                            publish(batch.toArray(new short[0][]));
+                            batch.clear();
+                        }
+                    }
+                }
+                publish(batch.toArray(new short[0][]));
+                return skipped;
+            }
+
+            @Override
+            protected void process(List<short[][]> chunks) {
+                for (short[][] lines : chunks) {
+                    for (short[] moves : lines) {
+                        tree.addLine(moves);
+                    }
+                }
+                refresh();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    int skipped = get();
+                    if (skipped > 0) {
+                        sizeLabel.setText(sizeLabel.getText() + "  (-" + skipped + ")");
+                    }
+                } catch (Exception e) {
+                    JOptionPane.showMessageDialog(AnalysisWindow.this, messages.getString("message.cannot_read_file"));
+                }
+            }
+        }.execute();
+    }
+
+    private short[] encodeLine(int[] cells) {
+        short[] moves = new short[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            moves[i] = MoveLog.encode(cells[i] / cols, cells[i] % cols, i % 2 == 0 ? Rules.BLACK : Rules.WHITE, cols);
+        }
+        return moves;
+    }
+
+    /**
+     * 棋盘：红圈为当前节点的最后一步，绿圈为引擎推荐
+     */
+    private class BoardPanel extends JPanel {
+
+        BoardPanel() {
+            setPreferredSize(new Dimension(MARGIN * 2 + (cols - 1) * cellSize, MARGIN * 2 + (rows - 1) * cellSize));
+            setBackground(new Color(0xE3, 0xB8, 0x6B));
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    int col = Math.round((float) (e.getX() - MARGIN) / cellSize);
+                    int row = Math.round((float) (e.getY() - MARGIN) / cellSize);
+                    if (row >= 0 && row < rows && col >= 0 && col < cols) {
+                        play(row, col);
+                    }
+                }
+            });
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            g.setColor(Color.BLACK);
+            for (int i = 0; i < rows; i++) {
+                g.drawLine(MARGIN, MARGIN + i * cellSize, MARGIN + (cols - 1) * cellSize, MARGIN + i * cellSize);
+            }
+            for (int j = 0; j < cols; j++) {
+                g.drawLine(MARGIN + j * cellSize, MARGIN, MARGIN + j * cellSize, MARGIN + (rows - 1) * cellSize);
+            }
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    if (board[i][j] != Rules.EMPTY) {
+                        int x = MARGIN + j * cellSize - cellSize / 2 + 1;
+                        int y = MARGIN + i * cellSize - cellSize / 2 + 1;
+                        g.setColor(board[i][j] == Rules.BLACK ? Color.BLACK : Color.WHITE);
+                        g.fillOval(x, y, cellSize - 2, cellSize - 2);
+                        g.setColor(Color.BLACK);
+                        g.drawOval(x, y, cellSize - 2, cellSize - 2);
+                    }
+                }
+            }
+            ((Graphics2D) g).setStroke(new BasicStroke(2));
+            if (current != GameTree.ROOT) {
+                g.setColor(Color.RED);
+                drawMarker(g, MoveLog.index(tree.getMove(current)));
+            }
+            if (tree.isEvaluated(current) && tree.getBestMove(current) >= 0) {
+                g.setColor(new Color(0, 160, 0));
+                drawMarker(g, tree.getBestMove(current));
+            }
+        }
+
+        private void drawMarker(Graphics g, int cell) {
+            int x = MARGIN + (cell % cols) * cellSize - cellSize / 2;
+            int y = MARGIN + (cell / cols) * cellSize - cellSize / 2;
+            g.drawOval(x, y, cellSize, cellSize);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ResourceBundle;
 import com.eric.GobangGame.GobangGameUI.*;
+import com.eric.GobangGame.core.BoardSnapshot;
+import com.eric.GobangGame.core.Rules;
 
 /**
  * 棋盘面板：负责绘制棋盘、棋子，处理鼠标落子事件
@@ -39,9 +41,9 @@ public class ChessboardPanel extends JPanel {
 
                 // 校验坐标是否合法
                 if (i >= 0 && i < ROW && j >= 0 && j < COL) {
-                    int[][] board = game.getBoard(); // 从 game 获取当前棋盘
-                    if (board[i][j] == 0) {
-                        int currentPlayer = game.isBlackTurn() ? 1 : 2;
+                    BoardSnapshot board = game.getSnapshot(); // 从 game 获取当前局面
+                    if (board.get(i, j) == 0) {
+                        int currentPlayer = board.currentPlayer();
 
                         // 人机对战模式下的回合检查
                         if (game.getGameMode() == 1) {
@@ -61,11 +63,17 @@ public class ChessboardPanel extends JPanel {
                             }
                         }
 
+                        // 连珠规则下黑棋不能下禁手
+                        if (game.getGameState().isForbidden(i, j) && currentPlayer == Rules.BLACK) {
+                            game.getUi().showMessage("message.forbidden_move", "message.title.info", JOptionPane.INFORMATION_MESSAGE);
+                            return;
+                        }
+
                         game.getHandler().playerMove(i, j, currentPlayer);
 
-                        // 如果是多人游戏模式，发送落子消息
+                        // 如果是多人游戏模式，结束本方回合（落子消息由事件订阅者发送）
                         if (game.getGameMode() == 2 && game.getMultiPlayer() != null) {
-                            game.getMultiPlayer().sendMove(i, j);
+                            game.getMultiPlayer().endMyTurn();
                         }
                     }
                 }
@@ -78,33 +86,42 @@ public class ChessboardPanel extends JPanel {
         super.paintComponent(g);
         drawChessboard(g);
         drawChessPieces(g);
+        if (game.getGameMode() == 2) {
+            game.getMultiPlayer().onBoardPainted();
+        }
     }
 
-    // 绘制棋盘（15x15网格+星位）
+    // 绘制棋盘（ROW×COL网格+星位）
     private void drawChessboard(Graphics g) {
         g.setColor(Color.BLACK);
         // 绘制横线和竖线
         for (int i = 0; i < ROW; i++) {
             int y = MARGIN + i * CELL_SIZE;
             g.drawLine(MARGIN, y, MARGIN + (COL - 1) * CELL_SIZE, y);
-            int x = MARGIN + i * CELL_SIZE;
+        }
+        for (int j = 0; j < COL; j++) {
+            int x = MARGIN + j * CELL_SIZE;
             g.drawLine(x, MARGIN, x, MARGIN + (ROW - 1) * CELL_SIZE);
         }
 
-        // 绘制星位
-        int centerIndex = 7;
-        int starIndex1 = 3;
-        int starIndex2 = 11;
-
-        int center = MARGIN + centerIndex * CELL_SIZE;
-        int star1 = MARGIN + starIndex1 * CELL_SIZE;
-        int star2 = MARGIN + starIndex2 * CELL_SIZE;
+        // 绘制星位：天元与距边3路（小棋盘2路）的四角，19路及以上再加四边中点
+        int[] rowStars = starIndices(ROW);
+        int[] colStars = starIndices(COL);
+        boolean sides = Math.min(ROW, COL) >= 19;
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                boolean corner = i != 1 && j != 1;
+                boolean center = i == 1 && j == 1;
+                if (corner || center || sides) {
+                    drawChessPoint(g, MARGIN + colStars[j] * CELL_SIZE, MARGIN + rowStars[i] * CELL_SIZE);
+                }
+            }
+        }
+    }
 
-        drawChessPoint(g, center, center);
-        drawChessPoint(g, star1, star1);
-        drawChessPoint(g, star1, star2);
-        drawChessPoint(g, star2, star1);
-        drawChessPoint(g, star2, star2);
+    private static int[] starIndices(int size) {
+        int edge = size >= 13 ? 3 : 2;
+        return new int[]{edge, size / 2, size - 1 - edge};
     }
 
     // 绘制棋盘上的黑点（星位和中心）
@@ -114,15 +131,15 @@ public class ChessboardPanel extends JPanel {
 
     // 绘制已落的棋子
     private void drawChessPieces(Graphics g) {
-        int[][] board = game.getBoard(); // 从 game 获取当前棋盘
+        BoardSnapshot board = game.getSnapshot(); // 整次绘制使用同一个快照
 
         for (int i = 0; i < ROW; i++) {
             for (int j = 0; j < COL; j++) {
-                if (board[i][j] != 0) {
+                if (board.get(i, j) != 0) {
                     int x = MARGIN + j * CELL_SIZE;
                     int y = MARGIN + i * CELL_SIZE;
 
-                    if (board[i][j] == 1) { // 黑棋
+                    if (board.get(i, j) == 1) { // 黑棋
                         g.setColor(Color.BLACK);
                         g.fillOval(x - CELL_SIZE / 2 + 2, y - CELL_SIZE / 2 + 2, CELL_SIZE - 4, CELL_SIZE - 4);
                     } else { // 白棋
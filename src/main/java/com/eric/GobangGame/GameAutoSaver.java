@@ -0,0 +1,68 @@
+package com.eric.GobangGame;
+
+import com.eric.GobangGame.core.BoardSnapshot;
+import com.eric.GobangGame.core.MoveLog;
+import com.eric.GobangGame.event.GameEvent;
+import com.eric.GobangGame.event.GameEventBus;
+import com.eric.GobangGame.event.MovePlayed;
+import com.eric.GobangGame.event.PositionReset;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * 自动存档订阅者：由事件重建落子记录，在自己的线程上写文件，不占用落子路径
+ * 通过 -Dgobang.autosave=文件路径 开启
+ */
+public class GameAutoSaver {
+
+    private final GobangGame game;
+    private final File file;
+    // 仅在订阅者线程上访问
+    private short[] moves = new short[64];
+    private int count = 0;
+
+    public GameAutoSaver(GobangGame game, File file) {
+        this.game = game;
+        this.file = file;
+    }
+
+    /**
+     * 读取 gobang.autosave 属性，设置了则订阅事件
+     */
+    public static void attachIfConfigured(GobangGame game, GameEventBus bus, Executor executor) {
+        String path = System.getProperty("gobang.autosave");
+        if (path == null || path.isBlank()) return;
+        GameAutoSaver saver = new GameAutoSaver(game, new File(path));
+        bus.subscribe(GameEvent.class, executor, saver::onEvent);
+    }
+
+    private void onEvent(GameEvent event) {
+        if (event instanceof PositionReset reset) {
+            moves = reset.getMoves();
+            count = moves.length;
+        } else if (event instanceof MovePlayed move) {
+            if (count == moves.length) {
+                moves = Arrays.copyOf(moves, Math.max(64, count * 2));
+            }
+            BoardSnapshot snapshot = move.getSnapshot();
+            moves[count++] = MoveLog.encode(move.getRow(), move.getCol(), move.getPlayer(), snapshot.getCols());
+        }
+        save(event.getSnapshot());
+    }
+
+    private void save(BoardSnapshot snapshot) {
+        GameSave save = new GameSave(snapshot.toArray(), snapshot.isBlackTurn(), snapshot.isGameOver(),
+                Arrays.copyOf(moves, count), game.getGameMode(), game.isPlayerIsBlack(), game.getAiDifficulty(),
+                game.getRuleSet());
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
+            oos.writeObject(save);
+        } catch (IOException e) {
+            System.err.println("自动存档失败: " + e.getMessage());
+        }
+    }
+}
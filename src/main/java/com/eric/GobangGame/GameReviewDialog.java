@@ -0,0 +1,147 @@
+package com.eric.GobangGame;
+
+import com.eric.GobangGame.core.MoveLog;
+import com.eric.GobangGame.engine.GameReview;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ResourceBundle;
+
+/**
+ * 复盘窗口：上方为双方失误统计，左侧按所选步数重放棋局，右侧为逐步标注
+ * 重放时实际落子用红圈标出，有标注的步同时用绿圈标出推荐的着法
+ */
+public class GameReviewDialog extends JDialog {
+
+    private static final int MARGIN = 20;
+
+    private final GameReview review;
+    private final int cellSize;
+    private final JList<String> plyList;
+    private final ReplayPanel replay = new ReplayPanel();
+
+    public GameReviewDialog(Frame owner, GameReview review, ResourceBundle messages) {
+        super(owner, messages.getString("review.title"), false);
+        this.review = review;
+        this.cellSize = Math.max(8, 360 / Math.max(review.getRows(), review.getCols()));
+
+        JLabel summary = new JLabel(summaryText(messages));
+        summary.setBorder(BorderFactory.createEmptyBorder(8, 10, 8, 10));
+
+        DefaultListModel<String> model = new DefaultListModel<>();
+        for (GameReview.Ply ply : review.getPlies()) {
+            model.addElement(plyText(ply, messages));
+        }
+        plyList = new JList<>(model);
+        plyList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        plyList.addListSelectionListener(e -> replay.repaint());
+        if (!model.isEmpty()) {
+            plyList.setSelectedIndex(firstMarked());
+        }
+        JScrollPane scroll = new JScrollPane(plyList);
+        scroll.setPreferredSize(new Dimension(320, replay.getPreferredSize().height));
+
+        JPanel content = new JPanel(new BorderLayout(10, 0));
+        content.add(summary, BorderLayout.NORTH);
+        content.add(replay, BorderLayout.CENTER);
+        content.add(scroll, BorderLayout.EAST);
+        setContentPane(content);
+        pack();
+        setLocationRelativeTo(owner);
+    }
+
+    private String summaryText(ResourceBundle messages) {
+        return messages.getString("game.black") + ": " + counts(1, messages)
+                + "    " + messages.getString("game.white") + ": " + counts(2, messages);
+    }
+
+    private String counts(int player, ResourceBundle messages) {
+        return review.count(player, GameReview.Mark.BLUNDER) + " " + messages.getString("review.blunder") + ", "
+                + review.count(player, GameReview.Mark.MISSED_WIN) + " " + messages.getString("review.missed_win");
+    }
+
+    private static String plyText(GameReview.Ply ply, ResourceBundle messages) {
+        String color = ply.getPlayer() == 1 ? messages.getString("game.black") : messages.getString("game.white");
+        StringBuilder text = new StringBuilder();
+        text.append(ply.getIndex() + 1).append(". ").append(color)
+                .append(" (").append(ply.getRow()).append(',').append(ply.getCol()).append(")  ")
+                .append(ply.getScoreBefore()).append(" → ").append(ply.getScoreAfter());
+        if (ply.getMark() != GameReview.Mark.NONE) {
+            String key = ply.getMark() == GameReview.Mark.BLUNDER ? "review.blunder" : "review.missed_win";
+            text.append("  ").append(messages.getString(key)).append(", ").append(messages.getString("review.best"))
+                    .append(" (").append(ply.getBestRow()).append(',').append(ply.getBestCol()).append(')');
+        }
+        return text.toString();
+    }
+
+    /**
+     * 默认选中第一处标注，没有标注时选中最后一步
+     */
+    private int firstMarked() {
+        for (GameReview.Ply ply : review.getPlies()) {
+            if (ply.getMark() != GameReview.Mark.NONE) {
+                return ply.getIndex();
+            }
+        }
+        return review.getPlies().size() - 1;
+    }
+
+    /**
+     * 只读棋盘：显示到所选步为止的局面
+     */
+    private class ReplayPanel extends JPanel {
+
+        ReplayPanel() {
+            setPreferredSize(new Dimension(MARGIN * 2 + (review.getCols() - 1) * cellSize,
+                    MARGIN * 2 + (review.getRows() - 1) * cellSize));
+            setBackground(new Color(0xE3, 0xB8, 0x6B));
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            int rows = review.getRows();
+            int cols = review.getCols();
+            g.setColor(Color.BLACK);
+            for (int i = 0; i < rows; i++) {
+                g.drawLine(MARGIN, MARGIN + i * cellSize, MARGIN + (cols - 1) * cellSize, MARGIN + i * cellSize);
+            }
+            for (int j = 0; j < cols; j++) {
+                g.drawLine(MARGIN + j * cellSize, MARGIN, MARGIN + j * cellSize, MARGIN + (rows - 1) * cellSize);
+            }
+
+            int selected = plyList.getSelectedIndex();
+            short[] moves = review.getMoves();
+            for (int n = 0; n <= selected; n++) {
+                int index = MoveLog.index(moves[n]);
+                drawStone(g, index / cols, index % cols, MoveLog.player(moves[n]));
+            }
+            if (selected < 0) {
+                return;
+            }
+            GameReview.Ply ply = review.getPlies().get(selected);
+            ((Graphics2D) g).setStroke(new BasicStroke(2));
+            g.setColor(Color.RED);
+            drawMarker(g, ply.getRow(), ply.getCol());
+            if (ply.getMark() != GameReview.Mark.NONE && ply.getBestRow() >= 0) {
+                g.setColor(new Color(0, 160, 0));
+                drawMarker(g, ply.getBestRow(), ply.getBestCol());
+            }
+        }
+
+        private void drawStone(Graphics g, int row, int col, int player) {
+            int x = MARGIN + col * cellSize - cellSize / 2 + 1;
+            int y = MARGIN + row * cellSize - cellSize / 2 + 1;
+            g.setColor(player == 1 ? Color.BLACK : Color.WHITE);
+            g.fillOval(x, y, cellSize - 2, cellSize - 2);
+            g.setColor(Color.BLACK);
+            g.drawOval(x, y, cellSize - 2, cellSize - 2);
+        }
+
+        private void drawMarker(Graphics g, int row, int col) {
+            int x = MARGIN + col * cellSize - cellSize / 2;
+            int y = MARGIN + row * cellSize - cellSize / 2;
+            g.drawOval(x, y, cellSize, cellSize);
+        }
+    }
+}
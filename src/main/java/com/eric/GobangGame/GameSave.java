@@ -1,8 +1,10 @@
 package com.eric.GobangGame;
 
+import com.eric.GobangGame.core.MoveLog;
+import com.eric.GobangGame.core.RuleSet;
+
 import java.io.Serial;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -15,20 +17,25 @@ public class GameSave implements Serializable {
 	private int[][] board;
 	private boolean isBlackTurn;
 	private boolean gameOver;
+	// 旧版存档的落子记录，仅用于读取；新存档写入 moves
 	private List<int[]> moveHistory;
+	private short[] moves;
     private int gameMode;
     private boolean playerIsBlack;
     private int aiDifficulty;
+    // 旧版存档没有此字段，读取为自由规则
+    private String ruleSet;
 
-	public GameSave(int[][] board, boolean isBlackTurn, boolean gameOver, List<int[]> moveHistory, 
-                    int gameMode, boolean playerIsBlack, int aiDifficulty) {
+	public GameSave(int[][] board, boolean isBlackTurn, boolean gameOver, short[] moves,
+                    int gameMode, boolean playerIsBlack, int aiDifficulty, RuleSet ruleSet) {
 		this.board = copyBoard(board);
 		this.isBlackTurn = isBlackTurn;
 		this.gameOver = gameOver;
-		this.moveHistory = new ArrayList<>(moveHistory); // Create a copy
+		this.moves = moves.clone();
         this.gameMode = gameMode;
         this.playerIsBlack = playerIsBlack;
         this.aiDifficulty = aiDifficulty;
+        this.ruleSet = ruleSet.name();
 	}
 
 	// Deep copy of the board
@@ -44,8 +51,21 @@ public class GameSave implements Serializable {
 	public int[][] getBoard() { return copyBoard(board); }
 	public boolean isBlackTurn() { return isBlackTurn; }
 	public boolean isGameOver() { return gameOver; }
-	public List<int[]> getMoveHistory() { return new ArrayList<>(moveHistory); }
+	public short[] getMoves() {
+		if (moves != null) {
+			return moves.clone();
+		}
+		// 旧版存档：颜色从棋盘上取
+		short[] converted = new short[moveHistory.size()];
+		int cols = board.length > 0 ? board[0].length : 0;
+		for (int i = 0; i < converted.length; i++) {
+			int[] move = moveHistory.get(i);
+			converted[i] = MoveLog.encode(move[0], move[1], board[move[0]][move[1]], cols);
+		}
+		return converted;
+	}
     public int getGameMode() { return gameMode; }
     public boolean isPlayerIsBlack() { return playerIsBlack; }
     public int getAiDifficulty() { return aiDifficulty; }
+    public RuleSet getRuleSet() { return ruleSet == null ? RuleSet.FREESTYLE : RuleSet.parse(ruleSet); }
 }
\ No newline at end of file
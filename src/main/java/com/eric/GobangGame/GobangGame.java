@@ -1,11 +1,35 @@
 package com.eric.GobangGame;
 
+import com.eric.GobangGame.arena.Arena;
+import com.eric.GobangGame.arena.ArenaWorker;
+import com.eric.GobangGame.arena.SpsaTuner;
+import com.eric.GobangGame.cli.BatchAnalyzer;
+import com.eric.GobangGame.cli.NetworkBot;
+import com.eric.GobangGame.cli.PiskvorkEngine;
+import com.eric.GobangGame.cli.PuzzleMiner;
+import com.eric.GobangGame.core.BoardSnapshot;
+import com.eric.GobangGame.core.GameState;
+import com.eric.GobangGame.core.MoveLog;
+import com.eric.GobangGame.core.RuleSet;
+import com.eric.GobangGame.core.Rules;
+import com.eric.GobangGame.engine.GameReview;
+import com.eric.GobangGame.engine.GameReviewer;
+import com.eric.GobangGame.engine.GobangGameAi;
+import com.eric.GobangGame.event.EventMetrics;
+import com.eric.GobangGame.event.GameEventBus;
+import com.eric.GobangGame.event.GameOver;
+import com.eric.GobangGame.event.MovePlayed;
+import com.eric.GobangGame.event.PositionReset;
+import com.eric.GobangGame.event.TurnChanged;
+import com.eric.GobangGame.net.GameServer;
+
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * 五子棋游戏主类 - 协调器
@@ -16,18 +40,19 @@ public class GobangGame extends JFrame{
     public static final double VERSION = 2.1;
     
     // --- 棋盘常量 (仍保留在主类中，因为其他组件需要访问它们来确定尺寸) ---
-    public static final int ROW = 15;
-    public static final int COL = 15;
-    public static final int CELL_SIZE = 40;
+    // 棋盘边长由 -Dgobang.size=N 指定（默认15），格子大小随之缩放，使棋盘保持约600像素
+    public static final int ROW = configuredSize();
+    public static final int COL = ROW;
+    public static final int BOARD_PIXELS = 600;
+    public static final int CELL_SIZE = Math.max(16, BOARD_PIXELS / ROW);
     public static final int MARGIN = 30; 
     public static final int BUTTON_WIDTH = 120;
     public static final int BUTTON_HEIGHT = 40;
+    // 赛后复盘的用时预算（毫秒）
+    public static final long REVIEW_BUDGET_MILLIS = 3000;
 
-    // --- 核心游戏状态 ---
-    private int[][] board = new int[ROW][COL];
-    private boolean isBlackTurn = true; 
-    private boolean gameOver = false;
-    private List<int[]> moveHistory = new ArrayList<>();
+    // --- 核心游戏状态 (与界面无关，见 core 包) ---
+    private final GameState state = new GameState(ROW, COL);
     private int currentPlayer = isBlackTurn() ? 1 : 2;
     
     // --- 游戏模式状态 ---
@@ -42,6 +67,11 @@ public class GobangGame extends JFrame{
     private ChessboardPanel chessboard;
     private GobangGameMultiPlayer multiPlayer;
 
+    // --- 事件总线：落子路径只发布事件，订阅者在各自的线程上处理 ---
+    private final GameEventBus events = new GameEventBus();
+    private final EventMetrics eventMetrics = new EventMetrics();
+    private final GameReviewer reviewer = new GameReviewer(GameReviewer.defaultThreads(), REVIEW_BUDGET_MILLIS);
+
     // 构造方法
     public GobangGame() {
         // 1. 初始化模块
@@ -52,7 +82,7 @@ public class GobangGame extends JFrame{
         // 2. 初始化窗口属性
         setTitle(ui.getMessages().getString("game.title"));
         int windowWidth = MARGIN * 2 + COL * CELL_SIZE + BUTTON_WIDTH + 40;
-        int windowHeight = MARGIN * 2 + ROW * CELL_SIZE;
+        int windowHeight = MARGIN * 2 + Math.max(BOARD_PIXELS, ROW * CELL_SIZE);
         setSize(windowWidth, windowHeight);
         setLocationRelativeTo(null); 
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -72,6 +102,58 @@ public class GobangGame extends JFrame{
 
         // 6. 添加菜单栏 (View)
         setJMenuBar(ui.createMenuBar());
+
+        // 7. 事件订阅：界面与AI触发在EDT上，统计、复盘与自动存档各用一个后台线程
+        Executor edt = SwingUtilities::invokeLater;
+        events.subscribe(MovePlayed.class, edt, e -> repaint());
+        events.subscribe(PositionReset.class, edt, e -> repaint());
+        events.subscribe(GameOver.class, edt, handler::onGameOver);
+        events.subscribe(TurnChanged.class, edt, handler::onTurnChanged);
+        eventMetrics.attach(events, backgroundExecutor("gobang-metrics"));
+        events.subscribe(GameOver.class, backgroundExecutor("gobang-review"), this::reviewGame);
+        GameAutoSaver.attachIfConfigured(this, events, backgroundExecutor("gobang-autosave"));
+    }
+
+    private static int configuredSize() {
+        String value = System.getProperty("gobang.size");
+        if (value == null || value.isBlank()) {
+            return Rules.DEFAULT_SIZE;
+        }
+        try {
+            return Rules.checkSize(Integer.parseInt(value.trim()));
+        } catch (IllegalArgumentException e) {
+            System.err.println("忽略无效的 gobang.size: " + value + "，使用 " + Rules.DEFAULT_SIZE);
+            return Rules.DEFAULT_SIZE;
+        }
+    }
+
+    private static Executor backgroundExecutor(String name) {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 事件订阅（复盘线程）：对局结束后在后台分析整局，完成后在EDT上显示复盘窗口
+     */
+    private void reviewGame(GameOver event) {
+        short[] moves = event.getMoves();
+        if (moves.length < 2) return;
+        try {
+            GameReview review = reviewer.review(moves, ROW, COL, state.getRuleSet());
+            SwingUtilities.invokeLater(() -> ui.showReview(review));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 局面被整体替换后通知订阅者
+     */
+    private void publishReset() {
+        events.publish(new PositionReset(state.getSnapshot(), state.getMoveLog().toArray()));
     }
 
     // --- 公共的协调方法 ---
@@ -80,10 +162,8 @@ public class GobangGame extends JFrame{
      * 开始新游戏
      */
     public void startNewGame() {
-        board = new int[ROW][COL]; // 重置棋盘
-        moveHistory.clear();
-        isBlackTurn = true;
-        gameOver = false;
+        state.reset(); // 重置棋盘
+        publishReset();
 
         // 更新UI状态
         if (gameMode == 1) {
@@ -94,7 +174,7 @@ public class GobangGame extends JFrame{
         }
 
         // 如果是人机对战且AI先手，则调用AI回合
-        if (gameMode == 1 && (isBlackTurn && !playerIsBlack || !isBlackTurn && playerIsBlack)) {
+        if (gameMode == 1 && (isBlackTurn() && !playerIsBlack || !isBlackTurn() && playerIsBlack)) {
             SwingUtilities.invokeLater(() -> {
                 handler.aiTurn();
             });
@@ -113,41 +193,80 @@ public class GobangGame extends JFrame{
             return;
         }
 
-        if (gameOver || moveHistory.isEmpty()) {
+        if (state.isGameOver() || state.getMoveLog().isEmpty()) {
             ui.showMessage(
-                    gameOver ? "message.cannot_undo_game_over" : "message.cannot_undo_no_moves",
+                    state.isGameOver() ? "message.cannot_undo_game_over" : "message.cannot_undo_no_moves",
                     "message.title.tip",
                     JOptionPane.WARNING_MESSAGE);
             return;
         }
         
         // 撤销最后一步落子
-        int[] lastMove = moveHistory.removeLast();
-        board[lastMove[0]][lastMove[1]] = 0; 
-        isBlackTurn = !isBlackTurn; 
+        state.undo();
         
         // 如果是AI模式，可能需要额外悔一步（悔掉AI的）
-        if (gameMode == 1 && !moveHistory.isEmpty()) {
+        if (gameMode == 1 && !state.getMoveLog().isEmpty()) {
              // 确保悔棋后的回合是玩家的回合
             int playerColor = playerIsBlack ? 1 : 2;
-            int currentPlayer = isBlackTurn ? 1 : 2;
             
-            if (currentPlayer != playerColor) {
-                lastMove = moveHistory.removeLast();
-                board[lastMove[0]][lastMove[1]] = 0; 
-                isBlackTurn = !isBlackTurn; 
+            if (state.currentPlayer() != playerColor) {
+                state.undo();
             }
         }
+        publishReset();
         
         repaint();
     }
     
+    /**
+     * 重做被悔掉的落子；AI模式下一直重做到玩家的回合
+     */
+    public void redoMove() {
+        if (gameMode == 2) {
+            ui.showMessage("message.cannot_undo_multiplayer", "message.title.tip", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        if (!state.getMoveLog().canRedo()) {
+            ui.showMessage("message.cannot_redo", "message.title.tip", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        int playerColor = playerIsBlack ? 1 : 2;
+        GameState.MoveResult result;
+        do {
+            result = state.redo();
+        } while (result == GameState.MoveResult.CONTINUE && gameMode == 1
+                && state.currentPlayer() != playerColor && state.getMoveLog().canRedo());
+        publishReset();
+
+        repaint();
+
+        if (result == GameState.MoveResult.WIN) {
+            ui.showWinMessage(state.getWinner());
+        } else if (result == GameState.MoveResult.DRAW) {
+            ui.showDrawMessage();
+        } else if (gameMode == 1 && state.currentPlayer() != playerColor) {
+            handler.aiTurn();
+        }
+    }
+
+    /**
+     * 用对方发来的整局着法替换当前局面（联机续局时缺口过大）
+     */
+    public void restorePosition(short[] moves, boolean blackTurn, boolean gameOver) {
+        state.restore(moves, blackTurn, gameOver);
+        publishReset();
+        repaint();
+    }
+
     /**
      * Save current game state to a file
      */
     public void saveGame(File file) {
     	try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
-    		GameSave save = new GameSave(board, isBlackTurn, gameOver, moveHistory, gameMode, playerIsBlack, aiDifficulty);
+    		GameSave save = new GameSave(state.getBoard(), state.isBlackTurn(), state.isGameOver(), state.getMoveLog().toArray(),
+                    gameMode, playerIsBlack, aiDifficulty, state.getRuleSet());
     		oos.writeObject(save);
     		ui.showMessage("message.save_success", "message.title.success", JOptionPane.INFORMATION_MESSAGE);
     	} catch (IOException ex) {
@@ -159,23 +278,32 @@ public class GobangGame extends JFrame{
      * Load game state from a file
      */
     public void loadGame(File file) {
+        // 存档会替换规则与局面，联机对局中不允许
+        if (gameMode == 2 && multiPlayer != null && multiPlayer.isConnected()) {
+            ui.showMessage("message.already_in_multiplayer", "message.title.info", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
     	try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
     		GameSave save = (GameSave) ois.readObject();
+    		if (save.getBoard().length != ROW) {
+    			// 存档的棋盘大小与当前不同
+    			ui.showMessage("message.load_failed", "message.title.error", JOptionPane.ERROR_MESSAGE);
+    			return;
+    		}
 
     		// Restore game state
-    		this.board = save.getBoard();
-    		this.isBlackTurn = save.isBlackTurn();
-    		this.gameOver = save.isGameOver();
-    		this.moveHistory = save.getMoveHistory();
+    		applyRuleSet(save.getRuleSet());
+    		state.restore(save.getMoves(), save.isBlackTurn(), save.isGameOver());
             this.gameMode = save.getGameMode();
             this.playerIsBlack = save.isPlayerIsBlack();
             this.aiDifficulty = save.getAiDifficulty();
             this.ai.setDifficulty(save.getAiDifficulty());
+            publishReset();
 
     		// 加载存档后，如果游戏未结束且是人机对战模式，可能需要AI行动
-    		if (gameMode == 1 && !gameOver) {
+    		if (gameMode == 1 && !state.isGameOver()) {
     			int aiPlayer = playerIsBlack ? 2 : 1;
-    			if ((isBlackTurn && aiPlayer == 1) || (!isBlackTurn && aiPlayer == 2)) {
+    			if ((isBlackTurn() && aiPlayer == 1) || (!isBlackTurn() && aiPlayer == 2)) {
     				handler.aiTurn();
     			}
     		}
@@ -187,6 +315,36 @@ public class GobangGame extends JFrame{
     	}
     }
 
+    /**
+     * 切换规则并开始新游戏；联机对局中双方规则须一致，因此不允许切换
+     * 联机对局一律按自由规则（见 useOnlineRules）
+     */
+    public void setRuleSet(RuleSet ruleSet) {
+        if (gameMode == 2 && multiPlayer != null && multiPlayer.isConnected()) {
+            ui.showMessage("message.already_in_multiplayer", "message.title.info", JOptionPane.INFORMATION_MESSAGE);
+            ui.setRenjuSelected(state.getRuleSet() == RuleSet.RENJU);
+            return;
+        }
+        applyRuleSet(ruleSet);
+        startNewGame();
+    }
+
+    /**
+     * 开始联机对局前调用：协议中没有协商规则，服务器的裁判（net.Referee）按自由规则判定并给出计分的官方结果，
+     * 双方本地也必须按自由规则，否则连珠规则下的禁手与长连会与服务器的判定不一致
+     */
+    public void useOnlineRules() {
+        if (state.getRuleSet() != RuleSet.FREESTYLE) {
+            applyRuleSet(RuleSet.FREESTYLE);
+        }
+    }
+
+    private void applyRuleSet(RuleSet ruleSet) {
+        state.setRuleSet(ruleSet);
+        ai.setRuleSet(ruleSet);
+        ui.setRenjuSelected(ruleSet == RuleSet.RENJU);
+    }
+
     public boolean getAiState() {
         if (getGameMode() == 1) {
             int playerColor = playerIsBlack ? 1 : 2;
@@ -201,12 +359,15 @@ public class GobangGame extends JFrame{
     
     // --- Getters and Setters ---
 
-    public int[][] getBoard() { return board; }
-    public boolean isBlackTurn() { return isBlackTurn; }
-    public void setBlackTurn(boolean isBlackTurn) { this.isBlackTurn = isBlackTurn; }
-    public boolean isGameOver() { return gameOver; }
-    public void setGameOver(boolean gameOver) { this.gameOver = gameOver; }
-    public List<int[]> getMoveHistory() { return moveHistory; }
+    public GameState getGameState() { return state; }
+    public int[][] getBoard() { return state.getBoard(); }
+    public BoardSnapshot getSnapshot() { return state.getSnapshot(); }
+    public boolean isBlackTurn() { return state.isBlackTurn(); }
+    public void setBlackTurn(boolean isBlackTurn) { state.setBlackTurn(isBlackTurn); }
+    public boolean isGameOver() { return state.isGameOver(); }
+    public void setGameOver(boolean gameOver) { state.setGameOver(gameOver); }
+    public MoveLog getMoveLog() { return state.getMoveLog(); }
+    public RuleSet getRuleSet() { return state.getRuleSet(); }
     public int getGameMode() { return gameMode; }
     public void setGameMode(int gameMode) { this.gameMode = gameMode; }
     public boolean isPlayerIsBlack() { return playerIsBlack; }
@@ -223,6 +384,8 @@ public class GobangGame extends JFrame{
     public GobangGameAi getAi() { return ai; }
     public GobangGameUI getUi() { return ui; }
     public GobangGameHandler getHandler() { return handler; }
+    public GameEventBus getEvents() { return events; }
+    public EventMetrics getEventMetrics() { return eventMetrics; }
     
     // 常量 Getter
     public int getBUTTON_WIDTH() { return BUTTON_WIDTH; }
@@ -230,6 +393,42 @@ public class GobangGame extends JFrame{
 
     // 主方法
     public static void main(String[] args) {
+        // 带子命令启动时进入无界面模式
+        if (args.length > 0) {
+            System.setProperty("java.awt.headless", "true");
+            String[] rest = Arrays.copyOfRange(args, 1, args.length);
+            switch (args[0]) {
+                case "arena":
+                    Arena.main(rest);
+                    return;
+                case "arena-worker":
+                    ArenaWorker.main(rest);
+                    return;
+                case "tune":
+                    SpsaTuner.main(rest);
+                    return;
+                case "piskvork":
+                    PiskvorkEngine.main(rest);
+                    return;
+                case "analyze":
+                    BatchAnalyzer.main(rest);
+                    return;
+                case "puzzles":
+                    PuzzleMiner.main(rest);
+                    return;
+                case "server":
+                    GameServer.main(rest);
+                    return;
+                case "bot":
+                    NetworkBot.main(rest);
+                    return;
+                default:
+                    System.err.println("Unknown command: " + args[0]);
+                    System.err.println("Commands: arena, arena-worker, tune, piskvork, analyze, puzzles, server, bot");
+                    System.exit(2);
+            }
+        }
+
     	SwingUtilities.invokeLater(() -> {
     		try {
     			UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -1,5 +1,13 @@
 package com.eric.GobangGame;
 
+import com.eric.GobangGame.core.BoardSnapshot;
+import com.eric.GobangGame.core.GameState;
+import com.eric.GobangGame.core.Rules;
+import com.eric.GobangGame.event.GameEventBus;
+import com.eric.GobangGame.event.GameOver;
+import com.eric.GobangGame.event.MovePlayed;
+import com.eric.GobangGame.event.TurnChanged;
+
 import javax.swing.SwingUtilities;
 
 /**
@@ -19,41 +27,48 @@ public class GobangGameHandler {
 
     /**
      * 玩家/AI落子并检查游戏状态
-     */
-    /**
-     * 玩家/AI落子并检查游戏状态
+     * 只更新状态并发布事件；重绘、结束对话框、AI回合、网络发送等由各订阅者在自己的线程上处理
      */
     public void playerMove(int row, int col, int playerType) {
         System.out.println("Handler.playerMove 被调用: 位置(" + row + ", " + col + "), 玩家类型=" + playerType); // 调试
 
-        int[][] board = game.getBoard();
-
-        // 1. 记录落子
-        board[row][col] = playerType;
-        game.getMoveHistory().add(new int[]{row, col});
-        game.repaint(); // 立即更新棋盘显示
-
-        System.out.println("落子完成，当前黑棋回合: " + game.isBlackTurn()); // 调试
+        // 1. 记录落子并判定胜负（规则在 core.GameState 中）
+        GameState.MoveResult result = game.getGameState().place(row, col, playerType);
+        BoardSnapshot snapshot = game.getSnapshot();
+        GameEventBus events = game.getEvents();
+        events.publish(new MovePlayed(snapshot, row, col, playerType));
+
+        // 2. 发布结束或换手事件（回合已在 GameState 中切换）
+        if (result == GameState.MoveResult.WIN) {
+            events.publish(new GameOver(snapshot, playerType, game.getMoveLog().toArray()));
+        } else if (result == GameState.MoveResult.DRAW) {
+            events.publish(new GameOver(snapshot, Rules.EMPTY, game.getMoveLog().toArray()));
+        } else {
+            events.publish(new TurnChanged(snapshot, snapshot.currentPlayer()));
+        }
+    }
 
-        // 2. 检查游戏是否结束
-        if (checkWin(row, col)) {
-            System.out.println("游戏结束，玩家" + playerType + "获胜"); // 调试
-            game.getUi().showWinMessage(playerType);
-            game.setGameOver(true);
-        } else if (checkDraw()) {
+    /**
+     * 事件订阅（EDT）：显示胜负或平局
+     */
+    public void onGameOver(GameOver event) {
+        if (event.isDraw()) {
             System.out.println("游戏平局"); // 调试
             game.getUi().showDrawMessage();
-            game.setGameOver(true);
         } else {
-            // 3. 切换回合
-            game.setBlackTurn(!game.isBlackTurn());
-            System.out.println("切换回合，新回合黑棋: " + game.isBlackTurn()); // 调试
-
-            // 4. 如果是人机对战，且游戏未结束，让AI落子
-            if (game.getGameMode() == 1 && !game.isGameOver()) {
-                System.out.println("人机模式，准备AI回合..."); // 调试
-                aiTurn();
-            }
+            System.out.println("游戏结束，玩家" + event.getWinner() + "获胜"); // 调试
+            game.getUi().showWinMessage(event.getWinner());
+        }
+    }
+
+    /**
+     * 事件订阅（EDT）：人机对战中轮到AI时开始思考；局面已变化的旧事件直接忽略
+     */
+    public void onTurnChanged(TurnChanged event) {
+        if (event.getSnapshot().getVersion() != game.getSnapshot().getVersion()) return;
+        System.out.println("切换回合，新回合黑棋: " + event.getSnapshot().isBlackTurn()); // 调试
+        if (game.getGameMode() == 1 && !game.isGameOver()) {
+            aiTurn();
         }
     }
 
@@ -71,18 +86,26 @@ public class GobangGameHandler {
             // 更新AI状态为Working
             game.getUi().updateAiLabel("AI: Thinking...");
 
-            // 在新线程中执行AI计算（避免UI冻结）
+            // 在新线程中执行AI计算（避免UI冻结）：读取不可变快照，计算完成后回到EDT确认局面未变再落子
+            BoardSnapshot snapshot = game.getSnapshot();
             new Thread(() -> {
                 try {
                     // 根据难度设置不同的思考时间
                     int thinkTime = (game.getAiDifficulty() + 1) * 500; // 0.5-1.5秒
                     Thread.sleep(thinkTime); // 模拟思考时间
 
-                    SwingUtilities.invokeLater(() -> {
-                        // AI计算最佳落子位置
-                        int[] move = game.getAi().calculateMove(game.getBoard(), aiPlayer);
+                    // AI计算最佳落子位置（AI 对象带有搜索状态，同一时间只允许一个线程使用）
+                    int[] move;
+                    synchronized (game.getAi()) {
+                        move = game.getAi().calculateMove(snapshot.toArray(), aiPlayer);
+                    }
 
-                        if (move[0] != -1 && move[1] != -1 && game.getBoard()[move[0]][move[1]] == 0) {
+                    SwingUtilities.invokeLater(() -> {
+                        // 思考期间局面被悔棋、重开或读档改变时丢弃结果
+                        if (game.getSnapshot().getVersion() != snapshot.getVersion()) {
+                            return;
+                        }
+                        if (move[0] != -1 && move[1] != -1 && snapshot.get(move[0], move[1]) == 0) {
                             // AI落子前再次确认状态
                             game.getUi().updateAiLabel("AI: Moving...");
 
@@ -107,56 +130,13 @@ public class GobangGameHandler {
      * 检查是否获胜：判断当前落子位置是否形成五子连线
      */
     public boolean checkWin(int row, int col) {
-        int[][] board = game.getBoard();
-        int type = board[row][col]; // 当前落子的棋子类型
-        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}}; // 四个方向
-
-        for (int[] dir : directions) {
-            int count = 1; 
-            int dx = dir[0];
-            int dy = dir[1];
-
-            // 向一个方向遍历
-            for (int i = 1; i < 5; i++) {
-                int r = row + i * dx;
-                int c = col + i * dy;
-                if (r >= 0 && r < ROW && c >= 0 && c < COL && board[r][c] == type) {
-                    count++;
-                } else {
-                    break;
-                }
-            }
-
-            // 向反方向遍历
-            for (int i = 1; i < 5; i++) {
-                int r = row - i * dx;
-                int c = col - i * dy;
-                if (r >= 0 && r < ROW && c >= 0 && c < COL && board[r][c] == type) {
-                    count++;
-                } else {
-                    break;
-                }
-            }
-
-            if (count >= 5) {
-                return true;
-            }
-        }
-        return false;
+        return Rules.isWin(game.getBoard(), row, col);
     }
 
     /**
      * 检查是否平局：棋盘无空位且无人获胜
      */
     public boolean checkDraw() {
-        int[][] board = game.getBoard();
-        for (int i = 0; i < ROW; i++) {
-            for (int j = 0; j < COL; j++) {
-                if (board[i][j] == 0) {
-                    return false; // 还有空位，不是平局
-                }
-            }
-        }
-        return true;
+        return game.getGameState().isFull();
     }
-}
\ No newline at end of file
+}
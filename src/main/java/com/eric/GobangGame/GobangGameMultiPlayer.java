@@ -1,43 +1,101 @@
 package com.eric.GobangGame;
 
+import com.eric.GobangGame.core.BoardSnapshot;
+import com.eric.GobangGame.event.GameEventBus;
+import com.eric.GobangGame.event.MovePlayed;
+import com.eric.GobangGame.net.LatencyHistogram;
+import com.eric.GobangGame.net.LatencyTracker;
+import com.eric.GobangGame.net.Lobby;
+import com.eric.GobangGame.net.Message;
+import com.eric.GobangGame.net.Protocol;
+import com.eric.GobangGame.net.ResendBuffer;
+
 import javax.swing.*;
 import java.io.*;
+import java.lang.reflect.InvocationTargetException;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.List;
 import java.util.concurrent.*;
 
 /**
  * 五子棋多人游戏实现 - 支持网络对战
  * 职责：处理网络连接、消息传递、回合同步
+ * 连接建立后先握手（见 Protocol）：双方都是新版时改用二进制帧，否则继续使用文本协议
+ * 二进制连接上每 2 秒 PING 一次测量往返时间；落子带有参考时钟下的发送时间，
+ * 接收方据此统计单程延迟，并统计从收到落子到棋盘重绘完成的延迟（见 LatencyTracker）
+ * 套接字默认设置 TCP_NODELAY，可用 -Dgobang.nodelay=false 关闭以便对比
+ *
+ * 断线续局（二进制连接）：主机或服务器在开始时发出会话令牌，对局消息带序号并保留在 ResendBuffer 中。
+ * 连接意外中断（读写出错，或 10 秒内没有收到任何消息）后，客户端带令牌重连，主机重新监听端口，
+ * 在 Lobby.RESUME_GRACE_SECONDS 内重连成功即继续对局：重连方发出 RESUME（已收到的最大序号），
+ * 对方回复 RESUMED 并补发缺少的消息（缺口过大时发送整局快照），重连方收到后同样补发，一个往返完成同步。
+ *
+ * 联机对局（点对点与经服务器）一律按自由规则，开始时本地切换到自由规则，连接期间不能切换（见 GobangGame.useOnlineRules）。
+ *
+ * 观战（watchGame）：连接独立服务器并发送 WATCH，先收到局面快照与之后的落子，此后只显示双方的落子，不能落子或聊天。
+ * 服务器设置了棋钟时，每步之后发来双方的剩余时间（CLOCK），显示在回合提示之后，走动的一方在本地每半秒倒计时一次。
  */
 public class GobangGameMultiPlayer {
 
     private final GobangGame game;
     private Socket socket;
-    private PrintWriter out;
-    private BufferedReader in;
+    private OutputStream out;
+    private DataInputStream in;
+    // 握手后是否使用二进制帧
+    private volatile boolean binary = false;
+    // 握手时读到的第一条消息（对方是旧版时），在监听开始后处理
+    private Message pendingMessage;
+    private final byte[] frameBuffer = new byte[Protocol.MAX_FRAME];
     private boolean isHost = false;
     private boolean isMyTurn = false;
     private String playerName = "Player";
     private String opponentName = "Opponent";
     private int myPlayerType = 1; // 1=黑棋，2=白棋
     private ExecutorService networkExecutor;
+    // 发送落子的线程：作为事件订阅者，不占用落子路径
+    private final ExecutorService sendExecutor;
+    private GameEventBus.Subscription<MovePlayed> moveSubscription;
     private boolean connected = false;
     private String serverAddress = "localhost";
     private int port = 12345;
     private SwingWorker<Boolean, Void> connectionWorker;
-
-    // 消息类型常量
-    private static final String MSG_MOVE = "MOVE";
-    private static final String MSG_CHAT = "CHAT";
-    private static final String MSG_START = "START";
-    private static final String MSG_RESTART = "RESTART";
-    private static final String MSG_DISCONNECT = "DISCONNECT";
-    private static final String MSG_PLAYER_INFO = "PLAYER_INFO";
-    private static final String MSG_GAME_OVER = "GAME_OVER";
+    // 延迟统计
+    private static final long PING_INTERVAL_MILLIS = 2000;
+    private final ScheduledExecutorService pingTimer;
+    private ScheduledFuture<?> pingTask;
+    private LatencyTracker tracker = new LatencyTracker(false);
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private final LatencyHistogram renderLatency = new LatencyHistogram();
+    // 对手落子的接收时间（nanoTime），棋盘重绘后清零；只在界面线程上访问
+    private long pendingRenderNanos = 0;
+    // 断线续局
+    private static final long RESUME_TIMEOUT_MILLIS = Lobby.RESUME_GRACE_SECONDS * 1000L;
+    private static final long LIVENESS_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private volatile long sessionToken = 0; // 0 表示不支持续局
+    private ResendBuffer resend = new ResendBuffer();
+    private volatile boolean reconnecting = false;
+    private volatile long lastReceivedNanos;
+    private volatile ServerSocket resumeSocket;
+    // 观战模式
+    private volatile boolean spectating = false;
+    // 服务器最近一次发来的棋钟及其接收时间（nanoTime），没有棋钟时为 null
+    private volatile Message clock;
+    private volatile long clockReceivedNanos;
+    // 棋钟走动时刷新显示，只在界面线程上访问
+    private Timer clockTimer;
 
     public GobangGameMultiPlayer(GobangGame game) {
         this.game = game;
         this.networkExecutor = Executors.newSingleThreadExecutor();
+        this.sendExecutor = Executors.newSingleThreadExecutor();
+        this.pingTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "gobang-ping");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
@@ -45,6 +103,7 @@ public class GobangGameMultiPlayer {
      */
     public void createServer(int port, String playerName) {
         this.isHost = true;
+        this.spectating = false;
         this.port = port;
         this.playerName = playerName;
         this.isMyTurn = true; // 主机默认执黑先手
@@ -63,12 +122,32 @@ public class GobangGameMultiPlayer {
                     serverSocket.setSoTimeout(30000);
                     socket = serverSocket.accept();
 
-                    // 连接建立成功
+                    // 连接建立成功；旧版客户端连接后立即发送消息，新版先发送握手
                     setupStreams();
+                    socket.setSoTimeout(30000);
+                    String first = readLine();
+                    socket.setSoTimeout(0);
+                    if (first == null) {
+                        throw new EOFException();
+                    }
+                    if (Protocol.isHello(first)) {
+                        sendLine(Protocol.hello());
+                        binary = true;
+                    } else {
+                        pendingMessage = Message.parseText(first);
+                    }
                     connected = true;
 
-                    // 发送玩家信息
-                    sendMessage(MSG_PLAYER_INFO + ":" + playerName);
+                    // 发送玩家信息；对方支持二进制协议时发出会话令牌，之后可以断线续局
+                    sendMessage(Message.playerInfo(playerName));
+                    if (binary) {
+                        long token;
+                        do {
+                            token = new SecureRandom().nextLong();
+                        } while (token == 0);
+                        sessionToken = token;
+                        sendMessage(Message.session(token));
+                    }
 
                     // 开始监听消息
                     startMessageListener();
@@ -121,7 +200,15 @@ public class GobangGameMultiPlayer {
      * 作为客户端连接服务器
      */
     public void connectToServer(String address, int port, String playerName) {
+        connectToServer(address, port, playerName, "");
+    }
+
+    /**
+     * 作为客户端连接服务器；连接的是独立服务器（server 命令）时可以指定房间名，留空由服务器自动配对
+     */
+    public void connectToServer(String address, int port, String playerName, String room) {
         this.isHost = false;
+        this.spectating = false;
         this.serverAddress = address;
         this.port = port;
         this.playerName = playerName;
@@ -139,10 +226,27 @@ public class GobangGameMultiPlayer {
 
                     socket = new Socket(address, port);
                     setupStreams();
+
+                    // 握手：新版主机与服务器回复 HELLO；旧版主机不认识它，会直接发来玩家信息
+                    sendLine(Protocol.hello());
+                    String first = readLine();
+                    if (first == null) {
+                        throw new EOFException();
+                    }
+                    if (Protocol.isHello(first)) {
+                        binary = true;
+                    } else {
+                        pendingMessage = Message.parseText(first);
+                    }
                     connected = true;
 
+                    // 指定房间（点对点的主机会忽略这条消息）
+                    if (!room.isEmpty()) {
+                        sendMessage(Message.join(room));
+                    }
+
                     // 发送玩家信息
-                    sendMessage(MSG_PLAYER_INFO + ":" + playerName);
+                    sendMessage(Message.playerInfo(playerName));
 
                     // 开始监听消息
                     startMessageListener();
@@ -191,12 +295,107 @@ public class GobangGameMultiPlayer {
         connectionWorker.execute();
     }
 
+    /**
+     * 观看独立服务器上指定房间的对局
+     */
+    public void watchGame(String address, int port, String playerName, String room) {
+        this.isHost = false;
+        this.spectating = true;
+        this.serverAddress = address;
+        this.port = port;
+        this.playerName = playerName;
+        this.isMyTurn = false;
+        this.myPlayerType = 0; // 不执子
+
+        connectionWorker = new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() throws Exception {
+                try {
+                    SwingUtilities.invokeLater(() -> {
+                        game.getUi().updateAiLabel(game.getUi().getMessages().getString("message.connecting"));
+                    });
+
+                    socket = new Socket(address, port);
+                    setupStreams();
+                    sendLine(Protocol.hello());
+                    String first = readLine();
+                    if (first == null) {
+                        throw new EOFException();
+                    }
+                    binary = Protocol.isHello(first);
+                    connected = true;
+
+                    // 清空棋盘在收到快照之前（界面线程按顺序执行）
+                    SwingUtilities.invokeLater(() -> {
+                        game.setGameMode(2);
+                        game.useOnlineRules();
+                        game.startNewGame();
+                        game.setTitle(room + " - " + game.getUi().getMessages().getString("multiplayer.spectating"));
+                    });
+                    sendMessage(Message.watch(room));
+                    startMessageListener();
+                    return true;
+
+                } catch (UnknownHostException e) {
+                    SwingUtilities.invokeLater(() -> {
+                        game.getUi().updateAiLabel("AI: IDLE");
+                        game.getUi().showMessage("message.host_not_found", "message.title.error", JOptionPane.ERROR_MESSAGE);
+                    });
+                    return false;
+                } catch (IOException e) {
+                    SwingUtilities.invokeLater(() -> {
+                        game.getUi().updateAiLabel("AI: IDLE");
+                        game.getUi().showMessage("message.connection_failed", "message.title.error", JOptionPane.ERROR_MESSAGE);
+                    });
+                    return false;
+                }
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    if (!get()) {
+                        game.setGameMode(0);
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    SwingUtilities.invokeLater(() -> {
+                        game.getUi().updateAiLabel("AI: IDLE");
+                        game.getUi().showMessage("message.connection_error", "message.title.error", JOptionPane.ERROR_MESSAGE);
+                        game.setGameMode(0);
+                    });
+                }
+            }
+        };
+
+        connectionWorker.execute();
+    }
+
     /**
      * 设置输入输出流
      */
     private void setupStreams() throws IOException {
-        out = new PrintWriter(socket.getOutputStream(), true);
-        in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        binary = false;
+        pendingMessage = null;
+        sessionToken = 0;
+        resend = new ResendBuffer();
+        // 点对点时主机的时钟是参考时钟；连接独立服务器时以服务器为准
+        tracker = new LatencyTracker(isHost);
+        openStreams();
+        moveSubscription = game.getEvents().subscribe(MovePlayed.class, sendExecutor, this::onMovePlayed);
+    }
+
+    /**
+     * 为当前套接字创建输入输出流（首次连接与重连共用）
+     */
+    private void openStreams() throws IOException {
+        socket.setTcpNoDelay(isTcpNoDelay());
+        OutputStream newOut = new BufferedOutputStream(socket.getOutputStream());
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        synchronized (this) {
+            out = newOut;
+        }
+        lastReceivedNanos = System.nanoTime();
     }
 
     /**
@@ -204,6 +403,7 @@ public class GobangGameMultiPlayer {
      */
     private void startMultiplayerGame() {
         // 重置游戏状态
+        game.useOnlineRules();
         game.startNewGame();
         game.setGameMode(2); // 2=多人游戏模式
 
@@ -212,27 +412,37 @@ public class GobangGameMultiPlayer {
 
         // 发送开始消息给对手
         if (isHost) {
-            sendMessage(MSG_START + ":" + myPlayerType);
+            sendMessage(Message.start(myPlayerType));
         }
     }
 
     /**
-     * 发送落子消息
+     * 本方已落子，结束本方回合（落子消息由 onMovePlayed 在发送线程上发出）
      */
-    public void sendMove(int row, int col) {
+    public void endMyTurn() {
         if (connected && isMyTurn) {
-            sendMessage(MSG_MOVE + ":" + row + "," + col);
             isMyTurn = false;
             updateTurnDisplay();
         }
     }
 
+    /**
+     * 事件订阅：把本方的落子发给对手
+     */
+    private void onMovePlayed(MovePlayed event) {
+        if (connected && event.getPlayer() == myPlayerType) {
+            // 发送时间从落子事件发布时算起，包括事件分发与排队
+            long queuedMicros = (System.nanoTime() - event.getPublishedNanos()) / 1000;
+            sendMessage(Message.move(event.getRow(), event.getCol(), tracker.referenceNow() - queuedMicros));
+        }
+    }
+
     /**
      * 发送聊天消息
      */
     public void sendChatMessage(String message) {
-        if (connected) {
-            sendMessage(MSG_CHAT + ":" + message);
+        if (connected && !spectating) {
+            sendMessage(Message.chat(message));
         }
     }
 
@@ -240,18 +450,132 @@ public class GobangGameMultiPlayer {
      * 发送重新开始请求
      */
     public void sendRestartRequest() {
-        if (connected) {
-            sendMessage(MSG_RESTART);
+        if (connected && !spectating) {
+            sendMessage(Message.restart(Message.RESTART_REQUEST));
+        }
+    }
+
+    /**
+     * 按握手确定的格式发送消息（发送线程与界面线程都会调用）
+     * 二进制连接上的对局消息先分配序号并保留，断线期间写入失败的消息在续局时补发
+     */
+    private synchronized void sendMessage(Message message) {
+        if (binary && isSequenced(message.getType())) {
+            message = resend.stamp(message);
+        }
+        writeBytes(message.bytes(binary));
+    }
+
+    /**
+     * 参与序号与补发的对局消息；握手、心跳与续局本身的消息不参与
+     */
+    private static boolean isSequenced(byte type) {
+        switch (type) {
+            case Message.MOVE:
+            case Message.CHAT:
+            case Message.START:
+            case Message.RESTART:
+            case Message.GAME_OVER:
+                return true;
+            default:
+                return false;
         }
     }
 
     /**
-     * 发送消息
+     * 补发对方缺少的消息；缺口超出保留范围时发送整局快照，再补发快照之后才分配序号的消息
      */
-    private void sendMessage(String message) {
+    private void resendSince(int peerLastReceived) {
+        if (resend.since(peerLastReceived) == null) {
+            short[][] moves = new short[1][];
+            boolean[] flags = new boolean[2];
+            int[] seq = new int[1];
+            try {
+                // 局面只在界面线程上读取；此时已记入局面但尚未分配序号的落子，对方收到时会因该点已有棋子而忽略
+                SwingUtilities.invokeAndWait(() -> {
+                    moves[0] = game.getMoveLog().toArray();
+                    flags[0] = game.isBlackTurn();
+                    flags[1] = game.isGameOver();
+                    seq[0] = resend.getLastSent();
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+            synchronized (this) {
+                writeBytes(Message.snapshot(moves[0], flags[0], flags[1]).withSeq(seq[0]).bytes(true));
+                writeAll(resend.since(seq[0]));
+            }
+            return;
+        }
+        synchronized (this) {
+            // 持有发送锁时再取一次，其间新分配序号的消息也一并补发
+            writeAll(resend.since(peerLastReceived));
+        }
+    }
+
+    private synchronized void writeAll(List<Message> messages) {
+        if (messages != null) {
+            for (Message message : messages) {
+                writeBytes(message.bytes(true));
+            }
+        }
+    }
+
+    private synchronized void sendLine(String line) {
+        writeBytes((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private synchronized void writeBytes(byte[] bytes) {
         if (out != null) {
-            out.println(message);
+            try {
+                out.write(bytes);
+                out.flush();
+            } catch (IOException e) {
+                // 连接已断开，由监听线程处理
+            }
+        }
+    }
+
+    /**
+     * 读取一行文本（不含换行符），连接关闭时返回 null
+     * 逐字节读取（输入流带缓冲），避免握手之后的二进制帧被读入字符缓冲区
+     */
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                return line.size() > 0 ? line.toString(StandardCharsets.UTF_8) : null;
+            }
+            if (line.size() >= Protocol.MAX_LINE) {
+                throw new IOException("消息过长");
+            }
+            line.write(b);
+        }
+        String text = line.toString(StandardCharsets.UTF_8);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    /**
+     * 读取下一条消息；无法识别的消息返回 null，连接关闭时抛出 EOFException
+     */
+    private Message readMessage() throws IOException {
+        if (!binary) {
+            String line = readLine();
+            if (line == null) {
+                throw new EOFException();
+            }
+            return Message.parseText(line);
+        }
+        int length = in.readUnsignedShort();
+        if (length > Protocol.MAX_FRAME) {
+            throw new IOException("帧过长: " + length);
         }
+        in.readFully(frameBuffer, 0, length);
+        return Message.decode(ByteBuffer.wrap(frameBuffer), 0, length);
     }
 
     /**
@@ -260,12 +584,27 @@ public class GobangGameMultiPlayer {
     private void startMessageListener() {
         networkExecutor.submit(() -> {
             try {
-                String message;
-                while (connected && (message = in.readLine()) != null) {
-                    processMessage(message);
+                if (pendingMessage != null) {
+                    processMessage(pendingMessage);
+                    pendingMessage = null;
+                }
+                if (binary && pingTask == null) {
+                    pingTask = pingTimer.scheduleAtFixedRate(this::heartbeat, 0, PING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                while (connected) {
+                    Message message = readMessage();
+                    lastReceivedNanos = System.nanoTime();
+                    if (message != null) {
+                        processMessage(message);
+                    }
                 }
             } catch (IOException e) {
-                if (connected) {
+                if (connected && sessionToken != 0) {
+                    // 意外断线：尝试续局
+                    reconnect();
+                } else if (e instanceof EOFException) {
+                    // 对方关闭了连接
+                } else if (connected) {
                     // 非主动断开的异常
                     SwingUtilities.invokeLater(() -> {
                         game.getUi().showMessage("message.connection_lost", "message.title.error", JOptionPane.ERROR_MESSAGE);
@@ -277,114 +616,293 @@ public class GobangGameMultiPlayer {
     }
 
     /**
-     * 处理接收到的消息
+     * 心跳（定时器线程）：发送 PING；长时间没有收到任何消息时关闭套接字，由监听线程进入重连
      */
-    private void processMessage(String message) {
-        System.out.println("收到消息: " + message);
+    private void heartbeat() {
+        if (!connected || reconnecting) {
+            return;
+        }
+        if (sessionToken != 0 && System.nanoTime() - lastReceivedNanos > LIVENESS_TIMEOUT_NANOS) {
+            closeSocket();
+            return;
+        }
+        sendMessage(Message.ping(LatencyTracker.nowMicros()));
+    }
 
-        if (message.startsWith(MSG_MOVE)) {
-            // 处理对手落子
-            String[] parts = message.split(":");
-            if (parts.length == 2) {
-                String[] coordinates = parts[1].split(",");
-                if (coordinates.length == 2) {
-                    try {
-                        int row = Integer.parseInt(coordinates[0]);
-                        int col = Integer.parseInt(coordinates[1]);
+    /**
+     * 连接意外中断（监听线程）：在 RESUME_TIMEOUT_MILLIS 内重连并续局，失败时按断线处理
+     * 重连期间本方仍可落子，消息写入失败但保留在补发缓冲中
+     */
+    private void reconnect() {
+        reconnecting = true;
+        closeSocket();
+        SwingUtilities.invokeLater(() -> game.getUi().updateAiLabel(
+                game.getUi().getMessages().getString("message.reconnecting")));
+        long deadline = System.currentTimeMillis() + RESUME_TIMEOUT_MILLIS;
+        long backoff = 250;
+        while (connected && System.currentTimeMillis() < deadline) {
+            try {
+                if (isHost ? acceptResume(deadline) : connectResume()) {
+                    reconnecting = false;
+                    updateTurnDisplay();
+                    startMessageListener();
+                    return;
+                }
+            } catch (IOException e) {
+                closeSocket();
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                break;
+            }
+            backoff = Math.min(backoff * 2, 4000);
+        }
+        reconnecting = false;
+        if (connected) {
+            SwingUtilities.invokeLater(() -> {
+                game.getUi().showMessage("message.connection_lost", "message.title.error", JOptionPane.ERROR_MESSAGE);
+                disconnect();
+            });
+        }
+    }
 
-                        SwingUtilities.invokeLater(() -> {
-                            // 在棋盘上放置对手的棋子
-                            int[][] board = game.getBoard();
-                            if (board[row][col] == 0) {
-                                int opponentPlayerType = (myPlayerType == 1) ? 2 : 1;
-                                game.getHandler().playerMove(row, col, opponentPlayerType);
-                                isMyTurn = true;
-                                updateTurnDisplay();
-                            }
-                        });
-                    } catch (NumberFormatException e) {
-                        e.printStackTrace();
+    /**
+     * 客户端：重新连接并握手，发出 RESUME；对方回复 RESUMED 后补发
+     */
+    private boolean connectResume() throws IOException {
+        socket = new Socket();
+        socket.connect(new InetSocketAddress(serverAddress, port), 5000);
+        openStreams();
+        socket.setSoTimeout(10000);
+        sendLine(Protocol.hello());
+        String first = readLine();
+        socket.setSoTimeout(0);
+        if (first == null || !Protocol.isHello(first)) {
+            closeSocket();
+            return false;
+        }
+        binary = true;
+        sendMessage(Message.resume(sessionToken, myPlayerType, resend.getLastReceived()));
+        return true;
+    }
+
+    /**
+     * 主机：重新监听端口，等待带同一令牌的 RESUME（其他连接直接关闭）
+     */
+    private boolean acceptResume(long deadline) throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(port)) {
+            resumeSocket = serverSocket;
+            while (connected) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                serverSocket.setSoTimeout((int) remaining);
+                socket = serverSocket.accept();
+                openStreams();
+                socket.setSoTimeout(10000);
+                String first = readLine();
+                if (first != null && Protocol.isHello(first)) {
+                    sendLine(Protocol.hello());
+                    binary = true;
+                    Message request = readMessage();
+                    if (request != null && request.getType() == Message.RESUME && request.getToken() == sessionToken) {
+                        socket.setSoTimeout(0);
+                        processMessage(request);
+                        return true;
                     }
                 }
+                closeSocket();
+            }
+            return false;
+        } catch (SocketTimeoutException e) {
+            return false;
+        } finally {
+            resumeSocket = null;
+        }
+    }
+
+    private void closeSocket() {
+        try {
+            if (socket != null) socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * 处理接收到的消息
+     */
+    private void processMessage(Message message) {
+        switch (message.getType()) {
+            case Message.PING:
+                sendMessage(Message.pong(message.getTime(), LatencyTracker.nowMicros()));
+                return;
+            case Message.PONG:
+                tracker.onPong(message.getTime(), message.getPeerTime());
+                return;
+            case Message.CLOCK:
+                clockReceivedNanos = System.nanoTime();
+                clock = message;
+                SwingUtilities.invokeLater(this::refreshClock);
+                return;
+            default:
+        }
+        System.out.println("收到消息: " + message);
+        if (!spectating && !resend.accept(message.getSeq())) {
+            // 重复的补发或断线期间跳号的消息，丢弃（跳过的消息随后会补发）
+            return;
+        }
+
+        switch (message.getType()) {
+            case Message.MOVE: {
+                // 处理对手落子
+                int row = message.getRow();
+                int col = message.getCol();
+                long receivedNanos = System.nanoTime();
+                if (message.hasTime()) {
+                    moveLatency.record(tracker.referenceNow() - message.getTime());
+                }
+                SwingUtilities.invokeLater(() -> {
+                    // 在棋盘上放置对手的棋子（已结束、不是对手的回合、越界或已有棋子时直接忽略）
+                    BoardSnapshot board = game.getSnapshot();
+                    if (!board.isGameOver() && board.inBounds(row, col) && board.get(row, col) == 0) {
+                        if (spectating) {
+                            // 观战：双方轮流落子
+                            game.getHandler().playerMove(row, col, board.currentPlayer());
+                            pendingRenderNanos = receivedNanos;
+                            return;
+                        }
+                        int opponentPlayerType = (myPlayerType == 1) ? 2 : 1;
+                        if (board.currentPlayer() != opponentPlayerType) {
+                            return;
+                        }
+                        game.getHandler().playerMove(row, col, opponentPlayerType);
+                        pendingRenderNanos = receivedNanos;
+                        isMyTurn = true;
+                        updateTurnDisplay();
+                    }
+                });
+                break;
             }
 
-        } else if (message.startsWith(MSG_CHAT)) {
-            // 处理聊天消息
-            String[] parts = message.split(":");
-            if (parts.length >= 2) {
-                String chatMessage = parts[1];
+            case Message.CHAT: {
+                // 处理聊天消息（内容可以包含冒号）
+                String chatMessage = message.getText();
                 SwingUtilities.invokeLater(() -> {
                     showChatMessage(opponentName + ": " + chatMessage);
                 });
+                break;
             }
 
-        } else if (message.startsWith(MSG_START)) {
-            // 处理游戏开始
-            String[] parts = message.split(":");
-            if (parts.length == 2) {
-                try {
-                    int hostPlayerType = Integer.parseInt(parts[1]);
-                    myPlayerType = (hostPlayerType == 1) ? 2 : 1;
-                    isMyTurn = (myPlayerType == 1); // 黑棋先手
+            case Message.START: {
+                // 处理游戏开始
+                int hostPlayerType = message.getValue();
+                myPlayerType = (hostPlayerType == 1) ? 2 : 1;
+                isMyTurn = (myPlayerType == 1); // 黑棋先手
 
-                    SwingUtilities.invokeLater(() -> {
-                        startMultiplayerGame();
-                    });
-                } catch (NumberFormatException e) {
-                    e.printStackTrace();
-                }
+                SwingUtilities.invokeLater(() -> {
+                    startMultiplayerGame();
+                });
+                break;
             }
 
-        } else if (message.startsWith(MSG_RESTART)) {
-            // 处理重新开始请求
-            SwingUtilities.invokeLater(() -> {
-                int response = JOptionPane.showConfirmDialog(game,
-                        opponentName + " " + game.getUi().getMessages().getString("message.restart_request"),
-                        game.getUi().getMessages().getString("message.title.confirm"),
-                        JOptionPane.YES_NO_OPTION);
-
-                if (response == JOptionPane.YES_OPTION) {
-                    sendMessage(MSG_RESTART + ":ACCEPT");
-                    restartGame();
+            case Message.RESTART:
+                if (message.getValue() == Message.RESTART_ACCEPT) {
+                    // 对手接受了重新开始请求
+                    SwingUtilities.invokeLater(() -> {
+                        restartGame();
+                    });
+                } else if (message.getValue() == Message.RESTART_REJECT) {
+                    // 对手拒绝了重新开始请求
+                    SwingUtilities.invokeLater(() -> {
+                        game.getUi().showMessage("message.restart_rejected", "message.title.info", JOptionPane.INFORMATION_MESSAGE);
+                    });
                 } else {
-                    sendMessage(MSG_RESTART + ":REJECT");
+                    // 处理重新开始请求
+                    SwingUtilities.invokeLater(() -> {
+                        int response = JOptionPane.showConfirmDialog(game,
+                                opponentName + " " + game.getUi().getMessages().getString("message.restart_request"),
+                                game.getUi().getMessages().getString("message.title.confirm"),
+                                JOptionPane.YES_NO_OPTION);
+
+                        if (response == JOptionPane.YES_OPTION) {
+                            sendMessage(Message.restart(Message.RESTART_ACCEPT));
+                            restartGame();
+                        } else {
+                            sendMessage(Message.restart(Message.RESTART_REJECT));
+                        }
+                    });
                 }
-            });
+                break;
 
-        } else if (message.startsWith(MSG_RESTART + ":ACCEPT")) {
-            // 对手接受了重新开始请求
-            SwingUtilities.invokeLater(() -> {
-                restartGame();
-            });
+            case Message.PLAYER_INFO:
+                // 处理玩家信息
+                opponentName = message.getText();
+                SwingUtilities.invokeLater(() -> {
+                    updatePlayerDisplay();
+                });
+                break;
 
-        } else if (message.startsWith(MSG_RESTART + ":REJECT")) {
-            // 对手拒绝了重新开始请求
-            SwingUtilities.invokeLater(() -> {
-                game.getUi().showMessage("message.restart_rejected", "message.title.info", JOptionPane.INFORMATION_MESSAGE);
-            });
+            case Message.GAME_OVER:
+                // 处理游戏结束（经服务器对局时带有服务器判定的官方结果，此前的快照已使双方棋盘一致）
+                int official = message.getValue();
+                SwingUtilities.invokeLater(() -> {
+                    // 本方棋盘已判出同样结果时已经提示过；超时、对方离开等本方无从得知的结果在这里提示
+                    BoardSnapshot snapshot = game.getSnapshot();
+                    boolean shown = snapshot.isGameOver() && (official == Message.RESULT_DRAW
+                            ? game.getGameState().isFull() : snapshot.getWinner() == official);
+                    game.setGameOver(true);
+                    isMyTurn = false;
+                    if (official == Message.RESULT_DRAW && !shown) {
+                        game.getUi().showDrawMessage();
+                    } else if (official != 0 && !shown) {
+                        game.getUi().showWinMessage(official);
+                    }
+                });
+                break;
+
+            case Message.SESSION:
+                sessionToken = message.getToken();
+                break;
 
-        } else if (message.startsWith(MSG_PLAYER_INFO)) {
-            // 处理玩家信息
-            String[] parts = message.split(":");
-            if (parts.length >= 2) {
-                opponentName = parts[1];
+            case Message.RESUME:
+                // 对方重连：告知本方已收到的序号，并补发对方缺少的消息
+                if (message.getToken() == sessionToken) {
+                    sendMessage(Message.resumed(resend.getLastReceived()));
+                    resendSince(message.getLastReceived());
+                }
+                break;
+
+            case Message.RESUMED:
+                resendSince(message.getLastReceived());
+                break;
+
+            case Message.SNAPSHOT: {
+                // 缺口太大，对方发来整局着法
+                resend.skipTo(message.getSeq());
+                short[] moves = message.getMoves();
+                boolean blackTurn = message.isBlackTurn();
+                boolean gameOver = message.isGameOver();
                 SwingUtilities.invokeLater(() -> {
-                    updatePlayerDisplay();
+                    game.restorePosition(moves, blackTurn, gameOver);
+                    isMyTurn = !spectating && !gameOver && blackTurn == (myPlayerType == 1);
+                    updateTurnDisplay();
                 });
+                break;
             }
 
-        } else if (message.startsWith(MSG_GAME_OVER)) {
-            // 处理游戏结束
-            SwingUtilities.invokeLater(() -> {
-                game.setGameOver(true);
-            });
+            case Message.DISCONNECT:
+                // 处理对手断开连接（不再续局）
+                sessionToken = 0;
+                SwingUtilities.invokeLater(() -> {
+                    game.getUi().showMessage("message.opponent_disconnected", "message.title.info", JOptionPane.INFORMATION_MESSAGE);
+                    disconnect();
+                });
+                break;
 
-        } else if (message.startsWith(MSG_DISCONNECT)) {
-            // 处理对手断开连接
-            SwingUtilities.invokeLater(() -> {
-                game.getUi().showMessage("message.opponent_disconnected", "message.title.info", JOptionPane.INFORMATION_MESSAGE);
-                disconnect();
-            });
+            default:
+                break;
         }
     }
 
@@ -395,20 +913,11 @@ public class GobangGameMultiPlayer {
         // 重置游戏状态
         game.startNewGame();
 
-        // 如果是主机，保持先手；如果是客户端，保持后手
-        isMyTurn = isHost;
+        // 颜色不变，黑棋先走（点对点时主机执黑；经服务器对局时由服务器分配颜色，双方都是客户端）
+        isMyTurn = myPlayerType == 1;
 
         // 更新显示
         updateTurnDisplay();
-
-        // 如果主机是后手，需要等待对手先走
-        if (isHost && !isMyTurn) {
-            // 主机执白，等待对手先走
-            myPlayerType = 2;
-        } else if (!isHost && isMyTurn) {
-            // 客户端执黑，可以先走
-            myPlayerType = 1;
-        }
     }
 
     /**
@@ -417,15 +926,54 @@ public class GobangGameMultiPlayer {
     public void updateTurnDisplay() {
         SwingUtilities.invokeLater(() -> {
             String turnMessage;
-            if (isMyTurn) {
+            if (spectating) {
+                turnMessage = game.getUi().getMessages().getString("multiplayer.spectating");
+            } else if (isMyTurn) {
                 turnMessage = game.getUi().getMessages().getString("multiplayer.your_turn");
             } else {
                 turnMessage = game.getUi().getMessages().getString("multiplayer.opponent_turn");
             }
-            game.getUi().updateAiLabel(turnMessage);
+            game.getUi().updateAiLabel(turnMessage + clockText());
         });
     }
 
+    /**
+     * 收到新的棋钟（界面线程）：钟在走时每半秒刷新一次显示，停钟后停止刷新
+     */
+    private void refreshClock() {
+        Message current = clock;
+        if (current != null && current.getValue() != 0) {
+            if (clockTimer == null) {
+                clockTimer = new Timer(500, e -> updateTurnDisplay());
+            }
+            clockTimer.start();
+        } else if (clockTimer != null) {
+            clockTimer.stop();
+        }
+        updateTurnDisplay();
+    }
+
+    /**
+     * 双方剩余时间，例如 " | 黑 4:58  白 5:00"；没有棋钟时为空串
+     */
+    private String clockText() {
+        Message current = clock;
+        if (current == null) {
+            return "";
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - clockReceivedNanos);
+        long black = current.getBlackMillis() - (current.getValue() == 1 ? elapsed : 0);
+        long white = current.getWhiteMillis() - (current.getValue() == 2 ? elapsed : 0);
+        return String.format(" | %s %s  %s %s",
+                game.getUi().getMessages().getString("game.black"), formatClock(black),
+                game.getUi().getMessages().getString("game.white"), formatClock(white));
+    }
+
+    private static String formatClock(long millis) {
+        long seconds = Math.max(0, millis + 999) / 1000;
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
     /**
      * 更新玩家显示
      */
@@ -468,10 +1016,21 @@ public class GobangGameMultiPlayer {
      */
     public void disconnect() {
         connected = false;
+        sessionToken = 0;
+        ServerSocket waiting = resumeSocket;
+        if (waiting != null) {
+            try {
+                waiting.close();
+            } catch (IOException ignored) {
+            }
+        }
 
         if (out != null) {
-            sendMessage(MSG_DISCONNECT);
-            out.close();
+            sendMessage(Message.disconnect());
+            try {
+                out.close();
+            } catch (IOException ignored) {
+            }
         }
 
         try {
@@ -482,15 +1041,57 @@ public class GobangGameMultiPlayer {
         }
 
         networkExecutor.shutdown();
+        if (pingTask != null) {
+            pingTask.cancel(false);
+            pingTask = null;
+        }
+        if (moveSubscription != null) {
+            moveSubscription.cancel();
+            moveSubscription = null;
+        }
 
         // 重置游戏模式
         game.setGameMode(0);
+        clock = null;
         SwingUtilities.invokeLater(() -> {
+            if (clockTimer != null) {
+                clockTimer.stop();
+            }
             game.getUi().updateAiLabel("AI: IDLE");
             game.setTitle(game.getUi().getMessages().getString("game.title"));
         });
     }
 
+    /**
+     * 棋盘重绘完成（界面线程）：若有刚收到的对手落子，记录从收到到显示的延迟
+     */
+    public void onBoardPainted() {
+        if (pendingRenderNanos != 0) {
+            renderLatency.record((System.nanoTime() - pendingRenderNanos) / 1000);
+            pendingRenderNanos = 0;
+        }
+    }
+
+    /**
+     * 是否对套接字设置 TCP_NODELAY（系统属性 gobang.nodelay，默认 true）
+     */
+    public static boolean isTcpNoDelay() {
+        return Boolean.parseBoolean(System.getProperty("gobang.nodelay", "true"));
+    }
+
+    /**
+     * 网络延迟统计（多行文本）：往返时间、落子单程延迟、收到落子到重绘完成的延迟
+     */
+    public String getNetworkSummary() {
+        long lastRtt = tracker.getLastRttMicros();
+        return "RTT: " + tracker.getRtt().summary()
+                + (lastRtt >= 0 ? String.format(", last %.1f ms", lastRtt / 1000.0) : "")
+                + "\nMove: " + moveLatency.summary()
+                + "\nRender: " + renderLatency.summary()
+                + String.format("\nClock offset: %.1f ms, TCP_NODELAY: %s, %s",
+                        tracker.getOffsetMicros() / 1000.0, isTcpNoDelay(), binary ? "binary" : "text");
+    }
+
     /**
      * 获取玩家类型
      */
@@ -10,6 +10,9 @@ import java.util.Locale;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 
+import com.eric.GobangGame.core.RuleSet;
+import com.eric.GobangGame.engine.GameReview;
+
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.kohsuke.github.GitHub;
@@ -30,8 +33,11 @@ public class GobangGameUI {
 
     // UI组件引用 (由GobangGame持有)
     private JButton undoBtn, restartBtn, closeBtn, loadBtn, saveBtn, updateBtn;
-    private JMenuItem openItem, saveItem, closeItem, undoItem, restartItem, settingItem, aboutItem;
+    private JMenuItem openItem, saveItem, closeItem, undoItem, redoItem, restartItem, settingItem, aboutItem;
     private JMenu fileMenu, gameMenu, toolsMenu, aboutMenu;
+    private JCheckBoxMenuItem renjuItem;
+    private JMenuItem reviewItem, analysisItem;
+    private GameReview lastReview;
     private JLabel aiState, version;
 
     public GobangGameUI(GobangGame game, Locale initialLocale) {
@@ -103,6 +109,10 @@ public class GobangGameUI {
         if (saveItem != null) saveItem.setText(messages.getString("menu.save"));
         if (closeItem != null) closeItem.setText(messages.getString("menu.exit"));
         if (undoItem != null) undoItem.setText(messages.getString("menu.undo"));
+        if (redoItem != null) redoItem.setText(messages.getString("menu.redo"));
+        if (renjuItem != null) renjuItem.setText(messages.getString("menu.renju"));
+        if (reviewItem != null) reviewItem.setText(messages.getString("menu.review"));
+        if (analysisItem != null) analysisItem.setText(messages.getString("menu.analysis"));
         if (restartItem != null) restartItem.setText(messages.getString("menu.restart"));
         if (settingItem != null) settingItem.setText(messages.getString("menu.settings"));
         if (aboutItem != null) aboutItem.setText(messages.getString("menu.about_software"));
@@ -270,14 +280,16 @@ public class GobangGameUI {
 
         JRadioButton hostRadio = new JRadioButton(messages.getString("role.host"));
         JRadioButton clientRadio = new JRadioButton(messages.getString("role.client"));
+        JRadioButton watchRadio = new JRadioButton(messages.getString("role.spectator"));
         ButtonGroup roleGroup = new ButtonGroup();
         roleGroup.add(hostRadio);
         roleGroup.add(clientRadio);
+        roleGroup.add(watchRadio);
         hostRadio.setSelected(true);
 
         rolePanel.add(hostRadio);
         rolePanel.add(clientRadio);
-        rolePanel.add(new JLabel()); // 占位符
+        rolePanel.add(watchRadio);
 
         // 设置部分
         JPanel settingsPanel = new JPanel(new GridLayout(4, 2, 10, 10));
@@ -293,12 +305,18 @@ public class GobangGameUI {
         JLabel portLabel = new JLabel(messages.getString("label.server_port") + ":");
         JTextField portField = new JTextField("12345");
 
+        JLabel roomLabel = new JLabel(messages.getString("label.room") + ":");
+        JTextField roomField = new JTextField("");
+        roomField.setEnabled(false);
+
         settingsPanel.add(nameLabel);
         settingsPanel.add(nameField);
         settingsPanel.add(addressLabel);
         settingsPanel.add(addressField);
         settingsPanel.add(portLabel);
         settingsPanel.add(portField);
+        settingsPanel.add(roomLabel);
+        settingsPanel.add(roomField);
 
         // 按钮面板
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 10));
@@ -315,6 +333,7 @@ public class GobangGameUI {
             connectBtn.setEnabled(false);
             addressField.setEnabled(false);
             addressField.setText("localhost");
+            roomField.setEnabled(false);
         });
 
         clientRadio.addActionListener(e -> {
@@ -322,6 +341,15 @@ public class GobangGameUI {
             connectBtn.setEnabled(true);
             addressField.setEnabled(true);
             addressField.setText("");
+            roomField.setEnabled(true);
+        });
+
+        // 观战只能连接独立服务器，须填写房间名
+        watchRadio.addActionListener(e -> {
+            createBtn.setEnabled(false);
+            connectBtn.setEnabled(true);
+            addressField.setEnabled(true);
+            roomField.setEnabled(true);
         });
 
         // 按钮事件
@@ -372,8 +400,19 @@ public class GobangGameUI {
                     return;
                 }
 
+                String room = roomField.getText().trim();
+                if (watchRadio.isSelected()) {
+                    if (room.isEmpty()) {
+                        showMessage("message.room_required", "message.title.error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    game.getMultiPlayer().watchGame(address, port, playerName, room);
+                    mpWindow.dispose();
+                    return;
+                }
+
                 // 连接服务器 - 现在是非阻塞的
-                game.getMultiPlayer().connectToServer(address, port, playerName);
+                game.getMultiPlayer().connectToServer(address, port, playerName, room);
                 mpWindow.dispose();
 
             } catch (NumberFormatException ex) {
@@ -396,6 +435,18 @@ public class GobangGameUI {
         mpWindow.setVisible(true);
     }
 
+    /**
+     * 显示网络延迟统计（往返时间、落子延迟、重绘延迟）
+     */
+    public void showNetworkStats() {
+        if (game.getGameMode() != 2 || !game.getMultiPlayer().isConnected()) {
+            showMessage("message.not_in_multiplayer", "message.title.info", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        JOptionPane.showMessageDialog(game, game.getMultiPlayer().getNetworkSummary(),
+                messages.getString("menu.network_stats"), JOptionPane.INFORMATION_MESSAGE);
+    }
+
     /**
      * 显示聊天对话框
      */
@@ -508,9 +559,14 @@ public class GobangGameUI {
         this.saveItem = new JMenuItem(messages.getString("menu.save"));
         this.closeItem = new JMenuItem(messages.getString("menu.exit"));
         this.undoItem = new JMenuItem(messages.getString("menu.undo"));
+        this.redoItem = new JMenuItem(messages.getString("menu.redo"));
         this.restartItem = new JMenuItem(messages.getString("menu.restart"));
         this.settingItem = new JMenuItem(messages.getString("menu.settings"));
         this.aboutItem = new JMenuItem(messages.getString("menu.about_software"));
+        this.renjuItem = new JCheckBoxMenuItem(messages.getString("menu.renju"), game.getRuleSet() == RuleSet.RENJU);
+        this.reviewItem = new JMenuItem(messages.getString("menu.review"));
+        reviewItem.setEnabled(lastReview != null);
+        this.analysisItem = new JMenuItem(messages.getString("menu.analysis"));
         JMenuItem newGameItem = new JMenuItem(messages.getString("menu.new_game"));
         JMenuItem aiSettingsItem = new JMenuItem(messages.getString("menu.ai_settings"));
 
@@ -518,9 +574,14 @@ public class GobangGameUI {
         JMenuItem multiplayerItem = new JMenuItem(messages.getString("menu.multiplayer"));
         JMenuItem chatItem = new JMenuItem(messages.getString("menu.chat"));
         JMenuItem disconnectItem = new JMenuItem(messages.getString("menu.disconnect"));
+        JMenuItem networkStatsItem = new JMenuItem(messages.getString("menu.network_stats"));
 
         // 添加事件监听
         undoItem.addActionListener(e -> undoBtn.doClick());
+        redoItem.addActionListener(e -> game.redoMove());
+        reviewItem.addActionListener(e -> openReview());
+        analysisItem.addActionListener(e -> new AnalysisWindow(game, messages).setVisible(true));
+        renjuItem.addActionListener(e -> game.setRuleSet(renjuItem.isSelected() ? RuleSet.RENJU : RuleSet.FREESTYLE));
         restartItem.addActionListener(e -> restartBtn.doClick());
         closeItem.addActionListener(e -> closeBtn.doClick());
         newGameItem.addActionListener(e -> showGameModeDialog());
@@ -540,6 +601,8 @@ public class GobangGameUI {
 
         disconnectItem.addActionListener(e -> disconnectMultiplayer());
 
+        networkStatsItem.addActionListener(e -> showNetworkStats());
+
         aiSettingsItem.addActionListener(e -> {
             if (game.getGameMode() == 1) {
                 showAISettingsDialog(game);
@@ -552,7 +615,7 @@ public class GobangGameUI {
         });
         
         saveItem.addActionListener(e -> {
-            if (game.getMoveHistory().isEmpty()) {
+            if (game.getMoveLog().isEmpty()) {
                 JOptionPane.showMessageDialog(game, messages.getString("message.no_game_to_save"));
                 return;
             }
@@ -578,7 +641,7 @@ public class GobangGameUI {
             if (fileChooser.showOpenDialog(game) == JFileChooser.APPROVE_OPTION) {
                 File fileToOpen = fileChooser.getSelectedFile();
                 if (fileToOpen.exists() && fileToOpen.canRead()) {
-                    if (!game.getMoveHistory().isEmpty()) {
+                    if (!game.getMoveLog().isEmpty()) {
                         int result = JOptionPane.showConfirmDialog(
                             game, messages.getString("message.confirm_load"), 
                             messages.getString("message.title.confirm"), JOptionPane.YES_NO_OPTION);
@@ -593,6 +656,7 @@ public class GobangGameUI {
 
         // 组合菜单
         toolsMenu.add(settingItem);
+        toolsMenu.add(analysisItem);
         fileMenu.add(openItem);
         fileMenu.add(saveItem);
         fileMenu.add(closeItem);
@@ -600,9 +664,13 @@ public class GobangGameUI {
         gameMenu.add(multiplayerItem);
         gameMenu.add(chatItem);
         gameMenu.add(disconnectItem);
+        gameMenu.add(networkStatsItem);
         gameMenu.add(aiSettingsItem);
+        gameMenu.add(renjuItem);
         gameMenu.addSeparator();
         gameMenu.add(undoItem);
+        gameMenu.add(redoItem);
+        gameMenu.add(reviewItem);
         gameMenu.add(restartItem);
         aboutMenu.add(aboutItem);
         
@@ -614,6 +682,28 @@ public class GobangGameUI {
         return menuBar;
     }
 
+    /**
+     * 显示赛后复盘结果，并可通过菜单再次打开
+     */
+    public void showReview(GameReview review) {
+        this.lastReview = review;
+        if (reviewItem != null) reviewItem.setEnabled(true);
+        openReview();
+    }
+
+    private void openReview() {
+        if (lastReview != null) {
+            new GameReviewDialog(game, lastReview, messages).setVisible(true);
+        }
+    }
+
+    /**
+     * 同步连珠规则菜单项的勾选状态（规则由存档或联机限制改变时）
+     */
+    public void setRenjuSelected(boolean selected) {
+        if (renjuItem != null) renjuItem.setSelected(selected);
+    }
+
     /**
      * 显示游戏模式选择对话框
      */
@@ -0,0 +1,140 @@
+package com.eric.GobangGame.arena;
+
+import com.eric.GobangGame.core.Rules;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 无界面自对弈竞技场：多线程并行下 GobangGameAi 对 GobangGameAi，输出胜率与 Elo
+ *
+ * 用法: java -jar GobangGame.jar arena [选项]
+ *   --a 2/200          引擎A（难度[/每步毫秒]）
+ *   --b 2              引擎B
+ *   --games 1000       对局数（按开局成对，交换颜色）
+ *   --threads N        并行线程数，默认CPU核数
+ *   --openings FILE    开局文件，缺省时随机生成
+ *   --opening-plies 3  随机开局的步数
+ *   --seed 1           随机种子
+ *   --size 15          棋盘边长
+ *   --listen PORT      作为协调器监听端口，由 arena-worker 进程执行对局
+ */
+public class Arena {
+
+    private EngineSpec engineA = new EngineSpec(2, 0);
+    private EngineSpec engineB = new EngineSpec(1, 0);
+    private int games = 100;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Path openingsFile;
+    private int openingPlies = 3;
+    private long seed = 1;
+    private int listenPort = 0;
+    private int size = Rules.DEFAULT_SIZE;
+
+    public static void main(String[] args) {
+        Arena arena = new Arena();
+        try {
+            arena.parseArgs(args);
+            ArenaStats stats = arena.run();
+            System.out.print(stats.summary());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("读取开局文件失败: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("缺少参数值: " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--a": engineA = EngineSpec.parse(value); break;
+                case "--b": engineB = EngineSpec.parse(value); break;
+                case "--games": games = Integer.parseInt(value); break;
+                case "--threads": threads = Math.max(1, Integer.parseInt(value)); break;
+                case "--openings": openingsFile = Path.of(value); break;
+                case "--opening-plies": openingPlies = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--listen": listenPort = Integer.parseInt(value); break;
+                case "--size": size = Rules.checkSize(Integer.parseInt(value)); break;
+                default: throw new IllegalArgumentException("未知参数: " + arg);
+            }
+        }
+    }
+
+    /**
+     * 运行全部对局并返回统计
+     */
+    public ArenaStats run() throws IOException {
+        int pairs = (games + 1) / 2;
+        List<int[]> openings = openingsFile != null
+                ? Openings.load(openingsFile, size)
+                : Openings.random(pairs, openingPlies, seed, size);
+        if (openings.isEmpty()) {
+            throw new IllegalArgumentException("开局库为空");
+        }
+
+        if (listenPort > 0) {
+            System.out.printf("Arena coordinator: A=%s vs B=%s, %d games, port %d%n", engineA, engineB, games, listenPort);
+            return new ArenaCoordinator(engineA, engineB, openings, games, seed, size).run(listenPort);
+        }
+
+        System.out.printf("Arena: A=%s vs B=%s, %d games, %d threads, %dx%d%n", engineA, engineB, games, threads, size, size);
+        ArenaStats stats = new ArenaStats();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ExecutorCompletionService<GameResult> completion = new ExecutorCompletionService<>(executor);
+        try {
+            for (int g = 0; g < games; g++) {
+                int[] opening = openingFor(openings, g);
+                boolean aIsBlack = g % 2 == 0;
+                long gameSeed = gameSeed(seed, g);
+                completion.submit(() -> ArenaGame.play(opening,
+                        engineA.create(gameSeed), engineB.create(~gameSeed), aIsBlack, size));
+            }
+            for (int done = 1; done <= games; done++) {
+                stats.add(completion.take().get());
+                reportProgress(stats, done, games);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("对局执行失败", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return stats;
+    }
+
+    // --- 本地与分布式模式共用 ---
+
+    /**
+     * 第 g 局使用的开局：相邻两局共用同一开局并交换颜色
+     */
+    static int[] openingFor(List<int[]> openings, int g) {
+        return openings.get((g / 2) % openings.size());
+    }
+
+    static long gameSeed(long seed, int g) {
+        return seed * 31 + g;
+    }
+
+    static void reportProgress(ArenaStats stats, int done, int games) {
+        int reportEvery = Math.max(1, games / 20);
+        if (done % reportEvery == 0 && done < games) {
+            double[] elo = stats.elo();
+            System.out.printf("[%d/%d] score %.1f%% elo %+.1f +/- %.1f%n",
+                    done, games, stats.score() * 100, elo[0], (elo[2] - elo[1]) / 2);
+        }
+    }
+}
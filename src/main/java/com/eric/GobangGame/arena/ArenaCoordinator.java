@@ -0,0 +1,246 @@
+package com.eric.GobangGame.arena;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 分布式自对弈协调器：向 arena-worker 分发对局批次并汇总结果
+ *
+ * 文本协议（每行一条，格式同 GobangGameMultiPlayer 的 "类型:内容"）：
+ *   worker → HELLO:线程数       coordinator → CONFIG:引擎A,引擎B,棋盘边长
+ *   worker → PULL:n             coordinator → BATCH:编号,A执黑,种子,开局;...
+ *   worker → RESULT:编号,胜者,A执黑,A节点,B节点,A纳秒,B纳秒,A步数,B步数
+ *   worker → FAILED:编号        对局出错，协调器把它重新入队
+ *   coordinator → DONE          全部对局完成
+ * 工作节点断线时，其未完成的对局重新入队。同一局失败 MAX_FAILURES 次后放弃（不计入统计），以免引擎的确定性错误无限重试。
+ */
+public class ArenaCoordinator {
+
+    static final String MSG_HELLO = "HELLO";
+    static final String MSG_CONFIG = "CONFIG";
+    static final String MSG_PULL = "PULL";
+    static final String MSG_BATCH = "BATCH";
+    static final String MSG_RESULT = "RESULT";
+    static final String MSG_DONE = "DONE";
+    static final String MSG_FAILED = "FAILED";
+    static final int MAX_FAILURES = 3;
+
+    private final EngineSpec engineA;
+    private final EngineSpec engineB;
+    private final List<int[]> openings;
+    private final int games;
+    private final long seed;
+    private final int size;
+
+    private final ArenaStats stats = new ArenaStats();
+    private final ArrayDeque<Integer> queue = new ArrayDeque<>();
+    private final BitSet finished = new BitSet();
+    private final int[] failures;
+    private final List<WorkerConnection> workers = new ArrayList<>();
+    private int completed = 0;
+
+    public ArenaCoordinator(EngineSpec engineA, EngineSpec engineB, List<int[]> openings, int games, long seed, int size) {
+        this.engineA = engineA;
+        this.engineB = engineB;
+        this.openings = openings;
+        this.games = games;
+        this.seed = seed;
+        this.size = size;
+        this.failures = new int[games];
+        for (int g = 0; g < games; g++) {
+            queue.add(g);
+        }
+    }
+
+    /**
+     * 监听端口直到全部对局完成
+     */
+    public ArenaStats run(int port) throws IOException {
+        ExecutorService connectionExecutor = Executors.newCachedThreadPool();
+        try (ServerSocket serverSocket = new ServerSocket(port)) {
+            connectionExecutor.submit(() -> {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        Socket socket = serverSocket.accept();
+                        socket.setTcpNoDelay(true);
+                        connectionExecutor.submit(() -> handleWorker(socket));
+                    } catch (IOException e) {
+                        break; // 服务器关闭
+                    }
+                }
+            });
+
+            long start = System.nanoTime();
+            synchronized (this) {
+                while (completed < games) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Completed %d games in %.1f s (%.1f games/s)%n", completed, seconds, completed / seconds);
+        } finally {
+            connectionExecutor.shutdownNow();
+        }
+        return stats;
+    }
+
+    private void handleWorker(Socket socket) {
+        WorkerConnection worker = null;
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
+            worker = new WorkerConnection(socket);
+            synchronized (this) {
+                workers.add(worker);
+            }
+            String message;
+            while ((message = in.readLine()) != null) {
+                if (message.startsWith(MSG_HELLO)) {
+                    System.out.println("Worker connected: " + socket.getRemoteSocketAddress() + " " + message);
+                    worker.send(MSG_CONFIG + ":" + engineA + "," + engineB + "," + size);
+                } else if (message.startsWith(MSG_PULL)) {
+                    onPull(worker, Integer.parseInt(message.substring(MSG_PULL.length() + 1)));
+                } else if (message.startsWith(MSG_RESULT)) {
+                    onResult(worker, message.substring(MSG_RESULT.length() + 1));
+                } else if (message.startsWith(MSG_FAILED)) {
+                    onFailed(worker, Integer.parseInt(message.substring(MSG_FAILED.length() + 1)));
+                }
+            }
+        } catch (SocketException e) {
+            // 服务器关闭或工作节点断开
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        } finally {
+            if (worker != null) {
+                onDisconnect(worker);
+            }
+        }
+    }
+
+    private synchronized void onPull(WorkerConnection worker, int count) {
+        worker.parked += count;
+        serve(worker);
+    }
+
+    /**
+     * 尽量满足工作节点积压的请求；队列为空时请求保持挂起，等待断线重排的对局
+     */
+    private void serve(WorkerConnection worker) {
+        if (worker.parked == 0 || queue.isEmpty()) {
+            return;
+        }
+        StringBuilder batch = new StringBuilder(MSG_BATCH).append(':');
+        int sent = 0;
+        while (worker.parked > 0 && !queue.isEmpty()) {
+            int g = queue.poll();
+            worker.inflight.add(g);
+            worker.parked--;
+            if (sent++ > 0) batch.append(';');
+            appendAssignment(batch, g);
+        }
+        worker.send(batch.toString());
+    }
+
+    private void appendAssignment(StringBuilder sb, int g) {
+        sb.append(g).append(',').append(g % 2 == 0 ? 1 : 0).append(',').append(Arena.gameSeed(seed, g)).append(',');
+        int[] opening = Arena.openingFor(openings, g);
+        for (int i = 0; i < opening.length; i++) {
+            if (i > 0) sb.append('.');
+            sb.append(opening[i]);
+        }
+    }
+
+    private synchronized void onResult(WorkerConnection worker, String payload) {
+        String[] f = payload.split(",");
+        int g = Integer.parseInt(f[0]);
+        worker.inflight.remove(g);
+        if (finished.get(g)) {
+            return; // 重排后重复完成的对局
+        }
+        finished.set(g);
+        GameResult result = new GameResult(
+                Integer.parseInt(f[1]), "1".equals(f[2]), new int[0],
+                new long[]{Long.parseLong(f[3]), Long.parseLong(f[4])},
+                new long[]{Long.parseLong(f[5]), Long.parseLong(f[6])},
+                new int[]{Integer.parseInt(f[7]), Integer.parseInt(f[8])});
+        stats.add(result);
+        complete();
+        Arena.reportProgress(stats, completed, games);
+    }
+
+    /**
+     * 对局出错：重新入队交给有空的工作节点；失败次数达到上限时放弃这一局
+     */
+    private synchronized void onFailed(WorkerConnection worker, int g) {
+        if (!worker.inflight.remove(g) || finished.get(g)) {
+            return;
+        }
+        if (++failures[g] >= MAX_FAILURES) {
+            System.out.println("Game " + g + " failed " + failures[g] + " times, skipping");
+            finished.set(g);
+            complete();
+            return;
+        }
+        queue.addFirst(g);
+        for (WorkerConnection w : workers) {
+            serve(w);
+        }
+    }
+
+    private void complete() {
+        completed++;
+        if (completed == games) {
+            for (WorkerConnection w : workers) {
+                w.send(MSG_DONE);
+            }
+            notifyAll();
+        }
+    }
+
+    private synchronized void onDisconnect(WorkerConnection worker) {
+        workers.remove(worker);
+        if (!worker.inflight.isEmpty()) {
+            System.out.println("Worker lost, requeueing " + worker.inflight.size() + " games");
+            for (int g : worker.inflight) {
+                if (!finished.get(g)) queue.addFirst(g);
+            }
+            for (WorkerConnection w : workers) {
+                serve(w);
+            }
+        }
+    }
+
+    /**
+     * 单个工作节点连接的状态，均在协调器锁内访问
+     */
+    private static class WorkerConnection {
+        private final PrintWriter out;
+        private final Set<Integer> inflight = new HashSet<>();
+        private int parked = 0;
+
+        WorkerConnection(Socket socket) throws IOException {
+            this.out = new PrintWriter(socket.getOutputStream(), true);
+        }
+
+        void send(String message) {
+            out.println(message);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.eric.GobangGame.arena;
+
+import com.eric.GobangGame.core.GameState;
+import com.eric.GobangGame.core.Rules;
+import com.eric.GobangGame.engine.GobangGameAi;
+
+/**
+ * 无界面地下完一局 AI 对 AI 的棋，不依赖 JFrame
+ */
+public class ArenaGame {
+
+    /**
+     * 在标准 15 路棋盘上对局
+     */
+    public static GameResult play(int[] opening, GobangGameAi engineA, GobangGameAi engineB, boolean engineAIsBlack) {
+        return play(opening, engineA, engineB, engineAIsBlack, Rules.DEFAULT_SIZE);
+    }
+
+    /**
+     * @param opening 开局落子（黑白交替，编码 row * size + col）
+     * @param engineA 引擎A
+     * @param engineB 引擎B
+     * @param engineAIsBlack 引擎A是否执黑
+     * @param size 棋盘边长
+     */
+    public static GameResult play(int[] opening, GobangGameAi engineA, GobangGameAi engineB, boolean engineAIsBlack,
+                                  int size) {
+        GameState state = new GameState(size, size);
+        int[] moves = new int[size * size];
+        int ply = 0;
+        long[] nodes = new long[2];
+        long[] nanos = new long[2];
+        int[] searched = new int[2];
+
+        // 摆放开局
+        for (int move : opening) {
+            state.place(move / size, move % size, state.currentPlayer());
+            moves[ply++] = move;
+        }
+
+        int winner = GameResult.DRAW;
+        while (!state.isGameOver()) {
+            int player = state.currentPlayer();
+            boolean blackToMove = player == Rules.BLACK;
+            int engine = (blackToMove == engineAIsBlack) ? 0 : 1;
+            GobangGameAi ai = engine == 0 ? engineA : engineB;
+
+            int[] move = ai.calculateMove(state.getBoard(), player);
+            nodes[engine] += ai.getLastNodes();
+            nanos[engine] += ai.getLastTimeNanos();
+            searched[engine]++;
+
+            if (move == null || !state.isLegal(move[0], move[1])) {
+                // 非法着法直接判负
+                winner = 1 - engine;
+                break;
+            }
+            moves[ply++] = move[0] * size + move[1];
+            if (state.place(move[0], move[1], player) == GameState.MoveResult.WIN) {
+                winner = engine;
+            }
+        }
+
+        int[] record = new int[ply];
+        System.arraycopy(moves, 0, record, 0, ply);
+        return new GameResult(winner, engineAIsBlack, record, nodes, nanos, searched);
+    }
+}
@@ -0,0 +1,82 @@
+package com.eric.GobangGame.arena;
+
+/**
+ * 汇总自对弈结果（引擎A视角），计算胜率、Elo 差及95%置信区间
+ */
+public class ArenaStats {
+
+    private int wins, losses, draws;
+    private int blackWins, whiteWins;
+    private final long[] nodes = new long[2];
+    private final long[] nanos = new long[2];
+    private final long[] searchedMoves = new long[2];
+
+    public synchronized void add(GameResult result) {
+        int winner = result.getWinner();
+        if (winner == GameResult.DRAW) {
+            draws++;
+        } else {
+            if (winner == 0) wins++; else losses++;
+            boolean blackWon = (winner == 0) == result.isEngineAIsBlack();
+            if (blackWon) blackWins++; else whiteWins++;
+        }
+        for (int e = 0; e < 2; e++) {
+            nodes[e] += result.getNodes(e);
+            nanos[e] += result.getNanos(e);
+            searchedMoves[e] += result.getSearchedMoves(e);
+        }
+    }
+
+    public synchronized int getGames() { return wins + losses + draws; }
+    public synchronized int getWins() { return wins; }
+    public synchronized int getLosses() { return losses; }
+    public synchronized int getDraws() { return draws; }
+
+    /**
+     * 引擎A的平均得分
+     */
+    public synchronized double score() {
+        int games = wins + losses + draws;
+        return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+    }
+
+    /**
+     * 返回 {Elo差, 95%下界, 95%上界}
+     */
+    public synchronized double[] elo() {
+        int games = wins + losses + draws;
+        if (games == 0) return new double[]{0, 0, 0};
+        double p = score();
+        double variance = (wins * Math.pow(1 - p, 2) + draws * Math.pow(0.5 - p, 2) + losses * Math.pow(p, 2)) / games;
+        double margin = 1.96 * Math.sqrt(variance / games);
+        return new double[]{toElo(p), toElo(p - margin), toElo(p + margin)};
+    }
+
+    private static double toElo(double p) {
+        // 限制在 (0,1) 内，避免全胜或全负时出现无穷大
+        p = Math.min(Math.max(p, 1e-4), 1 - 1e-4);
+        return -400 * Math.log10(1 / p - 1);
+    }
+
+    public synchronized double nodesPerSecond(int engine) {
+        return nanos[engine] == 0 ? 0 : nodes[engine] * 1e9 / nanos[engine];
+    }
+
+    public synchronized double millisPerMove(int engine) {
+        return searchedMoves[engine] == 0 ? 0 : nanos[engine] / 1e6 / searchedMoves[engine];
+    }
+
+    public synchronized String summary() {
+        double[] elo = elo();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Games: %d  A: +%d -%d =%d  (black %d / white %d)%n",
+                getGames(), wins, losses, draws, blackWins, whiteWins));
+        sb.append(String.format("Score A: %.1f%%  Elo A-B: %+.1f  [%+.1f, %+.1f] (95%%)%n",
+                score() * 100, elo[0], elo[1], elo[2]));
+        for (int e = 0; e < 2; e++) {
+            sb.append(String.format("Engine %s: %.0f nodes/s, %.1f ms/move%n",
+                    e == 0 ? "A" : "B", nodesPerSecond(e), millisPerMove(e)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,140 @@
+package com.eric.GobangGame.arena;
+
+import com.eric.GobangGame.core.Rules;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 分布式自对弈工作节点：连接 ArenaCoordinator，按批拉取对局并回传精简结果
+ *
+ * 用法: java -jar GobangGame.jar arena-worker --host localhost --port 12346 [--threads N]
+ */
+public class ArenaWorker {
+
+    private String host = "localhost";
+    private int port = 12346;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private PrintWriter out;
+    private EngineSpec engineA;
+    private EngineSpec engineB;
+    private int size = Rules.DEFAULT_SIZE;
+    // 已请求但尚未收到的对局数 + 正在进行的对局数，保持在 [threads, 2*threads] 之间
+    private int requested = 0;
+    private int running = 0;
+
+    public static void main(String[] args) {
+        ArenaWorker worker = new ArenaWorker();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--host": worker.host = args[i + 1]; break;
+                case "--port": worker.port = Integer.parseInt(args[i + 1]); break;
+                case "--threads": worker.threads = Math.max(1, Integer.parseInt(args[i + 1])); break;
+                default:
+                    System.err.println("未知参数: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        try {
+            worker.run();
+        } catch (IOException e) {
+            System.err.println("连接协调器失败: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public void run() throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        int played = 0;
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
+            socket.setTcpNoDelay(true);
+            out = new PrintWriter(socket.getOutputStream(), true);
+            sendMessage(ArenaCoordinator.MSG_HELLO + ":" + threads);
+
+            String message;
+            while ((message = in.readLine()) != null) {
+                if (message.startsWith(ArenaCoordinator.MSG_CONFIG)) {
+                    String[] specs = message.substring(ArenaCoordinator.MSG_CONFIG.length() + 1).split(",");
+                    engineA = EngineSpec.parse(specs[0]);
+                    engineB = EngineSpec.parse(specs[1]);
+                    size = specs.length > 2 ? Rules.checkSize(Integer.parseInt(specs[2])) : Rules.DEFAULT_SIZE;
+                    pullMore();
+                } else if (message.startsWith(ArenaCoordinator.MSG_BATCH)) {
+                    String[] assignments = message.substring(ArenaCoordinator.MSG_BATCH.length() + 1).split(";");
+                    for (String assignment : assignments) {
+                        startGame(pool, assignment);
+                        played++;
+                    }
+                } else if (message.startsWith(ArenaCoordinator.MSG_DONE)) {
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        System.out.println("Worker finished, played " + played + " games");
+    }
+
+    private void startGame(ExecutorService pool, String assignment) {
+        String[] f = assignment.split(",");
+        int g = Integer.parseInt(f[0]);
+        boolean aIsBlack = "1".equals(f[1]);
+        long gameSeed = Long.parseLong(f[2]);
+        String[] openingTokens = f[3].split("\\.");
+        int[] opening = new int[openingTokens.length];
+        for (int i = 0; i < opening.length; i++) {
+            opening[i] = Integer.parseInt(openingTokens[i]);
+        }
+
+        synchronized (this) {
+            requested--;
+            running++;
+        }
+        pool.submit(() -> {
+            try {
+                GameResult r = ArenaGame.play(opening, engineA.create(gameSeed), engineB.create(~gameSeed), aIsBlack, size);
+                sendMessage(ArenaCoordinator.MSG_RESULT + ":" + g + "," + r.getWinner() + "," + (aIsBlack ? 1 : 0)
+                        + "," + r.getNodes(0) + "," + r.getNodes(1)
+                        + "," + r.getNanos(0) + "," + r.getNanos(1)
+                        + "," + r.getSearchedMoves(0) + "," + r.getSearchedMoves(1));
+            } catch (RuntimeException e) {
+                // 对局异常时通知协调器重排，否则它会一直等这一局的结果
+                e.printStackTrace();
+                sendMessage(ArenaCoordinator.MSG_FAILED + ":" + g);
+            } finally {
+                synchronized (this) {
+                    running--;
+                }
+                pullMore();
+            }
+        });
+    }
+
+    /**
+     * 本地积压不足一批时补充请求，使线程池始终有活可干
+     */
+    private void pullMore() {
+        int count;
+        synchronized (this) {
+            if (requested + running > threads) {
+                return;
+            }
+            count = 2 * threads - requested - running;
+            requested += count;
+        }
+        sendMessage(ArenaCoordinator.MSG_PULL + ":" + count);
+    }
+
+    private synchronized void sendMessage(String message) {
+        if (out != null) {
+            out.println(message);
+        }
+    }
+}
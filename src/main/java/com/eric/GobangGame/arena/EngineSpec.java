@@ -0,0 +1,82 @@
+package com.eric.GobangGame.arena;
+
+import com.eric.GobangGame.engine.EvalWeights;
+import com.eric.GobangGame.engine.GobangGameAi;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 自对弈中一方引擎的配置：难度 + 每步限时 + 可选权重文件
+ * 文本格式为 "难度[/毫秒][@权重文件]"，例如 "2/200@tuned.properties"
+ */
+public class EngineSpec {
+
+    private final int difficulty;
+    private final long timeLimitMillis;
+    private final String weightsFile; // null = 启动权重
+    private final EvalWeights weights;
+
+    public EngineSpec(int difficulty, long timeLimitMillis) {
+        this(difficulty, timeLimitMillis, null, null);
+    }
+
+    public EngineSpec(int difficulty, long timeLimitMillis, EvalWeights weights) {
+        this(difficulty, timeLimitMillis, null, weights);
+    }
+
+    private EngineSpec(int difficulty, long timeLimitMillis, String weightsFile, EvalWeights weights) {
+        if (difficulty < 0 || difficulty > 2) {
+            throw new IllegalArgumentException("难度必须为 0-2: " + difficulty);
+        }
+        this.difficulty = difficulty;
+        this.timeLimitMillis = timeLimitMillis;
+        this.weightsFile = weightsFile;
+        this.weights = weights;
+    }
+
+    public static EngineSpec parse(String text) {
+        String spec = text.trim();
+        String weightsFile = null;
+        EvalWeights weights = null;
+        int at = spec.indexOf('@');
+        if (at >= 0) {
+            weightsFile = spec.substring(at + 1);
+            spec = spec.substring(0, at);
+            try {
+                weights = EvalWeights.load(Path.of(weightsFile));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("无法读取权重文件: " + weightsFile, e);
+            }
+        }
+        String[] parts = spec.split("/");
+        try {
+            int difficulty = Integer.parseInt(parts[0]);
+            long time = parts.length > 1 ? Long.parseLong(parts[1]) : 0;
+            return new EngineSpec(difficulty, time, weightsFile, weights);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的引擎配置: " + text, e);
+        }
+    }
+
+    /**
+     * 创建一个新的AI实例；每局对弈使用独立实例，保证线程安全
+     */
+    public GobangGameAi create(long seed) {
+        GobangGameAi ai = new GobangGameAi(difficulty, seed);
+        ai.setTimeLimit(timeLimitMillis);
+        if (weights != null) {
+            ai.setWeights(weights);
+        }
+        return ai;
+    }
+
+    public int getDifficulty() { return difficulty; }
+    public long getTimeLimitMillis() { return timeLimitMillis; }
+
+    @Override
+    public String toString() {
+        String text = timeLimitMillis > 0 ? difficulty + "/" + timeLimitMillis : String.valueOf(difficulty);
+        return weightsFile != null ? text + "@" + weightsFile : text;
+    }
+}
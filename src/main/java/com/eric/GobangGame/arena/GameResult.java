@@ -0,0 +1,41 @@
+package com.eric.GobangGame.arena;
+
+/**
+ * 一局自对弈的结果，统计数据按引擎（A=0，B=1）而非棋色索引
+ */
+public class GameResult {
+
+    public static final int DRAW = -1;
+
+    private final int winner; // 0=A胜，1=B胜，DRAW=平局
+    private final boolean engineAIsBlack;
+    private final int[] moves; // 每步编码为 row * size + col，包含开局
+    private final long[] nodes = new long[2];
+    private final long[] nanos = new long[2];
+    private final int[] searchedMoves = new int[2];
+
+    public GameResult(int winner, boolean engineAIsBlack, int[] moves,
+                      long[] nodes, long[] nanos, int[] searchedMoves) {
+        this.winner = winner;
+        this.engineAIsBlack = engineAIsBlack;
+        this.moves = moves;
+        System.arraycopy(nodes, 0, this.nodes, 0, 2);
+        System.arraycopy(nanos, 0, this.nanos, 0, 2);
+        System.arraycopy(searchedMoves, 0, this.searchedMoves, 0, 2);
+    }
+
+    /**
+     * 引擎A的得分：胜1，平0.5，负0
+     */
+    public double scoreForA() {
+        if (winner == DRAW) return 0.5;
+        return winner == 0 ? 1.0 : 0.0;
+    }
+
+    public int getWinner() { return winner; }
+    public boolean isEngineAIsBlack() { return engineAIsBlack; }
+    public int[] getMoves() { return moves; }
+    public long getNodes(int engine) { return nodes[engine]; }
+    public long getNanos(int engine) { return nanos[engine]; }
+    public int getSearchedMoves(int engine) { return searchedMoves[engine]; }
+}
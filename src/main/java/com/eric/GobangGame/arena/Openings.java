@@ -0,0 +1,141 @@
+package com.eric.GobangGame.arena;
+
+import com.eric.GobangGame.GameSave;
+import com.eric.GobangGame.core.MoveLog;
+import com.eric.GobangGame.core.Rules;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 开局库：每个开局由 Arena 以交换颜色的方式下两局，抵消先手优势
+ */
+public class Openings {
+
+    private static final int ROW = Rules.DEFAULT_SIZE;
+
+    /**
+     * 随机生成开局：天元黑子 + 中心5×5范围内若干步
+     */
+    public static List<int[]> random(int count, int plies, long seed) {
+        return random(count, plies, seed, Rules.DEFAULT_SIZE);
+    }
+
+    /**
+     * 在 size 路棋盘上随机生成开局，落子编码为 row * size + col
+     */
+    public static List<int[]> random(int count, int plies, long seed, int size) {
+        Random random = new Random(seed);
+        List<int[]> openings = new ArrayList<>(count);
+        int center = (size / 2) * size + size / 2;
+        for (int n = 0; n < count; n++) {
+            int[] opening = new int[Math.max(1, plies)];
+            opening[0] = center;
+            for (int i = 1; i < opening.length; i++) {
+                int move;
+                do {
+                    int r = size / 2 + random.nextInt(5) - 2;
+                    int c = size / 2 + random.nextInt(5) - 2;
+                    move = r * size + c;
+                } while (contains(opening, i, move));
+                opening[i] = move;
+            }
+            openings.add(opening);
+        }
+        return openings;
+    }
+
+    /**
+     * 从文件读取开局，每行一个开局，落子格式为 "row,col"，以空格分隔；# 开头为注释
+     */
+    public static List<int[]> load(Path file) throws IOException {
+        return load(file, Rules.DEFAULT_SIZE);
+    }
+
+    public static List<int[]> load(Path file, int size) throws IOException {
+        List<int[]> openings = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                openings.add(parseMoves(line, size));
+            }
+        }
+        return openings;
+    }
+
+    /**
+     * 从存档目录中逐个读取 15 路的 GameSave，截取每局前 plies 步作为开局（重复的开局只保留一次）
+     */
+    public static List<int[]> fromSaves(Path dir, int plies) throws IOException {
+        List<int[]> openings = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.dat")) {
+            for (Path file : files) {
+                try (InputStream in = Files.newInputStream(file);
+                     ObjectInputStream ois = new ObjectInputStream(in)) {
+                    GameSave save = (GameSave) ois.readObject();
+                    short[] moves = save.getMoves();
+                    if (save.getBoard().length != ROW || moves.length < plies) continue;
+                    int[] opening = new int[plies];
+                    for (int i = 0; i < plies; i++) {
+                        opening[i] = MoveLog.index(moves[i]);
+                    }
+                    if (seen.add(Arrays.toString(opening))) {
+                        openings.add(opening);
+                    }
+                } catch (ClassNotFoundException | ClassCastException | IOException e) {
+                    System.err.println("跳过无法读取的存档: " + file);
+                }
+            }
+        }
+        return openings;
+    }
+
+    /**
+     * 解析 "7,7 7,8 8,8" 形式的落子列表
+     */
+    public static int[] parseMoves(String line) {
+        return parseMoves(line, Rules.DEFAULT_SIZE);
+    }
+
+    public static int[] parseMoves(String line, int size) {
+        String[] tokens = line.trim().split("\\s+");
+        int[] moves = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            String[] rc = tokens[i].split(",");
+            if (rc.length != 2) {
+                throw new IllegalArgumentException("无效的落子: " + tokens[i]);
+            }
+            int r = Integer.parseInt(rc[0]);
+            int c = Integer.parseInt(rc[1]);
+            if (r < 0 || r >= size || c < 0 || c >= size) {
+                throw new IllegalArgumentException("落子超出棋盘: " + tokens[i]);
+            }
+            moves[i] = r * size + c;
+            if (contains(moves, i, moves[i])) {
+                throw new IllegalArgumentException("重复落子: " + tokens[i]);
+            }
+        }
+        return moves;
+    }
+
+    private static boolean contains(int[] moves, int length, int move) {
+        for (int i = 0; i < length; i++) {
+            if (moves[i] == move) return true;
+        }
+        return false;
+    }
+}
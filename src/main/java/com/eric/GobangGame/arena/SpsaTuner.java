@@ -0,0 +1,210 @@
+package com.eric.GobangGame.arena;
+
+import com.eric.GobangGame.engine.EvalWeights;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * SPSA 评估权重调参：每轮同时扰动所有参数，让 θ+ 与 θ- 自对弈一个小比赛，
+ * 按比赛得分估计梯度。棋型得分跨越多个数量级，因此在对数空间中调整。
+ *
+ * 用法: java -jar GobangGame.jar tune [选项]
+ *   --iterations 200   迭代轮数
+ *   --pairs 8          每轮对局对数（交换颜色）
+ *   --engine 1         参与调参的引擎难度[/毫秒]
+ *   --threads N        并行线程数，默认CPU核数
+ *   --openings FILE    开局文件，缺省时随机生成
+ *   --saves DIR        从存档目录（*.dat）中截取开局
+ *   --start FILE       初始权重文件，缺省为当前启动权重
+ *   --out FILE         输出权重文件，默认 gobang-weights.properties
+ *   --seed 1           随机种子
+ */
+public class SpsaTuner {
+
+    // 调整的参数：连子数1-4的棋型得分（对数）、进攻系数（对数）、中心加分
+    private static final int PARAMS = 6;
+    // 各参数的扰动步长 c 与学习率 a（对数参数约 ±10%，中心加分 ±1）
+    private static final double[] C = {0.1, 0.1, 0.1, 0.1, 0.1, 1.0};
+    private static final double[] A = {0.5, 0.5, 0.5, 0.5, 0.5, 5.0};
+    private static final double ALPHA = 0.602;
+    private static final double GAMMA = 0.101;
+
+    private int iterations = 200;
+    private int pairs = 8;
+    private int difficulty = 1;
+    private long timeLimit = 0;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Path openingsFile;
+    private Path savesDir;
+    private Path startFile;
+    private Path outFile = Path.of(EvalWeights.DEFAULT_FILE);
+    private long seed = 1;
+
+    public static void main(String[] args) {
+        SpsaTuner tuner = new SpsaTuner();
+        try {
+            tuner.parseArgs(args);
+            tuner.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("读写文件失败: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("缺少参数值: " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--iterations": iterations = Integer.parseInt(value); break;
+                case "--pairs": pairs = Math.max(1, Integer.parseInt(value)); break;
+                case "--engine": {
+                    EngineSpec spec = EngineSpec.parse(value);
+                    difficulty = spec.getDifficulty();
+                    timeLimit = spec.getTimeLimitMillis();
+                    break;
+                }
+                case "--threads": threads = Math.max(1, Integer.parseInt(value)); break;
+                case "--openings": openingsFile = Path.of(value); break;
+                case "--saves": savesDir = Path.of(value); break;
+                case "--start": startFile = Path.of(value); break;
+                case "--out": outFile = Path.of(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("未知参数: " + arg);
+            }
+        }
+    }
+
+    public EvalWeights run() throws IOException {
+        EvalWeights start = startFile != null ? EvalWeights.load(startFile) : EvalWeights.getStartup();
+        double[] theta = toParams(start);
+        List<int[]> openings;
+        if (openingsFile != null) {
+            openings = Openings.load(openingsFile);
+        } else if (savesDir != null) {
+            openings = Openings.fromSaves(savesDir, 4);
+        } else {
+            openings = Openings.random(Math.max(64, pairs * 8), 3, seed);
+        }
+        if (openings.isEmpty()) {
+            throw new IllegalArgumentException("开局库为空");
+        }
+        Random random = new Random(seed);
+        double bigA = iterations * 0.1;
+
+        System.out.println("SPSA start: " + start);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int k = 0; k < iterations; k++) {
+                double ck = 1 / Math.pow(k + 1, GAMMA);
+                double ak = 1 / Math.pow(k + 1 + bigA, ALPHA);
+                int[] delta = new int[PARAMS];
+                double[] plus = new double[PARAMS];
+                double[] minus = new double[PARAMS];
+                for (int i = 0; i < PARAMS; i++) {
+                    delta[i] = random.nextBoolean() ? 1 : -1;
+                    plus[i] = theta[i] + ck * C[i] * delta[i];
+                    minus[i] = theta[i] - ck * C[i] * delta[i];
+                }
+
+                // θ+ 为引擎A，θ- 为引擎B；得分差 2s-1 ∈ [-1, 1]
+                double score = playMatch(executor, toWeights(plus), toWeights(minus), openings, k);
+                double diff = 2 * score - 1;
+                for (int i = 0; i < PARAMS; i++) {
+                    theta[i] += ak * A[i] * diff / (ck * delta[i]);
+                }
+                clamp(theta);
+
+                EvalWeights current = toWeights(theta);
+                System.out.printf("[%d/%d] score(+) %.3f  %s%n", k + 1, iterations, score, current);
+                if ((k + 1) % 10 == 0 || k + 1 == iterations) {
+                    current.save(outFile, "SPSA iteration " + (k + 1));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        EvalWeights result = toWeights(theta);
+        System.out.println("Weights written to " + outFile.toAbsolutePath());
+        return result;
+    }
+
+    /**
+     * 并行下 pairs 对棋，返回引擎A的平均得分
+     */
+    private double playMatch(ExecutorService executor, EvalWeights a, EvalWeights b,
+                             List<int[]> openings, int iteration) throws IOException {
+        EngineSpec specA = new EngineSpec(difficulty, timeLimit, a);
+        EngineSpec specB = new EngineSpec(difficulty, timeLimit, b);
+        List<Future<GameResult>> futures = new ArrayList<>(pairs * 2);
+        for (int g = 0; g < pairs * 2; g++) {
+            int[] opening = openings.get((iteration * pairs + g / 2) % openings.size());
+            boolean aIsBlack = g % 2 == 0;
+            long gameSeed = Arena.gameSeed(seed + iteration, g);
+            futures.add(executor.submit(() -> ArenaGame.play(opening,
+                    specA.create(gameSeed), specB.create(~gameSeed), aIsBlack)));
+        }
+        double total = 0;
+        try {
+            for (Future<GameResult> future : futures) {
+                total += future.get().scoreForA();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("调参被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("对局执行失败", e.getCause());
+        }
+        return total / futures.size();
+    }
+
+    private static double[] toParams(EvalWeights w) {
+        return new double[]{
+                Math.log(w.getPattern(1)), Math.log(w.getPattern(2)),
+                Math.log(w.getPattern(3)), Math.log(w.getPattern(4)),
+                Math.log(w.getAttackPercent() / 100.0), w.getCenterBonus()
+        };
+    }
+
+    private static EvalWeights toWeights(double[] p) {
+        int[] pattern = new int[6];
+        for (int i = 1; i <= 4; i++) {
+            pattern[i] = (int) Math.round(Math.exp(p[i - 1]));
+        }
+        EvalWeights d = EvalWeights.defaults();
+        pattern[5] = d.getPattern(5); // 五连即胜，不参与调参
+        int attack = (int) Math.round(Math.exp(p[4]) * 100);
+        return new EvalWeights(pattern, d.getOverline(), attack, (int) Math.round(p[5]));
+    }
+
+    /**
+     * 保持棋型得分严格递增且低于五连，避免评估退化
+     */
+    private static void clamp(double[] p) {
+        double five = Math.log(EvalWeights.defaults().getPattern(5));
+        p[0] = Math.max(0, p[0]);
+        for (int i = 1; i < 4; i++) {
+            p[i] = Math.max(p[i], p[i - 1] + 0.1);
+        }
+        p[3] = Math.min(p[3], five - 0.1);
+        for (int i = 2; i >= 0; i--) {
+            p[i] = Math.min(p[i], p[i + 1] - 0.1);
+        }
+        p[4] = Math.max(Math.log(0.25), Math.min(Math.log(8), p[4]));
+        p[5] = Math.max(0, Math.min(50, p[5]));
+    }
+}
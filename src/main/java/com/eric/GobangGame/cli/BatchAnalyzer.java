@@ -0,0 +1,164 @@
+package com.eric.GobangGame.cli;
+
+import com.eric.GobangGame.arena.EngineSpec;
+import com.eric.GobangGame.arena.Openings;
+import com.eric.GobangGame.core.Rules;
+import com.eric.GobangGame.engine.GobangGameAi;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量局面分析：流式读取局面，用有界线程池并发分析，结果完成即输出（顺序不保证）
+ * 同时在途的局面数受信号量限制，内存占用与输入大小无关
+ *
+ * 用法: java -jar GobangGame.jar analyze [--input FILE] [--output FILE] [--engine 2/500] [--threads N] [--size 15]
+ *
+ * 输入每行一个局面，可带 "编号<TAB>" 前缀，局面为以下两种之一：
+ *   落子列表  "7,7 7,8 8,8"（黑先，按顺序交替）
+ *   棋盘字符串 size*size 个字符（15路为225个），x/X/b=黑，o/O/w=白，./-/0=空，可用 / 分隔行
+ * 输出每行: 编号 最佳落子(row,col) 评分 深度 节点数 毫秒，以 TAB 分隔
+ */
+public class BatchAnalyzer {
+
+    private Path input;
+    private Path output;
+    private EngineSpec engine = new EngineSpec(2, 1000);
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int size = Rules.DEFAULT_SIZE;
+
+    public static void main(String[] args) {
+        BatchAnalyzer analyzer = new BatchAnalyzer();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("缺少参数值: " + args[i]);
+                }
+                String value = args[++i];
+                switch (args[i - 1]) {
+                    case "--input": analyzer.input = Path.of(value); break;
+                    case "--output": analyzer.output = Path.of(value); break;
+                    case "--engine": analyzer.engine = EngineSpec.parse(value); break;
+                    case "--threads": analyzer.threads = Math.max(1, Integer.parseInt(value)); break;
+                    case "--size": analyzer.size = Rules.checkSize(Integer.parseInt(value)); break;
+                    default: throw new IllegalArgumentException("未知参数: " + args[i - 1]);
+                }
+            }
+            analyzer.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("读写文件失败: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public void run() throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        // 每个线程复用一个AI实例（GobangGameAi 非线程安全）
+        ThreadLocal<GobangGameAi> ais = ThreadLocal.withInitial(() -> engine.create(System.nanoTime()));
+        Semaphore inFlight = new Semaphore(threads * 2);
+
+        try (BufferedReader in = input != null
+                ? Files.newBufferedReader(input, StandardCharsets.UTF_8)
+                : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+             PrintWriter out = output != null
+                     ? new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))
+                     : new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                String text = line.trim();
+                if (text.isEmpty() || text.startsWith("#")) continue;
+
+                String id = String.valueOf(lineNumber);
+                int tab = text.indexOf('\t');
+                if (tab >= 0) {
+                    id = text.substring(0, tab);
+                    text = text.substring(tab + 1).trim();
+                }
+
+                inFlight.acquireUninterruptibly();
+                String positionId = id;
+                String position = text;
+                pool.execute(() -> {
+                    try {
+                        String result = analyze(ais.get(), positionId, position, size);
+                        synchronized (out) {
+                            out.println(result);
+                            out.flush();
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static String analyze(GobangGameAi ai, String id, String position, int size) {
+        int[][] board = new int[size][size];
+        int toMove;
+        try {
+            toMove = parsePosition(position, board);
+        } catch (IllegalArgumentException e) {
+            return id + "\tERROR\t" + e.getMessage();
+        }
+        int[] move = ai.calculateMove(board, toMove);
+        if (move[0] < 0) {
+            return id + "\tERROR\tboard is full";
+        }
+        return id + "\t" + move[0] + "," + move[1] + "\t" + ai.getLastScore() + "\t" + ai.getLastDepth()
+                + "\t" + ai.getLastNodes() + "\t" + ai.getLastTimeNanos() / 1_000_000;
+    }
+
+    /**
+     * 解析局面到 board，返回轮到落子的一方（1=黑，2=白）
+     */
+    static int parsePosition(String text, int[][] board) {
+        int size = board.length;
+        String compact = text.replace("/", "");
+        if (compact.length() == size * size && compact.indexOf(',') < 0) {
+            int black = 0, white = 0;
+            for (int i = 0; i < compact.length(); i++) {
+                char c = compact.charAt(i);
+                int cell;
+                switch (c) {
+                    case 'x': case 'X': case 'b': case 'B': cell = 1; black++; break;
+                    case 'o': case 'O': case 'w': case 'W': cell = 2; white++; break;
+                    case '.': case '-': case '0': case '_': cell = 0; break;
+                    default: throw new IllegalArgumentException("invalid board character '" + c + "'");
+                }
+                board[i / size][i % size] = cell;
+            }
+            if (black != white && black != white + 1) {
+                throw new IllegalArgumentException("invalid stone count");
+            }
+            return black == white ? 1 : 2;
+        }
+
+        int[] moves = Openings.parseMoves(text, size);
+        for (int i = 0; i < moves.length; i++) {
+            board[moves[i] / size][moves[i] % size] = (i % 2 == 0) ? 1 : 2;
+        }
+        return moves.length % 2 == 0 ? 1 : 2;
+    }
+}
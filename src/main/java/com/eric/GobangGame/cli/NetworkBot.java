@@ -0,0 +1,182 @@
+package com.eric.GobangGame.cli;
+
+import com.eric.GobangGame.arena.EngineSpec;
+import com.eric.GobangGame.core.MoveLog;
+import com.eric.GobangGame.core.Rules;
+import com.eric.GobangGame.engine.GobangGameAi;
+import com.eric.GobangGame.net.GameClient;
+import com.eric.GobangGame.net.Message;
+import com.eric.GobangGame.net.Protocol;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 对战服务器上的 AI 机器人：通过一个多路复用连接（GameClient）同时下多盘棋，每盘由大厅自动配对
+ * 各盘在自己的虚拟线程上思考，互不等待；结果以服务器判定的 GAME_OVER 为准
+ *
+ * 用法: java -jar GobangGame.jar bot [--host localhost] [--port 12345] [--games 10] [--engine 1/100] [--name Bot] [--size 15]
+ * 同一机器人的两盘可能被配成一对（自己与自己对弈）。
+ */
+public class NetworkBot {
+
+    private String host = "localhost";
+    private int port = Protocol.DEFAULT_PORT;
+    private int games = 10;
+    private EngineSpec engine = new EngineSpec(1, 100);
+    private String name = "Bot";
+    private int size = Rules.DEFAULT_SIZE;
+
+    private final ConcurrentHashMap<Integer, BotGame> playing = new ConcurrentHashMap<>();
+    private final AtomicInteger wins = new AtomicInteger();
+    private final AtomicInteger losses = new AtomicInteger();
+    private final AtomicInteger draws = new AtomicInteger();
+    private final AtomicInteger aborted = new AtomicInteger();
+    private CountDownLatch finished;
+    private GameClient client;
+
+    public static void main(String[] args) {
+        NetworkBot bot = new NetworkBot();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("缺少参数值: " + args[i]);
+                }
+                String value = args[++i];
+                switch (args[i - 1]) {
+                    case "--host": bot.host = value; break;
+                    case "--port": bot.port = Integer.parseInt(value); break;
+                    case "--games": bot.games = Math.max(1, Integer.parseInt(value)); break;
+                    case "--engine": bot.engine = EngineSpec.parse(value); break;
+                    case "--name": bot.name = value; break;
+                    case "--size": bot.size = Rules.checkSize(Integer.parseInt(value)); break;
+                    default: throw new IllegalArgumentException("未知参数: " + args[i - 1]);
+                }
+            }
+            bot.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("连接服务器失败: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 一盘对局的状态，只在该盘的处理线程上访问
+     */
+    private final class BotGame {
+
+        final int gameId;
+        final int[][] board = new int[size][size];
+        final GobangGameAi ai = engine.create(System.nanoTime());
+        int color;
+        boolean done = false;
+
+        BotGame(int gameId) {
+            this.gameId = gameId;
+        }
+
+        void onMessage(Message message) {
+            switch (message.getType()) {
+                case Message.START:
+                    // START 的参数是对方的颜色
+                    color = Rules.opponent(message.getValue());
+                    if (color == Rules.BLACK) {
+                        play();
+                    }
+                    break;
+                case Message.MOVE:
+                    if (isEmpty(message.getRow(), message.getCol())) {
+                        board[message.getRow()][message.getCol()] = Rules.opponent(color);
+                        // 对手这一步结束了对局时等待服务器的结果
+                        if (!Rules.isWin(board, message.getRow(), message.getCol()) && !Rules.isFull(board)) {
+                            play();
+                        }
+                    }
+                    break;
+                case Message.SNAPSHOT:
+                    // 服务器纠正局面（正常对局中不会出现）
+                    for (int[] row : board) {
+                        Arrays.fill(row, Rules.EMPTY);
+                    }
+                    for (short move : message.getMoves()) {
+                        int index = MoveLog.index(move);
+                        board[index / size][index % size] = MoveLog.player(move);
+                    }
+                    if (!message.isGameOver() && message.isBlackTurn() == (color == Rules.BLACK)) {
+                        play();
+                    }
+                    break;
+                case Message.GAME_OVER:
+                    if (message.getValue() != 0) {
+                        (message.getValue() == Message.RESULT_DRAW ? draws
+                                : message.getValue() == color ? wins : losses).incrementAndGet();
+                        finish();
+                    }
+                    break;
+                case Message.DISCONNECT:
+                    // 对手离开或房间作废
+                    aborted.incrementAndGet();
+                    finish();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void play() {
+            int[] move = ai.calculateMove(board, color);
+            board[move[0]][move[1]] = color;
+            client.send(gameId, Message.move(move[0], move[1]));
+        }
+
+        private boolean isEmpty(int row, int col) {
+            return row >= 0 && row < size && col >= 0 && col < size && board[row][col] == Rules.EMPTY;
+        }
+
+        private void finish() {
+            if (!done) {
+                done = true;
+                client.leave(gameId);
+                finished.countDown();
+            }
+        }
+    }
+
+    public void run() throws IOException {
+        finished = new CountDownLatch(games);
+        long start = System.nanoTime();
+        client = new GameClient(host, port, new GameClient.Listener() {
+            @Override
+            public void onMessage(int gameId, Message message) {
+                BotGame game = playing.computeIfAbsent(gameId, BotGame::new);
+                if (!game.done) {
+                    game.onMessage(message);
+                }
+            }
+
+            @Override
+            public void onClosed() {
+                while (finished.getCount() > 0) {
+                    finished.countDown();
+                }
+            }
+        });
+        for (int i = 1; i <= games; i++) {
+            client.join(null, name + "-" + i);
+        }
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        client.close();
+        System.err.printf("%d 盘（1 个连接）：胜 %d，负 %d，平 %d，中断 %d，用时 %.1f 秒%n",
+                games, wins.get(), losses.get(), draws.get(), aborted.get(), (System.nanoTime() - start) / 1e9);
+    }
+}
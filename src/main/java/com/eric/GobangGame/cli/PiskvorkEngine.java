@@ -0,0 +1,251 @@
+package com.eric.GobangGame.cli;
+
+import com.eric.GobangGame.GobangGame;
+import com.eric.GobangGame.core.RuleSet;
+import com.eric.GobangGame.core.Rules;
+import com.eric.GobangGame.engine.GobangGameAi;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Gomocup / Piskvork 协议引擎：通过标准输入输出与对局管理器通信，无需图形界面
+ *
+ * 用法: java -jar GobangGame.jar piskvork
+ * 坐标按协议约定为 "x,y"，x 为列，y 为行。棋盘内部以 1 表示己方，2 表示对方。
+ * INFO rule 含位 4 时按连珠规则下棋，此时由盘面棋子数推断己方颜色。
+ */
+public class PiskvorkEngine {
+
+    private static final int OWN = 1;
+    private static final int OPPONENT = 2;
+    // 每步预留的安全余量（毫秒），覆盖节点检查间隔与进程通信延迟
+    private static final long SAFETY_MARGIN = 50;
+    // 每步的最短用时（毫秒）
+    private static final long MIN_BUDGET = 10;
+
+    private final PrintStream out;
+    private final GobangGameAi ai = new GobangGameAi(2);
+    private RuleSet ruleSet = RuleSet.FREESTYLE;
+    private int size = Rules.DEFAULT_SIZE;
+    private int[][] board;
+
+    // 时间控制（毫秒）：未收到 INFO 时单步 5 秒；timeout_turn 为 0 表示尽快落子，timeout_match 为 0 表示整局不限时
+    private long timeoutTurn = 5000;
+    private long timeoutMatch = 0;
+    private long timeLeft = Long.MAX_VALUE;
+
+    public PiskvorkEngine(PrintStream out) {
+        this.out = out;
+    }
+
+    public static void main(String[] args) {
+        // 协议独占标准输出，其他调试输出改走标准错误
+        PrintStream protocolOut = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+        System.setOut(System.err);
+        PiskvorkEngine engine = new PiskvorkEngine(protocolOut);
+        try {
+            engine.run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            System.err.println("读取标准输入失败: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public void run(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            String[] parts = line.split("\\s+", 2);
+            String command = parts[0].toUpperCase();
+            String arg = parts.length > 1 ? parts[1].trim() : "";
+            switch (command) {
+                case "START": start(arg); break;
+                case "RESTART": restart(); break;
+                case "BEGIN": begin(); break;
+                case "TURN": turn(arg); break;
+                case "BOARD": board(in); break;
+                case "TAKEBACK": takeback(arg); break;
+                case "INFO": info(arg); break;
+                case "ABOUT":
+                    send("name=\"GobangGame\", version=\"" + GobangGame.VERSION
+                            + "\", author=\"Eric\", country=\"China\"");
+                    break;
+                case "END": return;
+                default: send("UNKNOWN " + command); break;
+            }
+        }
+    }
+
+    private void start(String arg) {
+        try {
+            int requested = Integer.parseInt(arg);
+            if (requested < Rules.MIN_SIZE || requested > Rules.MAX_SIZE) {
+                send("ERROR unsupported board size " + requested + ", supported " + Rules.MIN_SIZE + "-" + Rules.MAX_SIZE);
+                return;
+            }
+            size = requested;
+        } catch (NumberFormatException e) {
+            send("ERROR invalid size");
+            return;
+        }
+        board = new int[size][size];
+        send("OK");
+    }
+
+    private void restart() {
+        board = new int[size][size];
+        send("OK");
+    }
+
+    private void begin() {
+        if (!checkStarted()) return;
+        playMove();
+    }
+
+    private void turn(String arg) {
+        if (!checkStarted()) return;
+        int[] xy = parseXY(arg);
+        if (xy == null || board[xy[1]][xy[0]] != 0) {
+            send("ERROR invalid move " + arg);
+            return;
+        }
+        board[xy[1]][xy[0]] = OPPONENT;
+        playMove();
+    }
+
+    /**
+     * BOARD 命令：逐行读取 "x,y,field" 直到 DONE，field 1=己方，2=对方，3=连续对局模式（按对方处理）
+     */
+    private void board(BufferedReader in) throws IOException {
+        if (!checkStarted()) return;
+        board = new int[size][size];
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.equalsIgnoreCase("DONE")) break;
+            String[] f = line.split(",");
+            if (f.length != 3) continue;
+            int[] xy = parseXY(f[0] + "," + f[1]);
+            if (xy == null) continue;
+            board[xy[1]][xy[0]] = "1".equals(f[2].trim()) ? OWN : OPPONENT;
+        }
+        playMove();
+    }
+
+    private void takeback(String arg) {
+        if (!checkStarted()) return;
+        int[] xy = parseXY(arg);
+        if (xy == null) {
+            send("ERROR invalid coordinates " + arg);
+            return;
+        }
+        board[xy[1]][xy[0]] = 0;
+        send("OK");
+    }
+
+    /**
+     * INFO 命令：处理时间相关的键与 rule（位 4 为连珠规则），其余（max_memory 等）忽略
+     */
+    private void info(String arg) {
+        String[] kv = arg.split("\\s+", 2);
+        if (kv.length < 2) return;
+        try {
+            long value = Long.parseLong(kv[1].trim());
+            switch (kv[0].toLowerCase()) {
+                case "timeout_turn": timeoutTurn = value; break;
+                case "timeout_match": timeoutMatch = value; break;
+                case "time_left": timeLeft = value; break;
+                case "rule":
+                    ruleSet = (value & 4) != 0 ? RuleSet.RENJU : RuleSet.FREESTYLE;
+                    ai.setRuleSet(ruleSet);
+                    break;
+                default: break;
+            }
+        } catch (NumberFormatException e) {
+            // 非数值的 INFO（如 folder）无需处理
+        }
+    }
+
+    private void playMove() {
+        long budget = moveBudget();
+        ai.setTimeLimit(budget);
+        // 连珠规则区分黑白：轮到己方且盘面棋子数为奇数时己方执白，交换颜色交给 AI
+        boolean ownIsBlack = ruleSet != RuleSet.RENJU || countStones() % 2 == 0;
+        int[] move = ownIsBlack ? ai.calculateMove(board, OWN) : ai.calculateMove(swapColors(board), OPPONENT);
+        if (move[0] < 0) {
+            send("ERROR board is full");
+            return;
+        }
+        board[move[0]][move[1]] = OWN;
+        send("MESSAGE depth " + ai.getLastDepth() + " score " + ai.getLastScore()
+                + " nodes " + ai.getLastNodes() + " time " + ai.getLastTimeNanos() / 1_000_000 + "ms");
+        send(move[1] + "," + move[0]);
+    }
+
+    /**
+     * 每步用时：不超过单步限制（为 0 时只用最短用时），并把剩余的整局时间平摊到预计剩余步数上
+     */
+    long moveBudget() {
+        if (timeoutTurn <= 0) {
+            return MIN_BUDGET;
+        }
+        long budget = timeoutTurn;
+        if (timeoutMatch > 0 && timeLeft != Long.MAX_VALUE) {
+            int movesLeft = Math.max(10, (size * size - countStones()) / 2 / 4);
+            budget = Math.min(budget, timeLeft / movesLeft);
+        }
+        return Math.max(MIN_BUDGET, budget - SAFETY_MARGIN);
+    }
+
+    private int countStones() {
+        int stones = 0;
+        for (int[] row : board) {
+            for (int cell : row) {
+                if (cell != 0) stones++;
+            }
+        }
+        return stones;
+    }
+
+    private int[][] swapColors(int[][] original) {
+        int[][] swapped = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                int cell = original[i][j];
+                swapped[i][j] = cell == OWN ? OPPONENT : cell == OPPONENT ? OWN : 0;
+            }
+        }
+        return swapped;
+    }
+
+    private int[] parseXY(String text) {
+        String[] f = text.split(",");
+        if (f.length != 2) return null;
+        try {
+            int x = Integer.parseInt(f[0].trim());
+            int y = Integer.parseInt(f[1].trim());
+            if (x < 0 || x >= size || y < 0 || y >= size) return null;
+            return new int[]{x, y};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private boolean checkStarted() {
+        if (board == null) {
+            send("ERROR game not started");
+            return false;
+        }
+        return true;
+    }
+
+    private void send(String message) {
+        out.println(message);
+        out.flush();
+    }
+}
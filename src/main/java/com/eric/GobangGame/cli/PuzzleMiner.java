@@ -0,0 +1,369 @@
+package com.eric.GobangGame.cli;
+
+import com.eric.GobangGame.GameSave;
+import com.eric.GobangGame.arena.Openings;
+import com.eric.GobangGame.core.MoveLog;
+import com.eric.GobangGame.core.RuleSet;
+import com.eric.GobangGame.core.Rules;
+import com.eric.GobangGame.engine.VcfSolver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 战术题挖掘：流式读取对局，对每个局面并行求解轮到一方的 VCF（连续冲四必胜），
+ * 按 8 种对称变换下的规范哈希去重，按难度排序后写出题库文件
+ *
+ * 用法: java -jar GobangGame.jar puzzles --input DIR|FILE [--input ...] [--output puzzles.txt]
+ *       [--max 1000] [--min-length 3] [--min-ply 6] [--depth 12] [--threads N] [--size 15] [--rule renju]
+ *
+ * --input 为目录时读取其中的 *.dat 存档（规则取自存档），为文件时每行一局，格式与 analyze 的落子列表相同。
+ * 对局逐个读取，在途对局数受信号量限制；题目只保留难度最高的 --max 道（有界堆）。
+ * 去重只对照堆中的题目（精确）和一张固定 RECENT_SLOTS 项的最近哈希表（按哈希低位直接映射，新的覆盖旧的），
+ * 因此内存与输入规模无关：写出的题目不会重复，被挤出堆的题目以后再遇到可能不再计为重复。
+ *
+ * 难度：先比较攻方步数（解的长度），再比较第一步的可选着法数（越少越难），最后比较求解节点数。
+ * 输出每行: 编号 棋盘字符串(x=黑 o=白 .=空) 轮到的一方 步数 可选第一步数 解，以 TAB 分隔；
+ * 解为 row,col 列表，攻守交替，以攻方成五结束（活四时守方只能挡一头，省略守方这一步）
+ */
+public class PuzzleMiner {
+
+    /**
+     * 一道题
+     */
+    static class Puzzle {
+        final long hash;
+        final String board;
+        final int toMove;
+        final int length;       // 攻方步数（含最后成五）
+        final int alternatives; // 能取胜的第一步数
+        final int nodes;
+        final String solution;
+
+        Puzzle(long hash, String board, int toMove, int length, int alternatives, int nodes, String solution) {
+            this.hash = hash;
+            this.board = board;
+            this.toMove = toMove;
+            this.length = length;
+            this.alternatives = alternatives;
+            this.nodes = nodes;
+            this.solution = solution;
+        }
+    }
+
+    // 最近见过的题目哈希表的项数（2 的幂，每项 8 字节）
+    static final int RECENT_SLOTS = 1 << 16;
+
+    // 难度从低到高
+    static final Comparator<Puzzle> DIFFICULTY = Comparator.<Puzzle>comparingInt(p -> p.length)
+            .thenComparingInt(p -> -p.alternatives)
+            .thenComparingInt(p -> p.nodes);
+
+    private final List<Path> inputs = new ArrayList<>();
+    private Path output = Path.of("puzzles.txt");
+    private int max = 1000;
+    private int minLength = 3;
+    private int minPly = 6;
+    private int depth = 12;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int size = Rules.DEFAULT_SIZE;
+    private RuleSet ruleSet = RuleSet.FREESTYLE;
+
+    // 以下由工作线程共享，访问时锁定 best
+    private final PriorityQueue<Puzzle> best = new PriorityQueue<>(DIFFICULTY);
+    // 堆中题目的哈希
+    private final Set<Long> kept = new HashSet<>();
+    // 最近见过的题目哈希，下标为哈希的低位
+    private final long[] recent = new long[RECENT_SLOTS];
+    private final AtomicLong games = new AtomicLong();
+    private final AtomicLong positions = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private long[][] zobrist;
+
+    public static void main(String[] args) {
+        PuzzleMiner miner = new PuzzleMiner();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("缺少参数值: " + args[i]);
+                }
+                String value = args[++i];
+                switch (args[i - 1]) {
+                    case "--input": miner.inputs.add(Path.of(value)); break;
+                    case "--output": miner.output = Path.of(value); break;
+                    case "--max": miner.max = Math.max(1, Integer.parseInt(value)); break;
+                    case "--min-length": miner.minLength = Integer.parseInt(value); break;
+                    case "--min-ply": miner.minPly = Integer.parseInt(value); break;
+                    case "--depth": miner.depth = Integer.parseInt(value); break;
+                    case "--threads": miner.threads = Math.max(1, Integer.parseInt(value)); break;
+                    case "--size": miner.size = Rules.checkSize(Integer.parseInt(value)); break;
+                    case "--rule": miner.ruleSet = RuleSet.parse(value); break;
+                    default: throw new IllegalArgumentException("未知参数: " + args[i - 1]);
+                }
+            }
+            if (miner.inputs.isEmpty()) {
+                throw new IllegalArgumentException("至少需要一个 --input");
+            }
+            miner.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("读写文件失败: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public void run() throws IOException {
+        zobrist = zobristTable(size);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        // 每个线程复用一个求解器（VcfSolver 非线程安全）
+        ThreadLocal<VcfSolver> solvers = ThreadLocal.withInitial(() -> new VcfSolver(depth));
+        Semaphore inFlight = new Semaphore(threads * 2);
+        long start = System.nanoTime();
+        try {
+            for (Path input : inputs) {
+                if (Files.isDirectory(input)) {
+                    readSaves(input, pool, solvers, inFlight);
+                } else {
+                    readText(input, pool, solvers, inFlight);
+                }
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+        write();
+        System.err.printf("%d 局, %d 个局面, %d 道题（%d 个重复局面）, 用时 %.1fs, 已写入 %s%n",
+                games.get(), positions.get(), best.size(), duplicates.get(),
+                (System.nanoTime() - start) / 1e9, output);
+    }
+
+    private void readSaves(Path dir, ExecutorService pool, ThreadLocal<VcfSolver> solvers, Semaphore inFlight)
+            throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.dat")) {
+            for (Path file : files) {
+                try (InputStream in = Files.newInputStream(file);
+                     ObjectInputStream ois = new ObjectInputStream(in)) {
+                    GameSave save = (GameSave) ois.readObject();
+                    if (save.getBoard().length != size) continue;
+                    submit(save.getMoves(), save.getRuleSet(), pool, solvers, inFlight);
+                } catch (ClassNotFoundException | ClassCastException | IOException e) {
+                    System.err.println("跳过无法读取的存档: " + file);
+                }
+            }
+        }
+    }
+
+    private void readText(Path file, ExecutorService pool, ThreadLocal<VcfSolver> solvers, Semaphore inFlight)
+            throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String text = line.trim();
+                if (text.isEmpty() || text.startsWith("#")) continue;
+                int tab = text.indexOf('\t');
+                if (tab >= 0) text = text.substring(tab + 1).trim();
+                int[] cells;
+                try {
+                    cells = Openings.parseMoves(text, size);
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                short[] moves = new short[cells.length];
+                for (int i = 0; i < cells.length; i++) {
+                    moves[i] = MoveLog.encode(cells[i] / size, cells[i] % size, i % 2 == 0 ? Rules.BLACK : Rules.WHITE, size);
+                }
+                submit(moves, ruleSet, pool, solvers, inFlight);
+            }
+        }
+    }
+
+    private void submit(short[] moves, RuleSet rules, ExecutorService pool, ThreadLocal<VcfSolver> solvers,
+                        Semaphore inFlight) {
+        inFlight.acquireUninterruptibly();
+        pool.execute(() -> {
+            try {
+                mine(moves, rules, solvers.get());
+            } finally {
+                inFlight.release();
+            }
+        });
+        long count = games.incrementAndGet();
+        if (count % 10000 == 0) {
+            System.err.println(count + " 局, " + positions.get() + " 个局面, " + best.size() + " 道题");
+        }
+    }
+
+    /**
+     * 逐步重放一局，在每个局面上求解轮到一方的 VCF
+     */
+    private void mine(short[] moves, RuleSet rules, VcfSolver solver) {
+        solver.setRuleSet(rules);
+        int[][] board = new int[size][size];
+        for (int ply = 0; ply < moves.length; ply++) {
+            int index = MoveLog.index(moves[ply]);
+            int player = MoveLog.player(moves[ply]);
+            board[index / size][index % size] = player;
+            if (Rules.isWin(board, index / size, index % size)) {
+                return; // 终局之后的记录不再分析
+            }
+            if (ply + 1 < minPly) continue;
+            positions.incrementAndGet();
+            examine(board, Rules.opponent(player), solver);
+        }
+    }
+
+    private void examine(int[][] board, int attacker, VcfSolver solver) {
+        if (solver.solve(board, attacker) == null) return;
+        int[] line = solver.getLastLine();
+        // 序列攻守交替；以活四（或守方禁手）结束时最后两格都是攻方的，两种情况攻方步数都是 length / 2 + 1
+        int length = line.length / 2 + 1;
+        if (length < minLength) return;
+        int nodes = solver.getLastNodes();
+        long hash = canonicalHash(board);
+        synchronized (best) {
+            int slot = (int) hash & (RECENT_SLOTS - 1);
+            if (recent[slot] == hash || kept.contains(hash)) {
+                duplicates.incrementAndGet();
+                return;
+            }
+            recent[slot] = hash;
+            // 堆已满且难度不超过最简单的一道时无需再统计可选着法
+            if (best.size() >= max && DIFFICULTY.compare(lowerBound(length, nodes), best.peek()) <= 0) return;
+        }
+
+        Puzzle puzzle = new Puzzle(hash, boardString(board), attacker, length,
+                countWinningFirstMoves(board, attacker, solver), nodes, solutionString(line));
+        synchronized (best) {
+            // 另一线程可能在统计可选着法期间放入了同一局面
+            if (!kept.add(hash)) {
+                duplicates.incrementAndGet();
+                return;
+            }
+            best.add(puzzle);
+            if (best.size() > max) {
+                kept.remove(best.poll().hash);
+            }
+        }
+    }
+
+    /**
+     * 难度的下界（可选着法数取最大值），用于提前跳过
+     */
+    private Puzzle lowerBound(int length, int nodes) {
+        return new Puzzle(0, null, 0, length, Integer.MAX_VALUE, nodes, null);
+    }
+
+    /**
+     * 能直接开始 VCF 的第一步个数；唯一解的题目更难
+     */
+    private int countWinningFirstMoves(int[][] board, int attacker, VcfSolver solver) {
+        int count = 0;
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                if (board[r][c] == Rules.EMPTY && solver.winsAfter(board, r, c, attacker)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void write() throws IOException {
+        List<Puzzle> sorted = new ArrayList<>(best);
+        sorted.sort(DIFFICULTY.reversed());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+            out.println("# GobangGame puzzle pack: " + sorted.size() + " puzzles, " + size + "x" + size
+                    + ", sorted hardest first");
+            out.println("# id\tboard\tto_move\tlength\talternatives\tsolution");
+            int id = 1;
+            for (Puzzle p : sorted) {
+                out.println(id++ + "\t" + p.board + "\t" + (p.toMove == Rules.BLACK ? "x" : "o") + "\t" + p.length
+                        + "\t" + p.alternatives + "\t" + p.solution);
+            }
+        }
+    }
+
+    // --- 对称与哈希 ---
+
+    private static long[][] zobristTable(int size) {
+        Random random = new Random(0x5EED);
+        long[][] table = new long[3][size * size];
+        for (int color = 1; color <= 2; color++) {
+            for (int i = 0; i < size * size; i++) {
+                table[color][i] = random.nextLong();
+            }
+        }
+        return table;
+    }
+
+    /**
+     * 8 种对称变换（旋转与翻转）下 Zobrist 哈希的最小值；同形局面哈希相同
+     */
+    long canonicalHash(int[][] board) {
+        long[] hashes = new long[8];
+        int last = size - 1;
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int color = board[r][c];
+                if (color == Rules.EMPTY) continue;
+                long[] keys = zobrist[color];
+                hashes[0] ^= keys[r * size + c];
+                hashes[1] ^= keys[c * size + (last - r)];
+                hashes[2] ^= keys[(last - r) * size + (last - c)];
+                hashes[3] ^= keys[(last - c) * size + r];
+                hashes[4] ^= keys[r * size + (last - c)];
+                hashes[5] ^= keys[(last - r) * size + c];
+                hashes[6] ^= keys[c * size + r];
+                hashes[7] ^= keys[(last - c) * size + (last - r)];
+            }
+        }
+        long min = hashes[0];
+        for (long h : hashes) {
+            min = Math.min(min, h);
+        }
+        return min;
+    }
+
+    private String boardString(int[][] board) {
+        StringBuilder text = new StringBuilder(size * size);
+        for (int[] row : board) {
+            for (int cell : row) {
+                text.append(cell == Rules.BLACK ? 'x' : cell == Rules.WHITE ? 'o' : '.');
+            }
+        }
+        return text.toString();
+    }
+
+    private String solutionString(int[] line) {
+        StringBuilder text = new StringBuilder();
+        for (int cell : line) {
+            if (text.length() > 0) text.append(' ');
+            text.append(cell / size).append(',').append(cell % size);
+        }
+        return text.toString();
+    }
+}
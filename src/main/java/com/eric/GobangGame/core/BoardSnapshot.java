@@ -0,0 +1,88 @@
+package com.eric.GobangGame.core;
+
+/**
+ * 不可变的局面快照，由 GameState 在每次变化后发布
+ * 任意线程（界面绘制、AI、网络）都可以无锁读取到一致的局面；version 单调递增，可用来判断局面是否已变化
+ */
+public final class BoardSnapshot {
+
+    private final long version;
+    private final int rows;
+    private final int cols;
+    private final byte[] cells;
+    private final boolean blackTurn;
+    private final boolean gameOver;
+    private final int winner;
+    private final int moveCount;
+    private final short lastMove;
+
+    BoardSnapshot(long version, int rows, int cols, byte[] cells, boolean blackTurn, boolean gameOver,
+                  int winner, int moveCount, short lastMove) {
+        this.version = version;
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = cells;
+        this.blackTurn = blackTurn;
+        this.gameOver = gameOver;
+        this.winner = winner;
+        this.moveCount = moveCount;
+        this.lastMove = lastMove;
+    }
+
+    /**
+     * 在前一个快照的基础上只改一格（复制 rows * cols 字节）
+     */
+    BoardSnapshot withCell(long version, int row, int col, int value, boolean blackTurn, boolean gameOver,
+                           int winner, int moveCount, short lastMove) {
+        byte[] copy = cells.clone();
+        copy[row * cols + col] = (byte) value;
+        return new BoardSnapshot(version, rows, cols, copy, blackTurn, gameOver, winner, moveCount, lastMove);
+    }
+
+    static byte[] pack(int[][] board, int rows, int cols) {
+        byte[] cells = new byte[rows * cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                cells[r * cols + c] = (byte) board[r][c];
+            }
+        }
+        return cells;
+    }
+
+    public int get(int row, int col) {
+        return cells[row * cols + col];
+    }
+
+    public boolean inBounds(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    /**
+     * 可修改的棋盘副本（给会在棋盘上试下的 AI 使用）
+     */
+    public int[][] toArray() {
+        int[][] board = new int[rows][cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                board[r][c] = cells[r * cols + c];
+            }
+        }
+        return board;
+    }
+
+    public int currentPlayer() {
+        return blackTurn ? Rules.BLACK : Rules.WHITE;
+    }
+
+    // --- Getters ---
+
+    public long getVersion() { return version; }
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public boolean isBlackTurn() { return blackTurn; }
+    public boolean isGameOver() { return gameOver; }
+    public int getWinner() { return winner; }
+    public int getMoveCount() { return moveCount; }
+    /** 最后一步（MoveLog 编码），没有落子时为 -1 */
+    public short getLastMove() { return lastMove; }
+}
@@ -0,0 +1,276 @@
+package com.eric.GobangGame.core;
+
+import java.util.Arrays;
+
+/**
+ * 连珠规则的黑棋禁手判定：长连、四四、三三（三三中的假三通过递归判断成活四的点是否为禁手来排除）
+ *
+ * 维护一份带 5 圈哨兵的棋盘副本，由持有者在落子/撤销时同步调用 place/remove。
+ * 每个空点的判定结果被缓存：
+ *   - 不经递归得出的结果只取决于经过该点的四条线上距离 5 以内的格子，
+ *     落子/撤销时只把这些格子的缓存作废；
+ *   - 经过递归（检查假三）得出的结果可能依赖更远的格子，记入单独列表，任何变化都整体作废。
+ * 大多数空点由预筛选直接判定为非禁手，只有周围黑子较多的点才做完整计算。
+ */
+public class ForbiddenDetector {
+
+    /**
+     * 禁手类型
+     */
+    public enum Reason { NONE, OVERLINE, DOUBLE_FOUR, DOUBLE_THREE }
+
+    private static final int PAD = 5;
+    private static final int BORDER = 3;
+    // 递归深度上限：更深的假三链在实战中不会出现，超过时按真三处理
+    private static final int MAX_DEPTH = 8;
+    private static final Reason[] REASONS = Reason.values();
+
+    private final int rows;
+    private final int cols;
+    private final int width;
+    private final int[] offsets;
+    private final int[] color;
+    private final byte[] cache;     // 0 = 未知，否则为 Reason.ordinal() + 1
+    private int[] volatileCells = new int[16];
+    private int volatileCount = 0;
+    private boolean usedRecursion;
+
+    public ForbiddenDetector(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.width = cols + 2 * PAD;
+        int size = (rows + 2 * PAD) * width;
+        this.offsets = new int[]{1, width, width + 1, width - 1}; // 对应 Rules.DIRECTIONS
+        this.color = new int[size];
+        this.cache = new byte[size];
+        clear();
+    }
+
+    public static ForbiddenDetector of(int[][] board) {
+        ForbiddenDetector detector = new ForbiddenDetector(board.length, board[0].length);
+        for (int r = 0; r < board.length; r++) {
+            for (int c = 0; c < board[r].length; c++) {
+                if (board[r][c] != Rules.EMPTY) {
+                    detector.color[detector.index(r, c)] = board[r][c];
+                }
+            }
+        }
+        return detector;
+    }
+
+    /**
+     * 按 board 原地重建（不分配内存）
+     */
+    public void load(int[][] board) {
+        clear();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (board[r][c] != Rules.EMPTY) {
+                    color[index(r, c)] = board[r][c];
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(color, BORDER);
+        for (int r = 0; r < rows; r++) {
+            Arrays.fill(color, index(r, 0), index(r, 0) + cols, Rules.EMPTY);
+        }
+        Arrays.fill(cache, (byte) 0);
+        volatileCount = 0;
+    }
+
+    private int index(int row, int col) {
+        return (row + PAD) * width + col + PAD;
+    }
+
+    public void place(int row, int col, int player) {
+        int p = index(row, col);
+        color[p] = player;
+        invalidate(p);
+    }
+
+    public void remove(int row, int col) {
+        int p = index(row, col);
+        color[p] = Rules.EMPTY;
+        invalidate(p);
+    }
+
+    private void invalidate(int p) {
+        for (int off : offsets) {
+            for (int k = -PAD; k <= PAD; k++) {
+                cache[p + k * off] = 0;
+            }
+        }
+        for (int i = 0; i < volatileCount; i++) {
+            cache[volatileCells[i]] = 0;
+        }
+        volatileCount = 0;
+    }
+
+    /**
+     * 黑棋在空点 (row, col) 落子是否为禁手；已有棋子的点返回 false
+     */
+    public boolean isForbidden(int row, int col) {
+        return check(row, col) != Reason.NONE;
+    }
+
+    /**
+     * 黑棋在 (row, col) 落子的禁手类型（带缓存）
+     */
+    public Reason check(int row, int col) {
+        int p = index(row, col);
+        if (color[p] != Rules.EMPTY) {
+            return Reason.NONE;
+        }
+        byte cached = cache[p];
+        if (cached != 0) {
+            return REASONS[cached - 1];
+        }
+        usedRecursion = false;
+        Reason reason = mayBeForbidden(p) ? compute(p, 0) : Reason.NONE;
+        cache[p] = (byte) (reason.ordinal() + 1);
+        if (usedRecursion) {
+            if (volatileCount == volatileCells.length) {
+                volatileCells = Arrays.copyOf(volatileCells, volatileCount * 2);
+            }
+            volatileCells[volatileCount++] = p;
+        }
+        return reason;
+    }
+
+    /**
+     * 预筛选：两个方向上各有至少 2 颗黑子，或某个方向有至少 4 颗黑子（距离 4 以内），才可能是禁手
+     */
+    private boolean mayBeForbidden(int p) {
+        int busy = 0;
+        for (int off : offsets) {
+            int n = 0;
+            for (int k = 1; k <= 4; k++) {
+                if (color[p + k * off] == Rules.BLACK) n++;
+                if (color[p - k * off] == Rules.BLACK) n++;
+            }
+            if (n >= 4) return true;
+            if (n >= 2 && ++busy >= 2) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 完整判定（p 为空点）：成五优先，其次长连、四四、三三
+     */
+    private Reason compute(int p, int depth) {
+        color[p] = Rules.BLACK;
+        try {
+            boolean overline = false;
+            for (int off : offsets) {
+                int length = 1 + count(p, off) + count(p, -off);
+                if (length == 5) {
+                    return Reason.NONE;
+                }
+                if (length > 5) {
+                    overline = true;
+                }
+            }
+            if (overline) {
+                return Reason.OVERLINE;
+            }
+
+            int fours = 0;
+            int fourDirections = 0;
+            for (int d = 0; d < 4; d++) {
+                int n = fours(p, offsets[d]);
+                fours += n;
+                if (n > 0) fourDirections |= 1 << d;
+            }
+            if (fours >= 2) {
+                return Reason.DOUBLE_FOUR;
+            }
+
+            int threes = 0;
+            for (int d = 0; d < 4; d++) {
+                // 已成四的方向不再算三（四三不是禁手）
+                if ((fourDirections & (1 << d)) == 0 && isRealThree(p, offsets[d], depth)) {
+                    if (++threes >= 2) {
+                        return Reason.DOUBLE_THREE;
+                    }
+                }
+            }
+            return Reason.NONE;
+        } finally {
+            color[p] = Rules.EMPTY;
+        }
+    }
+
+    private int count(int p, int step) {
+        int n = 0;
+        for (int q = p + step; color[q] == Rules.BLACK; q += step) {
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * 在 off 方向上经过 p 的四的个数（活四 .XXXX. 算一个，同线的 X.XXX.X 算两个）
+     */
+    private int fours(int p, int off) {
+        int first = 0, second = 0, found = 0;
+        for (int k = -4; k <= 4; k++) {
+            int q = p + k * off;
+            if (k == 0 || color[q] != Rules.EMPTY) continue;
+            color[q] = Rules.BLACK;
+            int left = count(q, -off);
+            int right = count(q, off);
+            color[q] = Rules.EMPTY;
+            // 恰好成五且包含 p
+            if (left + right + 1 == 5 && -left <= -k && -k <= right) {
+                if (found == 0) first = k; else second = k;
+                found++;
+            }
+        }
+        if (found == 2 && second - first == 5) {
+            return 1; // 两个成五点相距 5 格，中间是同一个活四
+        }
+        return Math.min(found, 2);
+    }
+
+    /**
+     * off 方向上经过 p 是否为真三：存在一个空点，下在那里能形成包含 p 的活四，且该点本身不是禁手
+     */
+    private boolean isRealThree(int p, int off, int depth) {
+        for (int k = -4; k <= 4; k++) {
+            int q = p + k * off;
+            if (k == 0 || color[q] != Rules.EMPTY) continue;
+            color[q] = Rules.BLACK;
+            boolean straightFour = isStraightFour(q, p, off);
+            color[q] = Rules.EMPTY;
+            if (!straightFour) continue;
+            if (depth >= MAX_DEPTH) {
+                return true;
+            }
+            usedRecursion = true;
+            if (compute(q, depth + 1) == Reason.NONE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 经过 q 的连子是否为包含 p 的活四：恰好四连，两端为空，且两端延伸后都恰好成五
+     */
+    private boolean isStraightFour(int q, int p, int off) {
+        int left = count(q, -off);
+        int right = count(q, off);
+        if (left + right + 1 != 4) return false;
+        int start = q - left * off;
+        int end = q + right * off;
+        int k = (p - start) / off;
+        if ((p - start) % off != 0 || k < 0 || k > 3) return false;
+        int before = start - off;
+        int after = end + off;
+        return color[before] == Rules.EMPTY && color[after] == Rules.EMPTY
+                && color[before - off] != Rules.BLACK && color[after + off] != Rules.BLACK;
+    }
+}
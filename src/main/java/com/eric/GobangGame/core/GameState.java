@@ -0,0 +1,289 @@
+package com.eric.GobangGame.core;
+
+import java.util.Arrays;
+
+/**
+ * 纯粹的对局状态：棋盘、回合、落子记录、是否结束
+ * 不依赖 Swing，可被界面、网络、竞技场、服务器共同使用
+ *
+ * 可变状态只由持有者线程（界面中为 EDT）修改；其他线程通过 getSnapshot() 读取不可变快照
+ */
+public class GameState {
+
+    /**
+     * 一次落子的结果
+     */
+    public enum MoveResult { CONTINUE, WIN, DRAW }
+
+    private final int rows;
+    private final int cols;
+    private final int[][] board;
+    private final RunTracker tracker;
+    // 复盘等后台订阅者也会读取规则
+    private volatile RuleSet ruleSet = RuleSet.FREESTYLE;
+    private final ForbiddenDetector forbidden;
+    private boolean blackTurn = true;
+    private boolean gameOver = false;
+    private int winner = Rules.EMPTY;
+    private final MoveLog moveLog;
+    private long version = 0;
+    private volatile BoardSnapshot snapshot;
+
+    public GameState(int rows, int cols) {
+        this(rows, cols, RuleSet.FREESTYLE);
+    }
+
+    public GameState(int rows, int cols, RuleSet ruleSet) {
+        this.rows = rows;
+        this.cols = cols;
+        this.ruleSet = ruleSet;
+        this.board = new int[rows][cols];
+        this.tracker = new RunTracker(rows, cols);
+        this.forbidden = new ForbiddenDetector(rows, cols);
+        this.moveLog = new MoveLog(rows, cols);
+        this.snapshot = new BoardSnapshot(0, rows, cols, new byte[rows * cols], true, false, Rules.EMPTY, 0, (short) -1);
+    }
+
+    /**
+     * 重置为空棋盘，黑方先行
+     */
+    public void reset() {
+        for (int[] row : board) {
+            Arrays.fill(row, Rules.EMPTY);
+        }
+        tracker.clear();
+        forbidden.clear();
+        moveLog.clear();
+        blackTurn = true;
+        gameOver = false;
+        winner = Rules.EMPTY;
+        publishAll();
+    }
+
+    /**
+     * 当前一方能否在 (row, col) 落子（连珠规则下黑棋不能下禁手）
+     */
+    public boolean isLegal(int row, int col) {
+        return !gameOver && row >= 0 && row < rows && col >= 0 && col < cols && board[row][col] == Rules.EMPTY
+                && !(blackTurn && isForbidden(row, col));
+    }
+
+    /**
+     * 连珠规则下黑棋在空点 (row, col) 落子是否为禁手；自由规则下总是 false
+     */
+    public boolean isForbidden(int row, int col) {
+        return ruleSet == RuleSet.RENJU && forbidden.isForbidden(row, col);
+    }
+
+    /**
+     * 黑棋在 (row, col) 落子的禁手类型（自由规则下为 NONE）
+     */
+    public ForbiddenDetector.Reason getForbiddenReason(int row, int col) {
+        return ruleSet == RuleSet.RENJU ? forbidden.check(row, col) : ForbiddenDetector.Reason.NONE;
+    }
+
+    /**
+     * 落子并判定胜负；未结束时切换回合。胜负与平局由 RunTracker 常数时间判定
+     * 在悔棋后的位置落子时，原后续若不同则保存为变化
+     */
+    public MoveResult place(int row, int col, int player) {
+        moveLog.append(MoveLog.encode(row, col, player, cols));
+        MoveResult result = apply(row, col, player);
+        publishCell(row, col, player);
+        return result;
+    }
+
+    private MoveResult apply(int row, int col, int player) {
+        board[row][col] = player;
+        int run = tracker.place(row, col, player);
+        forbidden.place(row, col, player);
+        moveLog.recordSnapshot(board);
+
+        // 连珠规则下黑棋须恰好五连，白棋五连及以上
+        boolean won = ruleSet == RuleSet.RENJU && player == Rules.BLACK ? tracker.lastMoveMadeFive() : run >= 5;
+        if (won) {
+            gameOver = true;
+            winner = player;
+            return MoveResult.WIN;
+        }
+        if (tracker.isFull()) {
+            gameOver = true;
+            return MoveResult.DRAW;
+        }
+        blackTurn = player != Rules.BLACK;
+        return MoveResult.CONTINUE;
+    }
+
+    /**
+     * 撤销最后一步，返回被撤销的落子（MoveLog 编码）；没有落子时返回 -1
+     */
+    public short undo() {
+        short move = undoStep();
+        if (move >= 0) {
+            publishCell(moveLog.row(move), moveLog.col(move), Rules.EMPTY);
+        }
+        return move;
+    }
+
+    private short undoStep() {
+        short move = moveLog.undo();
+        if (move < 0) {
+            return -1;
+        }
+        board[moveLog.row(move)][moveLog.col(move)] = Rules.EMPTY;
+        // 从快照定位之后跟踪器的撤销栈不再是落子顺序，一律按位置移走
+        tracker.remove(moveLog.row(move), moveLog.col(move));
+        forbidden.remove(moveLog.row(move), moveLog.col(move));
+        blackTurn = MoveLog.player(move) == Rules.BLACK;
+        gameOver = false;
+        winner = Rules.EMPTY;
+        return move;
+    }
+
+    /**
+     * 重做一步，返回其结果；没有可重做的落子时返回 null
+     */
+    public MoveResult redo() {
+        short move = moveLog.redo();
+        if (move < 0) {
+            return null;
+        }
+        MoveResult result = apply(moveLog.row(move), moveLog.col(move), MoveLog.player(move));
+        publishCell(moveLog.row(move), moveLog.col(move), MoveLog.player(move));
+        return result;
+    }
+
+    /**
+     * 定位到第 ply 步（0 为空棋盘），只在当前主线上移动
+     * 距离不超过 MoveLog.SNAPSHOT_INTERVAL 时逐步悔棋或重做；更远时从最近的棋盘快照恢复（MoveLog.boardAt，
+     * 最多重放 SNAPSHOT_INTERVAL-1 步），再原地重建 RunTracker 与 ForbiddenDetector，
+     * 耗时只与棋盘大小有关、与步数和距离无关，且不分配内存
+     */
+    public void seek(int ply) {
+        if (ply < 0 || ply > moveLog.getSize()) {
+            throw new IndexOutOfBoundsException("ply " + ply + " / " + moveLog.getSize());
+        }
+        if (Math.abs(ply - moveLog.getCursor()) > MoveLog.SNAPSHOT_INTERVAL) {
+            jumpTo(ply);
+            publishAll();
+            return;
+        }
+        while (moveLog.getCursor() > ply) {
+            undoStep();
+        }
+        while (moveLog.getCursor() < ply) {
+            short move = moveLog.redo();
+            apply(moveLog.row(move), moveLog.col(move), MoveLog.player(move));
+        }
+        publishAll();
+    }
+
+    /**
+     * 从快照恢复第 ply 步的局面；回合、胜负按第 ply 步重新判定（与 apply 相同的规则）
+     */
+    private void jumpTo(int ply) {
+        moveLog.boardAt(ply, board);
+        moveLog.setCursor(ply);
+        tracker.load(board);
+        forbidden.load(board);
+        gameOver = false;
+        winner = Rules.EMPTY;
+        if (ply == 0) {
+            blackTurn = true;
+            return;
+        }
+        short last = moveLog.get(ply - 1);
+        int player = MoveLog.player(last);
+        if (Rules.isWin(board, moveLog.row(last), moveLog.col(last), ruleSet)) {
+            gameOver = true;
+            winner = player;
+        } else if (tracker.isFull()) {
+            gameOver = true;
+        }
+        // 与 apply 一致：结束时不切换回合
+        blackTurn = gameOver ? player == Rules.BLACK : player != Rules.BLACK;
+    }
+
+    /**
+     * 切换到第 index 个变化：先回到其起点再交换后续，停在起点
+     */
+    public void switchVariation(int index) {
+        seek(moveLog.getVariations().get(index).getPly());
+        moveLog.switchVariation(index);
+        publishAll();
+    }
+
+    /**
+     * 从存档恢复状态：按记录顺序重放，保证之后的悔棋与跟踪器的撤销栈一致
+     */
+    public void restore(short[] moves, boolean blackTurn, boolean gameOver) {
+        reset();
+        MoveResult result = MoveResult.CONTINUE;
+        for (short move : moves) {
+            moveLog.append(move);
+            result = apply(moveLog.row(move), moveLog.col(move), MoveLog.player(move));
+        }
+        this.blackTurn = blackTurn;
+        this.gameOver = gameOver;
+        if (result != MoveResult.WIN) {
+            this.winner = Rules.EMPTY;
+        }
+        publishAll();
+    }
+
+    // --- 快照发布 ---
+
+    private void publishCell(int row, int col, int value) {
+        snapshot = snapshot.withCell(++version, row, col, value, blackTurn, gameOver, winner,
+                moveLog.getCursor(), lastMove());
+    }
+
+    private void publishAll() {
+        snapshot = new BoardSnapshot(++version, rows, cols, BoardSnapshot.pack(board, rows, cols),
+                blackTurn, gameOver, winner, moveLog.getCursor(), lastMove());
+    }
+
+    private short lastMove() {
+        int cursor = moveLog.getCursor();
+        return cursor > 0 ? moveLog.get(cursor - 1) : -1;
+    }
+
+    /**
+     * 当前局面的不可变快照，可在任意线程调用
+     */
+    public BoardSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 棋盘是否已满（常数时间）
+     */
+    public boolean isFull() {
+        return tracker.isFull();
+    }
+
+    public int getStoneCount() {
+        return tracker.getStoneCount();
+    }
+
+    public int currentPlayer() {
+        return blackTurn ? Rules.BLACK : Rules.WHITE;
+    }
+
+    // --- Getters and Setters ---
+
+    public RuleSet getRuleSet() { return ruleSet; }
+    /** 切换规则并开始新的一局 */
+    public void setRuleSet(RuleSet ruleSet) { this.ruleSet = ruleSet; reset(); }
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    /** 可变棋盘，只能在持有者线程上使用；跨线程请用 getSnapshot() */
+    public int[][] getBoard() { return board; }
+    public boolean isBlackTurn() { return blackTurn; }
+    public void setBlackTurn(boolean blackTurn) { this.blackTurn = blackTurn; publishAll(); }
+    public boolean isGameOver() { return gameOver; }
+    public void setGameOver(boolean gameOver) { this.gameOver = gameOver; publishAll(); }
+    public int getWinner() { return winner; }
+    public MoveLog getMoveLog() { return moveLog; }
+    public int getMoveCount() { return moveLog.getCursor(); }
+}
@@ -0,0 +1,272 @@
+package com.eric.GobangGame.core;
+
+import java.util.Arrays;
+
+/**
+ * 分析用的变化树：节点以下标表示，全部字段存放在并列的基本类型数组中，不为每个节点创建对象
+ *
+ * 节点 0 为根（空棋盘）。每个节点记录父节点、第一个子节点、下一个兄弟节点与落子（MoveLog 编码），
+ * 相同前缀的变化共用节点；第一个子节点即主线，提升变化就是把它移到兄弟链表的最前面。
+ * 每个节点另有引擎注释：评分（站在该节点之后轮到落子的一方）、推荐着法、搜索深度，未分析时深度为 0。
+ * 每个节点约 21 字节，数十万节点只占几 MB；数组按倍数扩容。只在单一线程（界面中为 EDT）上修改。
+ */
+public class GameTree {
+
+    public static final int ROOT = 0;
+    public static final int NONE = -1;
+
+    private final int rows;
+    private final int cols;
+    private int size;
+    private int[] parent;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private short[] move;
+    // 引擎注释
+    private int[] eval;
+    private short[] bestMove;
+    private byte[] evalDepth;
+
+    public GameTree(int rows, int cols) {
+        this(rows, cols, 64);
+    }
+
+    public GameTree(int rows, int cols, int capacity) {
+        this.rows = rows;
+        this.cols = cols;
+        int initial = Math.max(1, capacity);
+        parent = new int[initial];
+        firstChild = new int[initial];
+        nextSibling = new int[initial];
+        move = new short[initial];
+        eval = new int[initial];
+        bestMove = new short[initial];
+        evalDepth = new byte[initial];
+        clear();
+    }
+
+    /**
+     * 只保留根节点
+     */
+    public void clear() {
+        size = 0;
+        newNode(NONE, (short) -1);
+    }
+
+    /**
+     * 在 node 下加入一步；已有相同落子的子节点时直接返回它，否则追加为最后一个子节点
+     */
+    public int addChild(int node, short childMove) {
+        int existing = child(node, childMove);
+        if (existing != NONE) {
+            return existing;
+        }
+        int created = newNode(node, childMove);
+        int last = firstChild[node];
+        if (last == NONE) {
+            firstChild[node] = created;
+        } else {
+            while (nextSibling[last] != NONE) {
+                last = nextSibling[last];
+            }
+            nextSibling[last] = created;
+        }
+        return created;
+    }
+
+    /**
+     * 从根开始加入一整条变化（共用已有前缀），返回最后一步的节点
+     */
+    public int addLine(short[] moves) {
+        int node = ROOT;
+        for (short m : moves) {
+            node = addChild(node, m);
+        }
+        return node;
+    }
+
+    /**
+     * 从落子记录建树：主线（含可重做的部分）为主线，保存的变化按起点挂到对应节点下
+     * 返回 cursor 所在的节点
+     */
+    public int addMoveLog(MoveLog log) {
+        int[] mainNodes = new int[log.getSize() + 1];
+        mainNodes[0] = ROOT;
+        for (int i = 0; i < log.getSize(); i++) {
+            mainNodes[i + 1] = addChild(mainNodes[i], log.get(i));
+        }
+        for (MoveLog.Variation variation : log.getVariations()) {
+            addVariation(mainNodes, variation);
+        }
+        return mainNodes[log.getCursor()];
+    }
+
+    /**
+     * lineNodes[k] 为该变化所在的线路上第 k 步之后的节点
+     */
+    private void addVariation(int[] lineNodes, MoveLog.Variation variation) {
+        int[] nodes = Arrays.copyOf(lineNodes, variation.getPly() + variation.length() + 1);
+        for (int i = 0; i < variation.length(); i++) {
+            nodes[variation.getPly() + i + 1] = addChild(nodes[variation.getPly() + i], variation.get(i));
+        }
+        for (MoveLog.Variation nested : variation.getNested()) {
+            addVariation(nodes, nested);
+        }
+    }
+
+    /**
+     * node 下落子为 childMove 的子节点，没有时返回 NONE
+     */
+    public int child(int node, short childMove) {
+        for (int c = firstChild[node]; c != NONE; c = nextSibling[c]) {
+            if (move[c] == childMove) {
+                return c;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * 把 node 移到兄弟中的第一位，使其成为父节点下的主线
+     */
+    public void promote(int node) {
+        int p = parent[node];
+        if (p == NONE || firstChild[p] == node) {
+            return;
+        }
+        int prev = firstChild[p];
+        while (nextSibling[prev] != node) {
+            prev = nextSibling[prev];
+        }
+        nextSibling[prev] = nextSibling[node];
+        nextSibling[node] = firstChild[p];
+        firstChild[p] = node;
+    }
+
+    /**
+     * 逐级提升，使从根到 node 的路径成为整棵树的主线
+     */
+    public void promoteToMainLine(int node) {
+        for (int n = node; n != ROOT && n != NONE; n = parent[n]) {
+            promote(n);
+        }
+    }
+
+    /**
+     * 从根到 node 的落子序列
+     */
+    public short[] pathTo(int node) {
+        short[] path = new short[depth(node)];
+        for (int n = node, i = path.length - 1; n != ROOT; n = parent[n], i--) {
+            path[i] = move[n];
+        }
+        return path;
+    }
+
+    /**
+     * 把到 node 为止的局面写入 board（先清空）
+     */
+    public void boardAt(int node, int[][] board) {
+        for (int[] row : board) {
+            Arrays.fill(row, Rules.EMPTY);
+        }
+        for (int n = node; n != ROOT; n = parent[n]) {
+            int index = MoveLog.index(move[n]);
+            board[index / cols][index % cols] = MoveLog.player(move[n]);
+        }
+    }
+
+    /**
+     * 节点的步数（根为 0）
+     */
+    public int depth(int node) {
+        int depth = 0;
+        for (int n = node; n != ROOT; n = parent[n]) {
+            depth++;
+        }
+        return depth;
+    }
+
+    public int childCount(int node) {
+        int count = 0;
+        for (int c = firstChild[node]; c != NONE; c = nextSibling[c]) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * node 的第 index 个子节点（0 为主线）
+     */
+    public int childAt(int node, int index) {
+        int c = firstChild[node];
+        for (int i = 0; i < index && c != NONE; i++) {
+            c = nextSibling[c];
+        }
+        return c;
+    }
+
+    /**
+     * node 在兄弟中的位置（0 为主线）
+     */
+    public int indexInParent(int node) {
+        int p = parent[node];
+        if (p == NONE) {
+            return 0;
+        }
+        int index = 0;
+        for (int c = firstChild[p]; c != node; c = nextSibling[c]) {
+            index++;
+        }
+        return index;
+    }
+
+    // --- 引擎注释 ---
+
+    /**
+     * 记录引擎对 node 局面的分析；depth 为 0 表示清除
+     */
+    public void annotate(int node, int score, int bestRow, int bestCol, int depth) {
+        eval[node] = score;
+        bestMove[node] = bestRow >= 0 ? (short) (bestRow * cols + bestCol) : -1;
+        evalDepth[node] = (byte) Math.min(depth, Byte.MAX_VALUE);
+    }
+
+    public boolean isEvaluated(int node) { return evalDepth[node] > 0; }
+    public int getEval(int node) { return eval[node]; }
+    public int getEvalDepth(int node) { return evalDepth[node]; }
+    /** 推荐着法的格子编号（row * cols + col），没有时为 -1 */
+    public int getBestMove(int node) { return bestMove[node]; }
+
+    // --- 结构访问 ---
+
+    public int getParent(int node) { return parent[node]; }
+    public int getFirstChild(int node) { return firstChild[node]; }
+    public int getNextSibling(int node) { return nextSibling[node]; }
+    public short getMove(int node) { return move[node]; }
+    public int size() { return size; }
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+
+    private int newNode(int parentNode, short nodeMove) {
+        if (size == parent.length) {
+            int capacity = size * 2;
+            parent = Arrays.copyOf(parent, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            move = Arrays.copyOf(move, capacity);
+            eval = Arrays.copyOf(eval, capacity);
+            bestMove = Arrays.copyOf(bestMove, capacity);
+            evalDepth = Arrays.copyOf(evalDepth, capacity);
+        }
+        int node = size++;
+        parent[node] = parentNode;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        move[node] = nodeMove;
+        eval[node] = 0;
+        bestMove[node] = -1;
+        evalDepth[node] = 0;
+        return node;
+    }
+}
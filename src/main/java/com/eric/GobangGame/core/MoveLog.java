@@ -0,0 +1,219 @@
+package com.eric.GobangGame.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 紧凑的落子记录：每步一个 short（低14位为格子编号 row * cols + col，第15位表示白棋）
+ *
+ * cursor 之前为已落子，cursor 到 size 之间为可重做的部分；
+ * 在 cursor 处下出不同的棋时，原后续作为变化保存。
+ * 每 SNAPSHOT_INTERVAL 步保存一次棋盘快照，boardAt 任意步数最多重放 SNAPSHOT_INTERVAL-1 步。
+ * 悔棋、重做、定位均不分配内存。
+ */
+public class MoveLog {
+
+    public static final int SNAPSHOT_INTERVAL = 16;
+    private static final int WHITE_BIT = 0x4000;
+    private static final int INDEX_MASK = 0x3FFF;
+
+    /**
+     * 一条被替换下来的后续变化：从第 ply 步开始的落子，以及挂在这段后续上的更深的变化
+     */
+    public static class Variation {
+        private final int ply;
+        private final short[] moves;
+        private final List<Variation> nested;
+
+        Variation(int ply, short[] moves, List<Variation> nested) {
+            this.ply = ply;
+            this.moves = moves;
+            this.nested = nested;
+        }
+
+        public int getPly() { return ply; }
+        public int length() { return moves.length; }
+        public short get(int i) { return moves[i]; }
+        public List<Variation> getNested() { return Collections.unmodifiableList(nested); }
+    }
+
+    private final int rows;
+    private final int cols;
+    private short[] moves = new short[64];
+    private int size = 0;
+    private int cursor = 0;
+    // snapshots[k] = 第 k * SNAPSHOT_INTERVAL 步之后的棋盘，前 validSnapshots 个有效
+    private byte[][] snapshots = new byte[4][];
+    private int validSnapshots = 1;
+    private final List<Variation> variations = new ArrayList<>();
+
+    public MoveLog(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        snapshots[0] = new byte[rows * cols];
+    }
+
+    // --- 编码 ---
+
+    public static short encode(int row, int col, int player, int cols) {
+        return (short) ((row * cols + col) | (player == Rules.WHITE ? WHITE_BIT : 0));
+    }
+
+    public static int index(short move) { return move & INDEX_MASK; }
+    public int row(short move) { return (move & INDEX_MASK) / cols; }
+    public int col(short move) { return (move & INDEX_MASK) % cols; }
+    public static int player(short move) { return (move & WHITE_BIT) != 0 ? Rules.WHITE : Rules.BLACK; }
+
+    // --- 记录与导航 ---
+
+    public void clear() {
+        size = 0;
+        cursor = 0;
+        validSnapshots = 1;
+        variations.clear();
+    }
+
+    /**
+     * 在 cursor 处记录一步；与原后续不同时把原后续保存为变化
+     */
+    public void append(short move) {
+        if (cursor < size) {
+            if (moves[cursor] == move) {
+                cursor++;
+                return;
+            }
+            variations.add(detachTail());
+        }
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+        cursor = size;
+    }
+
+    /**
+     * 把 cursor 之后的后续连同其上的变化摘下来
+     */
+    private Variation detachTail() {
+        List<Variation> nested = new ArrayList<>();
+        variations.removeIf(v -> v.ply > cursor && nested.add(v));
+        Variation tail = new Variation(cursor, Arrays.copyOfRange(moves, cursor, size), nested);
+        truncate();
+        return tail;
+    }
+
+    private void truncate() {
+        size = cursor;
+        validSnapshots = Math.min(validSnapshots, cursor / SNAPSHOT_INTERVAL + 1);
+    }
+
+    /**
+     * 后退一步，返回被撤销的落子；已在开头时返回 -1
+     */
+    public short undo() {
+        return cursor > 0 ? moves[--cursor] : -1;
+    }
+
+    /**
+     * 前进一步，返回重做的落子；没有后续时返回 -1
+     */
+    public short redo() {
+        return cursor < size ? moves[cursor++] : -1;
+    }
+
+    /**
+     * 把 cursor 直接移到第 ply 步（只在当前主线上，0 到 size 之间）
+     */
+    public void setCursor(int ply) {
+        if (ply < 0 || ply > size) {
+            throw new IndexOutOfBoundsException("ply " + ply + " / " + size);
+        }
+        cursor = ply;
+    }
+
+    public boolean canUndo() { return cursor > 0; }
+    public boolean canRedo() { return cursor < size; }
+    public boolean isEmpty() { return cursor == 0; }
+    public int getCursor() { return cursor; }
+    public int getSize() { return size; }
+    public short get(int ply) { return moves[ply]; }
+
+    /**
+     * 已落子部分的副本（用于存档）
+     */
+    public short[] toArray() {
+        return Arrays.copyOf(moves, cursor);
+    }
+
+    // --- 变化 ---
+
+    public List<Variation> getVariations() {
+        return Collections.unmodifiableList(variations);
+    }
+
+    /**
+     * 切换到第 index 个变化：要求 cursor 位于该变化的起点，当前后续与之互换
+     */
+    public void switchVariation(int index) {
+        Variation variation = variations.get(index);
+        if (variation.ply != cursor) {
+            throw new IllegalStateException("cursor 不在变化起点");
+        }
+        variations.remove(index);
+        Variation tail = detachTail();
+        variations.add(Math.min(index, variations.size()), tail);
+        variations.addAll(variation.nested);
+        for (short move : variation.moves) {
+            if (size == moves.length) {
+                moves = Arrays.copyOf(moves, size * 2);
+            }
+            moves[size++] = move;
+        }
+    }
+
+    // --- 快照 ---
+
+    /**
+     * 由 GameState 在 cursor 落在快照点时调用，保存当前棋盘
+     */
+    public void recordSnapshot(int[][] board) {
+        if (cursor % SNAPSHOT_INTERVAL != 0) return;
+        int k = cursor / SNAPSHOT_INTERVAL;
+        if (k != validSnapshots) return; // 已有有效快照，或前面还有缺口
+        if (k == snapshots.length) {
+            snapshots = Arrays.copyOf(snapshots, k * 2);
+        }
+        if (snapshots[k] == null) {
+            snapshots[k] = new byte[rows * cols];
+        }
+        byte[] snapshot = snapshots[k];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                snapshot[r * cols + c] = (byte) board[r][c];
+            }
+        }
+        validSnapshots++;
+    }
+
+    /**
+     * 把第 ply 步之后的棋盘写入 out（不改变记录状态）
+     */
+    public void boardAt(int ply, int[][] out) {
+        if (ply < 0 || ply > size) {
+            throw new IndexOutOfBoundsException("ply " + ply + " / " + size);
+        }
+        int k = Math.min(ply / SNAPSHOT_INTERVAL, validSnapshots - 1);
+        byte[] snapshot = snapshots[k];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                out[r][c] = snapshot[r * cols + c];
+            }
+        }
+        for (int i = k * SNAPSHOT_INTERVAL; i < ply; i++) {
+            short move = moves[i];
+            out[row(move)][col(move)] = player(move);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.eric.GobangGame.core;
+
+/**
+ * 规则变体
+ * FREESTYLE：五连及以上获胜，双方无禁手
+ * RENJU：连珠规则，黑棋恰好五连获胜，长连、四四、三三为禁手；白棋五连及以上获胜
+ */
+public enum RuleSet {
+    FREESTYLE,
+    RENJU;
+
+    /**
+     * 解析规则名称（不区分大小写），无法识别时抛出 IllegalArgumentException
+     */
+    public static RuleSet parse(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,123 @@
+package com.eric.GobangGame.core;
+
+/**
+ * 五子棋规则（自由规则：五连及以上获胜），只依赖棋盘数组，不依赖任何界面
+ */
+public final class Rules {
+
+    // 标准棋盘大小 15×15；支持 MIN_SIZE 到 MAX_SIZE（MoveLog 每步 14 位格子编号）
+    public static final int DEFAULT_SIZE = 15;
+    public static final int MIN_SIZE = 5;
+    public static final int MAX_SIZE = 127;
+
+    public static final int EMPTY = 0;
+    public static final int BLACK = 1;
+    public static final int WHITE = 2;
+
+    // 四个方向：横、竖、主对角线、副对角线
+    public static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private Rules() {
+    }
+
+    /**
+     * 检查棋盘边长是否受支持，不支持时抛出 IllegalArgumentException
+     */
+    public static int checkSize(int size) {
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new IllegalArgumentException("棋盘大小必须在 " + MIN_SIZE + " 到 " + MAX_SIZE + " 之间: " + size);
+        }
+        return size;
+    }
+
+    public static int opponent(int player) {
+        return player == BLACK ? WHITE : BLACK;
+    }
+
+    /**
+     * 检查是否获胜：判断 (row, col) 上的棋子是否形成五子连线
+     */
+    public static boolean isWin(int[][] board, int row, int col) {
+        int type = board[row][col];
+        if (type == EMPTY) {
+            return false;
+        }
+        for (int[] dir : DIRECTIONS) {
+            if (countLine(board, row, col, dir[0], dir[1], type) >= 5) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按 rules 检查 (row, col) 上的棋子是否获胜：连珠规则下黑棋须在某个方向恰好五连，其余情况同 isWin
+     */
+    public static boolean isWin(int[][] board, int row, int col, RuleSet rules) {
+        int type = board[row][col];
+        if (rules != RuleSet.RENJU || type != BLACK) {
+            return isWin(board, row, col);
+        }
+        for (int[] dir : DIRECTIONS) {
+            // countLine 每侧最多数 4 子，长连的端点也会数成 5，这里要数完整的长度
+            int count = 1;
+            for (int sign = -1; sign <= 1; sign += 2) {
+                int r = row + sign * dir[0];
+                int c = col + sign * dir[1];
+                while (r >= 0 && r < board.length && c >= 0 && c < board[0].length && board[r][c] == type) {
+                    count++;
+                    r += sign * dir[0];
+                    c += sign * dir[1];
+                }
+            }
+            if (count == 5) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 统计经过 (row, col) 的某方向上 player 的连续棋子数（含自身）
+     */
+    public static int countLine(int[][] board, int row, int col, int dx, int dy, int player) {
+        int rows = board.length;
+        int cols = board[0].length;
+        int count = 1;
+        // 向一个方向遍历
+        for (int i = 1; i < 5; i++) {
+            int r = row + i * dx;
+            int c = col + i * dy;
+            if (r >= 0 && r < rows && c >= 0 && c < cols && board[r][c] == player) {
+                count++;
+            } else {
+                break;
+            }
+        }
+        // 向反方向遍历
+        for (int i = 1; i < 5; i++) {
+            int r = row - i * dx;
+            int c = col - i * dy;
+            if (r >= 0 && r < rows && c >= 0 && c < cols && board[r][c] == player) {
+                count++;
+            } else {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 检查棋盘是否已满
+     */
+    public static boolean isFull(int[][] board) {
+        for (int[] row : board) {
+            for (int cell : row) {
+                if (cell == EMPTY) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
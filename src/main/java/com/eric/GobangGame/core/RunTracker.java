@@ -0,0 +1,266 @@
+package com.eric.GobangGame.core;
+
+import java.util.Arrays;
+
+/**
+ * 增量维护四个方向的连子长度与棋子计数，使胜负与平局判定为常数时间
+ *
+ * 每条同色连线只在两个端点记录长度：落子时与相邻连线合并，只需改写新端点；
+ * 撤销时按记录的左右长度还原两侧端点。棋盘四周加一圈哨兵，避免越界判断。
+ * 撤销必须按落子的逆序进行（AI 搜索满足）；不按顺序时用 remove，它沿四条线重新数出两侧的长度，不依赖撤销栈。
+ * load 按整个棋盘原地重建（GameState 从快照定位时使用），之后只能用 remove 撤销。
+ */
+public class RunTracker {
+
+    private static final int BORDER = 3;
+
+    private final int rows;
+    private final int cols;
+    private final int width;
+    private final int[] offsets;
+    private final int[] color;  // 填充后的棋盘
+    private final int[] run;    // 每个方向一段：run[dir * size + index]，仅端点有效
+    private final int size;
+
+    // 撤销栈：落子位置 + 每个方向合并前的左右长度
+    private int[] undoCell;
+    private int[] undoLens;
+    private int stones = 0;
+    private int lastRun = 0;
+    private boolean lastFive = false;
+
+    public RunTracker(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.width = cols + 2;
+        this.size = (rows + 2) * width;
+        this.offsets = new int[]{1, width, width + 1, width - 1}; // 对应 Rules.DIRECTIONS
+        this.color = new int[size];
+        this.run = new int[4 * size];
+        this.undoCell = new int[rows * cols];
+        this.undoLens = new int[rows * cols * 8];
+        clear();
+    }
+
+    /**
+     * 根据现有棋盘建立跟踪器；落子顺序不影响端点数据
+     */
+    public static RunTracker of(int[][] board) {
+        RunTracker tracker = new RunTracker(board.length, board[0].length);
+        for (int r = 0; r < board.length; r++) {
+            for (int c = 0; c < board[r].length; c++) {
+                if (board[r][c] != Rules.EMPTY) {
+                    tracker.place(r, c, board[r][c]);
+                }
+            }
+        }
+        return tracker;
+    }
+
+    public void clear() {
+        Arrays.fill(color, BORDER);
+        for (int r = 0; r < rows; r++) {
+            Arrays.fill(color, index(r, 0), index(r, 0) + cols, Rules.EMPTY);
+        }
+        Arrays.fill(run, 0);
+        stones = 0;
+        lastRun = 0;
+        lastFive = false;
+    }
+
+    private int index(int row, int col) {
+        return (row + 1) * width + col + 1;
+    }
+
+    /**
+     * 落子并返回经过该点的最长连子数
+     */
+    public int place(int row, int col, int player) {
+        int p = index(row, col);
+        color[p] = player;
+        undoCell[stones] = p;
+        int longest = 1;
+        boolean five = false;
+        for (int d = 0; d < 4; d++) {
+            int off = offsets[d];
+            int base = d * size;
+            int left = color[p - off] == player ? run[base + p - off] : 0;
+            int right = color[p + off] == player ? run[base + p + off] : 0;
+            undoLens[stones * 8 + d * 2] = left;
+            undoLens[stones * 8 + d * 2 + 1] = right;
+            int length = left + right + 1;
+            // 新连线的两个端点（以及落子点本身，便于单子时读取）
+            run[base + p] = length;
+            run[base + p - left * off] = length;
+            run[base + p + right * off] = length;
+            if (length > longest) longest = length;
+            if (length == 5) five = true;
+        }
+        stones++;
+        lastRun = longest;
+        lastFive = five;
+        return longest;
+    }
+
+    /**
+     * 撤销最后一步落子
+     */
+    public void undo() {
+        stones--;
+        int p = undoCell[stones];
+        for (int d = 0; d < 4; d++) {
+            int off = offsets[d];
+            int base = d * size;
+            int left = undoLens[stones * 8 + d * 2];
+            int right = undoLens[stones * 8 + d * 2 + 1];
+            if (left > 0) {
+                run[base + p - off] = left;
+                run[base + p - left * off] = left;
+            }
+            if (right > 0) {
+                run[base + p + off] = right;
+                run[base + p + right * off] = right;
+            }
+            run[base + p] = 0;
+        }
+        color[p] = Rules.EMPTY;
+        lastRun = 0;
+        lastFive = false;
+    }
+
+    /**
+     * 移走 (row, col) 上的棋子，不要求是最后一步：沿四个方向重新数出两侧剩下的连线长度并写回端点
+     * 每个方向最多扫描一条线，与落子的顺序和撤销栈无关
+     */
+    public void remove(int row, int col) {
+        int p = index(row, col);
+        int player = color[p];
+        color[p] = Rules.EMPTY;
+        for (int d = 0; d < 4; d++) {
+            int off = offsets[d];
+            int base = d * size;
+            run[base + p] = 0;
+            int left = 0;
+            while (color[p - (left + 1) * off] == player) {
+                left++;
+            }
+            if (left > 0) {
+                run[base + p - off] = left;
+                run[base + p - left * off] = left;
+            }
+            int right = 0;
+            while (color[p + (right + 1) * off] == player) {
+                right++;
+            }
+            if (right > 0) {
+                run[base + p + off] = right;
+                run[base + p + right * off] = right;
+            }
+        }
+        stones--;
+        lastRun = 0;
+        lastFive = false;
+    }
+
+    /**
+     * 按 board 原地重建（不分配内存）：每条连线从起点数到终点，写入两个端点
+     * 重建后撤销栈无效，只能用 remove 移走棋子
+     */
+    public void load(int[][] board) {
+        clear();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (board[r][c] != Rules.EMPTY) {
+                    color[index(r, c)] = board[r][c];
+                    stones++;
+                }
+            }
+        }
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int p = index(r, c);
+                int player = color[p];
+                if (player == Rules.EMPTY) {
+                    continue;
+                }
+                for (int d = 0; d < 4; d++) {
+                    int off = offsets[d];
+                    if (color[p - off] == player) {
+                        continue; // 不是连线的起点
+                    }
+                    int length = 1;
+                    while (color[p + length * off] == player) {
+                        length++;
+                    }
+                    run[d * size + p] = length;
+                    run[d * size + p + (length - 1) * off] = length;
+                }
+            }
+        }
+    }
+
+    /**
+     * 在空点 (row, col) 落子后 player 是否成五，不修改状态
+     */
+    public boolean wouldWin(int row, int col, int player) {
+        int p = index(row, col);
+        for (int d = 0; d < 4; d++) {
+            int off = offsets[d];
+            int base = d * size;
+            int left = color[p - off] == player ? run[base + p - off] : 0;
+            int right = color[p + off] == player ? run[base + p + off] : 0;
+            if (left + right + 1 >= 5) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 在空点 (row, col) 落子后 player 是否在某个方向恰好五连（连珠规则下黑棋的胜利条件），不修改状态
+     */
+    public boolean wouldMakeExactFive(int row, int col, int player) {
+        int p = index(row, col);
+        for (int d = 0; d < 4; d++) {
+            int off = offsets[d];
+            int base = d * size;
+            int left = color[p - off] == player ? run[base + p - off] : 0;
+            int right = color[p + off] == player ? run[base + p + off] : 0;
+            if (left + right + 1 == 5) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 在 rules 规则下，player 在空点 (row, col) 落子能否获胜
+     */
+    public boolean wouldWin(int row, int col, int player, RuleSet rules) {
+        return rules == RuleSet.RENJU && player == Rules.BLACK
+                ? wouldMakeExactFive(row, col, player)
+                : wouldWin(row, col, player);
+    }
+
+    /**
+     * 最后一步是否在某个方向恰好五连
+     */
+    public boolean lastMoveMadeFive() {
+        return lastFive;
+    }
+
+    /**
+     * 最后一步是否成五
+     */
+    public boolean lastMoveWon() {
+        return lastRun >= 5;
+    }
+
+    public int getStoneCount() {
+        return stones;
+    }
+
+    public boolean isFull() {
+        return stones == rows * cols;
+    }
+}
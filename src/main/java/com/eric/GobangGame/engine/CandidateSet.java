@@ -0,0 +1,128 @@
+package com.eric.GobangGame.engine;
+
+import java.util.Arrays;
+
+/**
+ * 候选点集合：与已有棋子切比雪夫距离不超过 RADIUS 的空点
+ *
+ * 每格记录周围棋子数，落子/撤销时只更新 (2*RADIUS+1)^2 个格子；
+ * 候选点保存在紧凑数组中，遍历代价只与候选点数量有关，与棋盘面积无关。
+ * 撤销必须按落子的相反顺序进行（与 RunTracker 相同）。
+ */
+class CandidateSet {
+
+    static final int RADIUS = 2;
+
+    private final int rows;
+    private final int cols;
+    private final int[] near;      // 每格周围的棋子数
+    private final boolean[] occupied;
+    private final int[] members;   // 候选点（格子编号 row * cols + col）
+    private final int[] position;  // 格子在 members 中的下标，-1 表示不在集合中
+    private int size = 0;
+    private final int[] stones;    // 落子顺序，供撤销与遍历棋子
+    private int stoneCount = 0;
+
+    CandidateSet(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        int area = rows * cols;
+        this.near = new int[area];
+        this.occupied = new boolean[area];
+        this.members = new int[area];
+        this.position = new int[area];
+        this.stones = new int[area];
+        Arrays.fill(position, -1);
+    }
+
+    static CandidateSet of(int[][] board) {
+        CandidateSet set = new CandidateSet(board.length, board[0].length);
+        for (int r = 0; r < board.length; r++) {
+            for (int c = 0; c < board[r].length; c++) {
+                if (board[r][c] != 0) {
+                    set.place(r, c);
+                }
+            }
+        }
+        return set;
+    }
+
+    void place(int row, int col) {
+        int cell = row * cols + col;
+        occupied[cell] = true;
+        remove(cell);
+        stones[stoneCount++] = cell;
+        int r0 = Math.max(0, row - RADIUS), r1 = Math.min(rows - 1, row + RADIUS);
+        int c0 = Math.max(0, col - RADIUS), c1 = Math.min(cols - 1, col + RADIUS);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int n = r * cols + c;
+                if (near[n]++ == 0 && !occupied[n]) {
+                    add(n);
+                }
+            }
+        }
+    }
+
+    void undo() {
+        int cell = stones[--stoneCount];
+        int row = cell / cols, col = cell % cols;
+        int r0 = Math.max(0, row - RADIUS), r1 = Math.min(rows - 1, row + RADIUS);
+        int c0 = Math.max(0, col - RADIUS), c1 = Math.min(cols - 1, col + RADIUS);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int n = r * cols + c;
+                if (--near[n] == 0) {
+                    remove(n);
+                }
+            }
+        }
+        occupied[cell] = false;
+        if (near[cell] > 0) {
+            add(cell);
+        }
+    }
+
+    private void add(int cell) {
+        position[cell] = size;
+        members[size++] = cell;
+    }
+
+    private void remove(int cell) {
+        int i = position[cell];
+        if (i < 0) return;
+        int last = members[--size];
+        members[i] = last;
+        position[last] = i;
+        position[cell] = -1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int i) {
+        return members[i];
+    }
+
+    /**
+     * 按格子编号升序（即逐行扫描顺序）返回候选点副本，保证着法顺序确定
+     */
+    int[] sorted() {
+        int[] copy = Arrays.copyOf(members, size);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    int stoneCount() {
+        return stoneCount;
+    }
+
+    int stone(int i) {
+        return stones[i];
+    }
+
+    int cols() {
+        return cols;
+    }
+}
@@ -0,0 +1,120 @@
+package com.eric.GobangGame.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * AI评估权重：棋型得分、进攻系数、中心加分
+ * 默认值即原先写死在 GobangGameAi 中的数值；可由 tune 命令生成权重文件覆盖
+ *
+ * 启动时按以下顺序查找权重文件：系统属性 gobang.weights 指定的路径，
+ * 当前目录下的 gobang-weights.properties；都不存在则使用默认值。
+ */
+public class EvalWeights {
+
+    public static final String FILE_PROPERTY = "gobang.weights";
+    public static final String DEFAULT_FILE = "gobang-weights.properties";
+
+    private static EvalWeights startup;
+
+    private final int[] pattern; // 下标为连子数 1-5
+    private final int overline;
+    private final int attackPercent; // AI自身棋型的得分倍率（百分比），原先为 2 倍
+    private final int centerBonus;
+
+    public EvalWeights(int[] pattern, int overline, int attackPercent, int centerBonus) {
+        if (pattern.length != 6) {
+            throw new IllegalArgumentException("pattern 需要 6 个元素（下标 0 不使用）");
+        }
+        this.pattern = pattern.clone();
+        this.overline = overline;
+        this.attackPercent = attackPercent;
+        this.centerBonus = centerBonus;
+    }
+
+    public static EvalWeights defaults() {
+        return new EvalWeights(new int[]{0, 10, 100, 1000, 10000, 100000}, 1000000, 200, 5);
+    }
+
+    /**
+     * 启动时加载的权重，只读取一次
+     */
+    public static synchronized EvalWeights getStartup() {
+        if (startup == null) {
+            startup = defaults();
+            String configured = System.getProperty(FILE_PROPERTY);
+            Path file = Path.of(configured != null ? configured : DEFAULT_FILE);
+            if (Files.isReadable(file)) {
+                try {
+                    startup = load(file);
+                    System.err.println("已加载AI权重: " + file.toAbsolutePath());
+                } catch (IOException | IllegalArgumentException e) {
+                    System.err.println("Error loading weights from " + file + ", using defaults: " + e.getMessage());
+                }
+            }
+        }
+        return startup;
+    }
+
+    public static EvalWeights load(Path file) throws IOException {
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            props.load(in);
+        }
+        EvalWeights d = defaults();
+        int[] pattern = new int[6];
+        for (int i = 1; i <= 5; i++) {
+            pattern[i] = intProperty(props, "pattern." + i, d.pattern[i]);
+        }
+        return new EvalWeights(pattern,
+                intProperty(props, "pattern.overline", d.overline),
+                intProperty(props, "attack.percent", d.attackPercent),
+                intProperty(props, "center.bonus", d.centerBonus));
+    }
+
+    private static int intProperty(Properties props, String key, int fallback) {
+        String value = props.getProperty(key);
+        if (value == null) return fallback;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的权重 " + key + "=" + value, e);
+        }
+    }
+
+    public void save(Path file, String comment) throws IOException {
+        Properties props = new Properties();
+        for (int i = 1; i <= 5; i++) {
+            props.setProperty("pattern." + i, String.valueOf(pattern[i]));
+        }
+        props.setProperty("pattern.overline", String.valueOf(overline));
+        props.setProperty("attack.percent", String.valueOf(attackPercent));
+        props.setProperty("center.bonus", String.valueOf(centerBonus));
+        try (OutputStream out = Files.newOutputStream(file)) {
+            props.store(out, comment);
+        }
+    }
+
+    /**
+     * 根据连子数返回棋型得分
+     */
+    public int patternScore(int patternLength) {
+        if (patternLength > 5) return overline;
+        return patternLength >= 1 ? pattern[patternLength] : 0;
+    }
+
+    public int getPattern(int length) { return pattern[length]; }
+    public int getOverline() { return overline; }
+    public int getAttackPercent() { return attackPercent; }
+    public int getCenterBonus() { return centerBonus; }
+
+    @Override
+    public String toString() {
+        return String.format("pattern=[%d, %d, %d, %d, %d] attack=%d%% center=%d",
+                pattern[1], pattern[2], pattern[3], pattern[4], pattern[5], attackPercent, centerBonus);
+    }
+}
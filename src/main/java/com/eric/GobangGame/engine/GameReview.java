@@ -0,0 +1,91 @@
+package com.eric.GobangGame.engine;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一局棋的复盘结果：逐步的评分与标注，评分均以该步落子方的视角给出
+ */
+public class GameReview {
+
+    /**
+     * 单步标注
+     * BLUNDER：落子后评分大幅下降，或走进了对手的必胜
+     * MISSED_WIN：落子前已有必胜，落子后不再必胜
+     */
+    public enum Mark { NONE, BLUNDER, MISSED_WIN }
+
+    /**
+     * 一步棋的分析
+     */
+    public static class Ply {
+        private final int index;
+        private final int player;
+        private final int row;
+        private final int col;
+        private final int bestRow;
+        private final int bestCol;
+        private final int scoreBefore;
+        private final int scoreAfter;
+        private final Mark mark;
+
+        public Ply(int index, int player, int row, int col, int bestRow, int bestCol,
+                   int scoreBefore, int scoreAfter, Mark mark) {
+            this.index = index;
+            this.player = player;
+            this.row = row;
+            this.col = col;
+            this.bestRow = bestRow;
+            this.bestCol = bestCol;
+            this.scoreBefore = scoreBefore;
+            this.scoreAfter = scoreAfter;
+            this.mark = mark;
+        }
+
+        public int getIndex() { return index; }
+        public int getPlayer() { return player; }
+        public int getRow() { return row; }
+        public int getCol() { return col; }
+        public int getBestRow() { return bestRow; }
+        public int getBestCol() { return bestCol; }
+        /** 落子前局面对落子方的最佳评分 */
+        public int getScoreBefore() { return scoreBefore; }
+        /** 实际落子后局面对落子方的评分 */
+        public int getScoreAfter() { return scoreAfter; }
+        /** 评分损失（最佳减实际，不小于 0） */
+        public int getLoss() { return Math.max(0, scoreBefore - scoreAfter); }
+        public Mark getMark() { return mark; }
+        public boolean isBestMove() { return row == bestRow && col == bestCol; }
+    }
+
+    private final int rows;
+    private final int cols;
+    private final short[] moves;
+    private final List<Ply> plies;
+    private final long elapsedNanos;
+
+    public GameReview(int rows, int cols, short[] moves, List<Ply> plies, long elapsedNanos) {
+        this.rows = rows;
+        this.cols = cols;
+        this.moves = moves;
+        this.plies = Collections.unmodifiableList(plies);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * 统计某一方（1=黑，2=白）某种标注的步数
+     */
+    public int count(int player, Mark mark) {
+        int count = 0;
+        for (Ply ply : plies) {
+            if (ply.player == player && ply.mark == mark) count++;
+        }
+        return count;
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public short[] getMoves() { return moves.clone(); }
+    public List<Ply> getPlies() { return plies; }
+    public long getElapsedNanos() { return elapsedNanos; }
+}
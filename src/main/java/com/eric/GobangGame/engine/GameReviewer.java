@@ -0,0 +1,225 @@
+package com.eric.GobangGame.engine;
+
+import com.eric.GobangGame.core.GameState;
+import com.eric.GobangGame.core.MoveLog;
+import com.eric.GobangGame.core.RuleSet;
+import com.eric.GobangGame.core.Rules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 赛后复盘：把整局的每个局面交给困难难度AI并行搜索，比较每步的最佳评分与实际落子后的评分
+ *
+ * 每个局面只搜索一次：第 i 步落子后的评分取第 i+1 个局面（对手视角）评分的相反数，
+ * 因此 n 步棋只需 n 或 n+1 次互不依赖的搜索，可以按局面并行。
+ * 用时受预算控制：每个局面的限时 = 预算 × 线程数 / 局面数（有上下限），
+ * 工作线程为低优先级守护线程，默认比处理器数少一个，给界面留出余量。
+ *
+ * 启发式评分在叶子处看到冲四就记为胜负，并不可靠，因此截断到 ±HEURISTIC_CAP；
+ * 只有 VcfSolver 证明的必胜才记为 ±WIN_SCORE。错失必胜与走进必败都以 VCF 为准。
+ */
+public class GameReviewer {
+
+    public static final int WIN_SCORE = 1000000;
+    public static final int HEURISTIC_CAP = 100000;
+    // 评分下降超过约两个冲四的分值记为失误
+    static final int BLUNDER_SWING = 20000;
+    private static final int VCF_DEPTH = 10;
+    private static final long MIN_POSITION_MILLIS = 30;
+    private static final long MAX_POSITION_MILLIS = 500;
+
+    private final int threads;
+    private final long budgetMillis;
+    private final ExecutorService pool;
+    // 每个工作线程复用一个AI实例（GobangGameAi 非线程安全）
+    private final ThreadLocal<GobangGameAi> ais = ThreadLocal.withInitial(() -> new GobangGameAi(2));
+    private final ThreadLocal<VcfSolver> solvers = ThreadLocal.withInitial(() -> new VcfSolver(VCF_DEPTH));
+
+    public GameReviewer(int threads, long budgetMillis) {
+        this.threads = Math.max(1, threads);
+        this.budgetMillis = budgetMillis;
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(this.threads, r -> {
+            Thread thread = new Thread(r, "gobang-review-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * 默认线程数：处理器数减一，至少为 1
+     */
+    public static int defaultThreads() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /**
+     * 分析一局棋（阻塞直到完成）；调用线程被中断时取消未完成的搜索并抛出 InterruptedException
+     * @param moves MoveLog 编码的落子记录
+     */
+    public GameReview review(short[] moves, int rows, int cols, RuleSet ruleSet) throws InterruptedException {
+        long start = System.nanoTime();
+        int n = moves.length;
+
+        // 重放得到每一步之前的局面
+        GameState state = new GameState(rows, cols, ruleSet);
+        int[][][] positions = new int[n + 1][][];
+        int[] toMove = new int[n + 1];
+        GameState.MoveResult result = GameState.MoveResult.CONTINUE;
+        MoveLog log = state.getMoveLog();
+        for (int i = 0; i < n; i++) {
+            positions[i] = copy(state.getBoard());
+            toMove[i] = MoveLog.player(moves[i]);
+            result = state.place(log.row(moves[i]), log.col(moves[i]), toMove[i]);
+        }
+        // 对局未结束（例如中途复盘）时终局也要搜索
+        boolean finished = result != GameState.MoveResult.CONTINUE;
+        int searched = finished ? n : n + 1;
+        if (!finished) {
+            positions[n] = copy(state.getBoard());
+            toMove[n] = n > 0 && toMove[n - 1] == 1 ? 2 : 1;
+        }
+
+        long limit = Math.max(MIN_POSITION_MILLIS,
+                Math.min(MAX_POSITION_MILLIS, budgetMillis * threads / Math.max(1, searched)));
+        List<Callable<int[]>> tasks = new ArrayList<>(searched);
+        for (int i = 0; i < searched; i++) {
+            int[][] board = positions[i];
+            int player = toMove[i];
+            short played = i < n ? moves[i] : -1;
+            tasks.add(() -> analyze(board, player, played, cols, ruleSet, limit));
+        }
+
+        int[][] scores = new int[searched][];
+        List<Future<int[]>> futures = pool.invokeAll(tasks);
+        try {
+            for (int i = 0; i < searched; i++) {
+                scores[i] = futures.get(i).get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("复盘搜索失败", e.getCause());
+        }
+
+        List<GameReview.Ply> plies = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int[] here = scores[i];
+            int[] next = i + 1 < searched ? scores[i + 1] : null;
+            int before = here[S_VCF] != 0 ? WIN_SCORE : here[S_SCORE];
+            int after;
+            GameReview.Mark mark = GameReview.Mark.NONE;
+            boolean bestMove = here[S_PLAYED_IS_BEST] != 0;
+            if (next == null) {
+                after = result == GameState.MoveResult.WIN ? WIN_SCORE : 0;
+            } else if (here[S_VCF] != 0 && here[S_KEEPS_WIN] != 0) {
+                after = WIN_SCORE;
+            } else if (next[S_VCF] != 0) {
+                after = -WIN_SCORE;
+            } else {
+                after = -next[S_SCORE];
+            }
+            if (here[S_VCF] != 0) {
+                // 有必胜却没有走在取胜序列上
+                if (after < WIN_SCORE) mark = GameReview.Mark.MISSED_WIN;
+            } else if (next != null && next[S_VCF] != 0) {
+                // 落子后对手有必胜，而存在可以化解的着法（此时推荐的就是该着法）
+                if (here[S_DEFENSE] != 0) mark = GameReview.Mark.BLUNDER;
+            } else if (!bestMove && before - after >= BLUNDER_SWING
+                    && Math.abs(before) < HEURISTIC_CAP && Math.abs(after) < HEURISTIC_CAP) {
+                // 只在双方都没有被截断的评分（局面平稳）时才按启发式落差标注
+                mark = GameReview.Mark.BLUNDER;
+            }
+            plies.add(new GameReview.Ply(i, toMove[i], log.row(moves[i]), log.col(moves[i]),
+                    here[S_BEST_ROW], here[S_BEST_COL], before, after, mark));
+        }
+        return new GameReview(rows, cols, moves.clone(), plies, System.nanoTime() - start);
+    }
+
+    // analyze 返回数组的下标
+    private static final int S_SCORE = 0;
+    private static final int S_BEST_ROW = 1;
+    private static final int S_BEST_COL = 2;
+    private static final int S_VCF = 3;            // 落子方在此局面有 VCF
+    private static final int S_KEEPS_WIN = 4;      // 实际落子延续了 VCF
+    private static final int S_DEFENSE = 5;        // 对手有 VCF 威胁且找到了化解的着法
+    private static final int S_PLAYED_IS_BEST = 6;
+
+    /**
+     * 在工作线程上分析一个局面：限时搜索 + VCF 证明
+     * 落子方没有 VCF 而对手有 VCF 威胁时，依次试下引擎推荐点与对手取胜序列上的各点，
+     * 找到能化解威胁的着法就把它作为推荐（己方落子不会帮助对手，因此化解点只需在这些点里找）
+     */
+    private int[] analyze(int[][] board, int player, short played, int cols, RuleSet ruleSet, long limit) {
+        GobangGameAi ai = ais.get();
+        ai.setRuleSet(ruleSet);
+        ai.setTimeLimit(limit);
+        int[] best = ai.calculateMove(board, player);
+        int[] out = new int[7];
+        out[S_SCORE] = Math.max(-HEURISTIC_CAP, Math.min(HEURISTIC_CAP, ai.getLastScore()));
+        out[S_BEST_ROW] = best[0];
+        out[S_BEST_COL] = best[1];
+
+        VcfSolver solver = solvers.get();
+        solver.setRuleSet(ruleSet);
+        int[] win = solver.solve(board, player);
+        if (win != null) {
+            // 有必胜时推荐取胜序列的第一步
+            out[S_VCF] = 1;
+            out[S_BEST_ROW] = win[0];
+            out[S_BEST_COL] = win[1];
+        }
+        if (played < 0) {
+            return out;
+        }
+        int row = MoveLog.index(played) / cols;
+        int col = MoveLog.index(played) % cols;
+        out[S_PLAYED_IS_BEST] = row == out[S_BEST_ROW] && col == out[S_BEST_COL] ? 1 : 0;
+        if (out[S_VCF] != 0) {
+            out[S_KEEPS_WIN] = solver.winsAfter(board, row, col, player) ? 1 : 0;
+            return out;
+        }
+        int opponent = Rules.opponent(player);
+        if (solver.solve(board, opponent) == null) {
+            return out;
+        }
+        int[] threat = solver.getLastLine();
+        int[] tries = new int[threat.length + 1];
+        tries[0] = best[0] >= 0 ? best[0] * cols + best[1] : threat[0];
+        System.arraycopy(threat, 0, tries, 1, threat.length);
+        for (int cell : tries) {
+            int r = cell / cols;
+            int c = cell % cols;
+            if (board[r][c] != Rules.EMPTY) continue;
+            board[r][c] = player;
+            boolean refuted = solver.solve(board, opponent) == null;
+            board[r][c] = Rules.EMPTY;
+            if (refuted) {
+                out[S_DEFENSE] = 1;
+                out[S_BEST_ROW] = r;
+                out[S_BEST_COL] = c;
+                out[S_PLAYED_IS_BEST] = r == row && c == col ? 1 : 0;
+                break;
+            }
+        }
+        return out;
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private static int[][] copy(int[][] board) {
+        int[][] copy = new int[board.length][];
+        for (int i = 0; i < board.length; i++) {
+            copy[i] = board[i].clone();
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,551 @@
+package com.eric.GobangGame.engine;
+
+import com.eric.GobangGame.core.ForbiddenDetector;
+import com.eric.GobangGame.core.RuleSet;
+import com.eric.GobangGame.core.Rules;
+import com.eric.GobangGame.core.RunTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 五子棋AI对战实现
+ * 支持简单、中等、困难三种难度；棋盘尺寸取自传入的棋盘，搜索只遍历候选点
+ */
+public class GobangGameAi {
+    
+    private static final int DEFAULT_DEPTH = 3;
+    private static final int MAX_DEPTH = 8;
+    private int aiDifficulty; // 0=简单，1=中等，2=困难
+    private Random random;
+    private EvalWeights weights = EvalWeights.getStartup();
+    // 与搜索中的棋盘同步落子/撤销，常数时间判定胜负与满盘
+    private RunTracker tracker;
+    // 与搜索中的棋盘同步维护的候选点，使每个节点的开销与候选点数成正比而非棋盘面积
+    private CandidateSet candidates;
+    // 连珠规则下增量维护的黑棋禁手（自由规则下为 null）
+    private RuleSet ruleSet = RuleSet.FREESTYLE;
+    private ForbiddenDetector forbidden;
+    private int rows = Rules.DEFAULT_SIZE;
+    private int cols = Rules.DEFAULT_SIZE;
+
+    // --- 搜索控制与统计 (供 Arena 等无界面工具读取) ---
+    private long timeLimitMillis = 0; // 0 = 不限时，困难难度固定搜索深度3
+    private long deadline;
+    private boolean aborted;
+    private long nodeCount;
+    private int lastDepth;
+    private int lastScore;
+    private long lastTimeNanos;
+    
+    public GobangGameAi(int difficulty) {
+        this.aiDifficulty = difficulty;
+        this.random = new Random();
+    }
+
+    /**
+     * 使用固定随机种子创建AI，便于自对弈结果复现
+     */
+    public GobangGameAi(int difficulty, long seed) {
+        this.aiDifficulty = difficulty;
+        this.random = new Random(seed);
+    }
+    
+    /**
+     * AI计算最佳落子位置
+     * @param board 当前棋盘状态
+     * @param aiPlayer AI的棋子类型（1=黑，2=白）
+     * @return [row, col] 最佳落子位置
+     */
+    public int[] calculateMove(int[][] board, int aiPlayer) {
+        long start = System.nanoTime();
+        nodeCount = 0;
+        lastDepth = 0;
+        lastScore = 0;
+        rows = board.length;
+        cols = board[0].length;
+        tracker = RunTracker.of(board);
+        candidates = CandidateSet.of(board);
+        forbidden = ruleSet == RuleSet.RENJU ? ForbiddenDetector.of(board) : null;
+        int[] move;
+        switch (aiDifficulty) {
+            case 0: // 简单难度：随机落子
+                move = getRandomMove(board, aiPlayer);
+                break;
+            case 1: // 中等难度：基于简单评估
+                move = getMediumMove(board, aiPlayer);
+                break;
+            case 2: // 困难难度：使用Minimax算法
+                move = getHardMove(board, aiPlayer);
+                break;
+            default:
+                move = getRandomMove(board, aiPlayer);
+                break;
+        }
+        lastTimeNanos = System.nanoTime() - start;
+        return move;
+    }
+    
+    /**
+     * 简单难度：在空白位置随机落子
+     */
+    private int[] getRandomMove(int[][] board, int player) {
+        List<int[]> emptyCells = new ArrayList<>();
+        
+        // 收集所有空位置
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (board[i][j] == 0 && !isForbidden(player, i, j)) {
+                    emptyCells.add(new int[]{i, j});
+                }
+            }
+        }
+        if (emptyCells.isEmpty()) {
+            return new int[]{-1, -1}; // 棋盘已满
+        }
+        
+        // 随机选择一个空位置
+        return emptyCells.get(random.nextInt(emptyCells.size()));
+    }
+    
+    /**
+     * 中等难度：基于棋型评估
+     */
+    private int[] getMediumMove(int[][] board, int aiPlayer) {
+        int humanPlayer = (aiPlayer == 1) ? 2 : 1;
+        
+        // 优先级1：如果有一步取胜的机会，就下在那里
+        int[] winningMove = findWinningMove(board, aiPlayer);
+        if (winningMove[0] != -1) {
+            return winningMove;
+        }
+        
+        // 优先级2：阻止对手立即获胜
+        int[] blockingMove = findWinningMove(board, humanPlayer);
+        if (blockingMove[0] != -1) {
+            return blockingMove;
+        }
+        
+        // 优先级3：评估所有位置，选择最优
+        return evaluateBestMove(board, aiPlayer, humanPlayer);
+    }
+    
+    /**
+     * 困难难度：使用Minimax算法
+     */
+    private int[] getHardMove(int[][] board, int aiPlayer) {
+        aborted = false;
+        if (timeLimitMillis <= 0) {
+            // 使用带Alpha-Beta剪枝的Minimax算法
+            deadline = Long.MAX_VALUE;
+            Object[] result = minimax(board, DEFAULT_DEPTH, true, Integer.MIN_VALUE, Integer.MAX_VALUE, aiPlayer, false);
+            lastDepth = DEFAULT_DEPTH;
+            lastScore = (Integer) result[0];
+            return (int[]) result[1];
+        }
+
+        // 限时模式：迭代加深，超时则采用上一层完整搜索的结果
+        long start = System.nanoTime();
+        deadline = start + timeLimitMillis * 1_000_000L;
+        int[] bestMove = null;
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            Object[] result = minimax(board, depth, true, Integer.MIN_VALUE, Integer.MAX_VALUE, aiPlayer, false);
+            if (aborted) {
+                break;
+            }
+            bestMove = (int[]) result[1];
+            lastDepth = depth;
+            lastScore = (Integer) result[0];
+            // 已找到必胜/必败，或剩余时间不足以完成下一层
+            if (Math.abs(lastScore) >= 1000000 || (System.nanoTime() - start) * 2 > deadline - start) {
+                break;
+            }
+        }
+        if (bestMove == null || bestMove[0] == -1) {
+            // 连一层都没搜完，退回中等难度的评估
+            return getMediumMove(board, aiPlayer);
+        }
+        return bestMove;
+    }
+    
+    /**
+     * 查找立即获胜的位置（成五点必与己方棋子相邻，只需查候选点；按逐行扫描顺序取第一个）
+     */
+    private int[] findWinningMove(int[][] board, int player) {
+        for (int cell : candidates.sorted()) {
+            // 由跟踪器直接判断此处落子能否成五，无需试落
+            if (tracker.wouldWin(cell / cols, cell % cols, player, ruleSet)) {
+                return new int[]{cell / cols, cell % cols};
+            }
+        }
+        return new int[]{-1, -1}; // 没有立即获胜的位置
+    }
+
+    /**
+     * 是否存在立即获胜的位置（评估叶节点用，不分配内存）
+     */
+    private boolean hasWinningMove(int player) {
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            int cell = candidates.get(i);
+            if (tracker.wouldWin(cell / cols, cell % cols, player, ruleSet)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 评估最佳落子位置（中等难度使用）
+     */
+    private int[] evaluateBestMove(int[][] board, int aiPlayer, int humanPlayer) {
+        int bestScore = Integer.MIN_VALUE;
+        int[] bestMove = new int[]{-1, -1};
+
+        // 空棋盘下天元
+        if (candidates.stoneCount() == 0) {
+            return new int[]{rows / 2, cols / 2};
+        }
+        
+        for (int cell : candidates.sorted()) {
+            int i = cell / cols;
+            int j = cell % cols;
+            if (isForbidden(aiPlayer, i, j)) continue;
+            // 评估这个位置对AI的得分
+            int score = evaluatePosition(board, i, j, aiPlayer, humanPlayer);
+            nodeCount++;
+            
+            // 添加一些随机性，避免完全确定性的行为
+            score += random.nextInt(10);
+            
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove[0] = i;
+                bestMove[1] = j;
+            }
+        }
+        
+        // 如果没有找到合适的位置，随机选择一个
+        if (bestMove[0] == -1) {
+            return getRandomMove(board, aiPlayer);
+        }
+        
+        return bestMove;
+    }
+    
+    /**
+     * 评估位置的得分
+     */
+    private int evaluatePosition(int[][] board, int row, int col, int aiPlayer, int humanPlayer) {
+        int score = 0;
+        
+        // 检查四个方向的棋型
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        
+        for (int[] dir : directions) {
+            // 评估AI的棋型
+            int aiPattern = evaluatePattern(board, row, col, dir[0], dir[1], aiPlayer);
+            score += getPatternScore(aiPattern) * weights.getAttackPercent() / 100; // AI的棋型按进攻系数加权
+            
+            // 评估对手的棋型（需要防守）
+            int humanPattern = evaluatePattern(board, row, col, dir[0], dir[1], humanPlayer);
+            score += getPatternScore(humanPattern); // 防守对手的棋型
+        }
+        
+        // 中心位置优先
+        int centerRow = rows / 2;
+        int centerCol = cols / 2;
+        int distanceFromCenter = Math.abs(row - centerRow) + Math.abs(col - centerCol);
+        score += ((rows + cols) / 2 - 1 - distanceFromCenter) * weights.getCenterBonus(); // 越靠近中心得分越高
+        
+        return score;
+    }
+    
+    /**
+     * 评估特定方向的棋型
+     */
+    private int evaluatePattern(int[][] board, int row, int col, int dx, int dy, int player) {
+        int count = 1; // 当前位置
+        
+        // 正向检查
+        for (int i = 1; i < 5; i++) {
+            int r = row + i * dx;
+            int c = col + i * dy;
+            if (r >= 0 && r < rows && c >= 0 && c < cols && board[r][c] == player) {
+                count++;
+            } else if (r >= 0 && r < rows && c >= 0 && c < cols && board[r][c] == 0) {
+                // 空位置，继续
+            } else {
+                break; // 遇到对手棋子或边界
+            }
+        }
+        
+        // 反向检查
+        for (int i = 1; i < 5; i++) {
+            int r = row - i * dx;
+            int c = col - i * dy;
+            if (r >= 0 && r < rows && c >= 0 && c < cols && board[r][c] == player) {
+                count++;
+            } else if (r >= 0 && r < rows && c >= 0 && c < cols && board[r][c] == 0) {
+                // 空位置，继续
+            } else {
+                break; // 遇到对手棋子或边界
+            }
+        }
+        
+        return count;
+    }
+    
+    /**
+     * 根据棋型数量返回得分
+     */
+    private int getPatternScore(int patternLength) {
+        return weights.patternScore(patternLength);
+    }
+    /**
+     * Minimax算法实现（带Alpha-Beta剪枝）
+     * @param terminal 上一步是否已成五或下满棋盘（由 RunTracker 在落子时给出）
+     */
+    private Object[] minimax(int[][] board, int depth, boolean isMaximizing, 
+                          int alpha, int beta, int aiPlayer, boolean terminal) {
+        int humanPlayer = (aiPlayer == 1) ? 2 : 1;
+
+        // 每16个节点检查一次是否超时（单个节点的评估开销远大于读时钟）
+        if ((++nodeCount & 15) == 0 && System.nanoTime() > deadline) {
+            aborted = true;
+        }
+        if (aborted) {
+            return new Object[]{0, null};
+        }
+        
+        // 深度为0或游戏结束，返回评估值
+        if (depth == 0 || terminal) {
+            return new Object[]{evaluateBoard(board, aiPlayer, humanPlayer), null};
+        }
+        
+        int[] bestMove = new int[]{-1, -1};
+        
+        if (isMaximizing) { // AI回合（最大化）
+            int maxEval = Integer.MIN_VALUE;
+            
+            // 获取所有可能的位置
+            for (int cell : getPossibleMoves()) {
+                int i = cell / cols;
+                int j = cell % cols;
+                
+                if (isForbidden(aiPlayer, i, j)) continue;
+                // 模拟落子
+                board[i][j] = aiPlayer;
+                boolean over = place(i, j, aiPlayer);
+                Object[] childResult = minimax(board, depth - 1, false, alpha, beta, aiPlayer, over);
+                int eval = (Integer) childResult[0];
+                undo(i, j);
+                board[i][j] = 0; // 撤销落子
+                if (aborted) {
+                    break;
+                }
+                
+                if (eval > maxEval) {
+                    maxEval = eval;
+                    bestMove = new int[]{i, j};
+                }
+                
+                // Alpha-Beta剪枝
+                alpha = Math.max(alpha, eval);
+                if (beta <= alpha) {
+                    break; // 剪枝
+                }
+            }
+            return new Object[]{maxEval, bestMove};
+        } else { // 对手回合（最小化）
+            int minEval = Integer.MAX_VALUE;
+            
+            for (int cell : getPossibleMoves()) {
+                int i = cell / cols;
+                int j = cell % cols;
+                
+                if (isForbidden(humanPlayer, i, j)) continue;
+                board[i][j] = humanPlayer;
+                boolean over = place(i, j, humanPlayer);
+                Object[] childResult = minimax(board, depth - 1, true, alpha, beta, aiPlayer, over);
+                int eval = (Integer) childResult[0];
+                undo(i, j);
+                board[i][j] = 0;
+                if (aborted) {
+                    break;
+                }
+                
+                if (eval < minEval) {
+                    minEval = eval;
+                    bestMove = new int[]{i, j};
+                }
+                
+                beta = Math.min(beta, eval);
+                if (beta <= alpha) {
+                    break;
+                }
+            }
+            return new Object[]{minEval, bestMove};
+        }
+    }
+    
+    /**
+     * 在搜索用的跟踪结构上落子，返回对局是否因此结束（成五或满盘）
+     */
+    private boolean place(int row, int col, int player) {
+        int run = tracker.place(row, col, player);
+        candidates.place(row, col);
+        if (forbidden != null) {
+            forbidden.place(row, col, player);
+        }
+        boolean won = ruleSet == RuleSet.RENJU && player == Rules.BLACK ? tracker.lastMoveMadeFive() : run >= 5;
+        return won || tracker.isFull();
+    }
+
+    private void undo(int row, int col) {
+        if (forbidden != null) {
+            forbidden.remove(row, col);
+        }
+        candidates.undo();
+        tracker.undo();
+    }
+
+    /**
+     * 连珠规则下 player 为黑棋且 (row, col) 是禁手
+     */
+    private boolean isForbidden(int player, int row, int col) {
+        return forbidden != null && player == Rules.BLACK && forbidden.isForbidden(row, col);
+    }
+
+    /**
+     * 获取所有可能的落子位置：只考虑有棋子的附近位置（见 CandidateSet），按逐行扫描顺序
+     */
+    private int[] getPossibleMoves() {
+        if (candidates.size() == 0) {
+            // 如果还没有落子，选择中心位置
+            return new int[]{(rows / 2) * cols + cols / 2};
+        }
+        return candidates.sorted();
+    }
+    
+    /**
+     * 评估整个棋盘的得分
+     */
+    private int evaluateBoard(int[][] board, int aiPlayer, int humanPlayer) {
+        int score = 0;
+        
+        // 检查AI是否有获胜的可能
+        if (hasWinningMove(aiPlayer)) {
+            return 1000000;
+        }
+        
+        // 检查对手是否有获胜的可能
+        if (hasWinningMove(humanPlayer)) {
+            return -1000000;
+        }
+        
+        // 评估所有棋子的棋型（只遍历已落的棋子）
+        for (int n = 0; n < candidates.stoneCount(); n++) {
+            int cell = candidates.stone(n);
+            int i = cell / cols;
+            int j = cell % cols;
+            if (board[i][j] == aiPlayer) {
+                score += evaluateAllPatterns(board, i, j, aiPlayer);
+            } else {
+                score -= evaluateAllPatterns(board, i, j, humanPlayer);
+            }
+        }
+        
+        return score;
+    }
+    
+    /**
+     * 评估棋子所有方向的棋型
+     */
+    private int evaluateAllPatterns(int[][] board, int row, int col, int player) {
+        int totalScore = 0;
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        
+        for (int[] dir : directions) {
+            int pattern = evaluatePattern(board, row, col, dir[0], dir[1], player);
+            totalScore += getPatternScore(pattern);
+        }
+        
+        return totalScore;
+    }
+    
+    /**
+     * 设置AI难度
+     */
+    public void setDifficulty(int difficulty) {
+        this.aiDifficulty = difficulty;
+    }
+    
+    /**
+     * 获取当前难度
+     */
+    public int getDifficulty() {
+        return aiDifficulty;
+    }
+
+    /**
+     * 设置规则（连珠规则下黑棋不会选择禁手点，黑棋须恰好五连）
+     */
+    public void setRuleSet(RuleSet ruleSet) {
+        this.ruleSet = ruleSet;
+    }
+
+    public RuleSet getRuleSet() {
+        return ruleSet;
+    }
+
+    /**
+     * 设置评估权重（调参工具用于比较不同权重）
+     */
+    public void setWeights(EvalWeights weights) {
+        this.weights = weights;
+    }
+
+    public EvalWeights getWeights() {
+        return weights;
+    }
+
+    /**
+     * 设置每步思考时间（毫秒），0表示不限时
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    public long getTimeLimit() {
+        return timeLimitMillis;
+    }
+
+    /**
+     * 上一次 calculateMove 访问的节点数
+     */
+    public long getLastNodes() {
+        return nodeCount;
+    }
+
+    /**
+     * 上一次 calculateMove 完整搜索的深度（非搜索难度为0）
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /**
+     * 上一次 calculateMove 的局面评分（AI视角）
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * 上一次 calculateMove 的耗时（纳秒）
+     */
+    public long getLastTimeNanos() {
+        return lastTimeNanos;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,243 @@
+package com.eric.GobangGame.engine;
+
+import com.eric.GobangGame.core.ForbiddenDetector;
+import com.eric.GobangGame.core.RuleSet;
+import com.eric.GobangGame.core.Rules;
+import com.eric.GobangGame.core.RunTracker;
+
+import java.util.Arrays;
+
+/**
+ * 连续冲四（VCF）求解：攻方每步都冲四，守方只能挡在唯一的成五点，直到攻方成五、活四或双四
+ *
+ * 只用于证明必胜：找不到 VCF 不代表没有其他取胜手段（例如借助活三的 VCT）。
+ * 连珠规则下黑方不走禁手且须恰好五连；守方黑棋唯一的防守点若是禁手，视为攻方获胜。
+ * 搜索节点数有上限，超出时按"未找到"处理，保证单次调用的耗时可控。非线程安全。
+ */
+public class VcfSolver {
+
+    private static final int DEFAULT_MAX_NODES = 200_000;
+
+    private final int maxDepth; // 攻方最多冲四步数
+    private final int maxNodes;
+    private RuleSet ruleSet = RuleSet.FREESTYLE;
+
+    private int rows;
+    private int cols;
+    private int[][] board;
+    private RunTracker tracker;
+    private ForbiddenDetector forbidden;
+    private int nodes;
+    // 当前搜索路径与最近一次找到的取胜序列（格子编号 row * cols + col，攻守交替）
+    private int[] path;
+    private int pathLength;
+    private int[] lastLine = new int[0];
+
+    public VcfSolver(int maxDepth) {
+        this(maxDepth, DEFAULT_MAX_NODES);
+    }
+
+    public VcfSolver(int maxDepth, int maxNodes) {
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * 查找 attacker 的 VCF，返回第一步 {row, col}；没有（或超出节点上限）时返回 null
+     * 可以立即成五时直接返回成五点。棋盘不会被修改
+     */
+    public int[] solve(int[][] position, int attacker) {
+        load(position);
+        if (!attack(attacker, maxDepth)) {
+            lastLine = new int[0];
+            return null;
+        }
+        return new int[]{lastLine[0] / cols, lastLine[0] % cols};
+    }
+
+    /**
+     * attacker 在 (row, col) 落子后是否仍有 VCF：这步本身成五，或是冲四且之后仍能连续冲四取胜
+     * 用于判断一步棋是否延续了必胜
+     */
+    public boolean winsAfter(int[][] position, int row, int col, int attacker) {
+        load(position);
+        int cell = row * cols + col;
+        if (tracker.wouldWin(row, col, attacker, ruleSet)) {
+            lastLine = new int[]{cell};
+            return true;
+        }
+        if (winningCell(Rules.opponent(attacker)) >= 0 || isForbidden(attacker, cell)) {
+            return false;
+        }
+        if (!afterFour(cell, attacker, maxDepth)) {
+            lastLine = new int[0];
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 最近一次成功求解的取胜序列（格子编号，攻守交替，最后一步为攻方成五）
+     */
+    public int[] getLastLine() {
+        return lastLine.clone();
+    }
+
+    public int getLastNodes() {
+        return nodes;
+    }
+
+    public void setRuleSet(RuleSet ruleSet) {
+        this.ruleSet = ruleSet;
+    }
+
+    private void load(int[][] position) {
+        rows = position.length;
+        cols = position[0].length;
+        board = new int[rows][];
+        for (int i = 0; i < rows; i++) {
+            board[i] = position[i].clone();
+        }
+        tracker = RunTracker.of(board);
+        forbidden = ruleSet == RuleSet.RENJU ? ForbiddenDetector.of(board) : null;
+        nodes = 0;
+        path = new int[2 * maxDepth + 2];
+        pathLength = 0;
+    }
+
+    /**
+     * 轮到攻方：能成五则胜；守方有成五点时攻方必须去挡，VCF 不成立；否则逐个尝试冲四
+     */
+    private boolean attack(int attacker, int depth) {
+        if (++nodes > maxNodes) {
+            return false;
+        }
+        int win = winningCell(attacker);
+        if (win >= 0) {
+            path[pathLength] = win;
+            lastLine = Arrays.copyOf(path, pathLength + 1);
+            return true;
+        }
+        if (depth == 0 || winningCell(Rules.opponent(attacker)) >= 0) {
+            return false;
+        }
+        for (int cell = 0; cell < rows * cols; cell++) {
+            if (board[cell / cols][cell % cols] != Rules.EMPTY || !mayMakeFour(cell, attacker)
+                    || isForbidden(attacker, cell)) {
+                continue;
+            }
+            if (afterFour(cell, attacker, depth)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 攻方在 cell 落子（调用方已确认守方没有成五点）：不是冲四则失败；
+     * 有两个及以上成五点则守方挡不住；只有一个时守方必须挡在那里，再轮到攻方
+     */
+    private boolean afterFour(int cell, int attacker, int depth) {
+        int defender = Rules.opponent(attacker);
+        place(cell, attacker);
+        int block = -1;
+        boolean open = false;
+        int row = cell / cols;
+        int col = cell % cols;
+        for (int[] dir : Rules.DIRECTIONS) {
+            for (int k = -4; k <= 4 && !open; k++) {
+                int r = row + k * dir[0];
+                int c = col + k * dir[1];
+                if (k == 0 || r < 0 || r >= rows || c < 0 || c >= cols || board[r][c] != Rules.EMPTY) {
+                    continue;
+                }
+                if (tracker.wouldWin(r, c, attacker, ruleSet)) {
+                    int target = r * cols + c;
+                    if (block >= 0 && block != target) {
+                        open = true;
+                    }
+                    block = target;
+                }
+            }
+        }
+
+        boolean won;
+        if (open) {
+            path[pathLength] = block;
+            lastLine = Arrays.copyOf(path, pathLength + 1);
+            won = true;
+        } else if (block < 0) {
+            won = false;
+        } else if (isForbidden(defender, block)) {
+            // 守方黑棋不能在禁手点防守
+            path[pathLength] = block;
+            lastLine = Arrays.copyOf(path, pathLength + 1);
+            won = true;
+        } else {
+            place(block, defender);
+            won = attack(attacker, depth - 1);
+            undo(block);
+        }
+        undo(cell);
+        return won;
+    }
+
+    /**
+     * 粗筛：某个方向 9 格窗口内已有至少 3 颗攻方棋子，落子后才可能冲四
+     */
+    private boolean mayMakeFour(int cell, int player) {
+        int row = cell / cols;
+        int col = cell % cols;
+        for (int[] dir : Rules.DIRECTIONS) {
+            int count = 0;
+            for (int k = -4; k <= 4; k++) {
+                int r = row + k * dir[0];
+                int c = col + k * dir[1];
+                if (k != 0 && r >= 0 && r < rows && c >= 0 && c < cols && board[r][c] == player) {
+                    count++;
+                }
+            }
+            if (count >= 3) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int winningCell(int player) {
+        for (int cell = 0; cell < rows * cols; cell++) {
+            int r = cell / cols;
+            int c = cell % cols;
+            if (board[r][c] == Rules.EMPTY && tracker.wouldWin(r, c, player, ruleSet)) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isForbidden(int player, int cell) {
+        return forbidden != null && player == Rules.BLACK && forbidden.isForbidden(cell / cols, cell % cols);
+    }
+
+    private void place(int cell, int player) {
+        int r = cell / cols;
+        int c = cell % cols;
+        board[r][c] = player;
+        tracker.place(r, c, player);
+        if (forbidden != null) {
+            forbidden.place(r, c, player);
+        }
+        path[pathLength++] = cell;
+    }
+
+    private void undo(int cell) {
+        int r = cell / cols;
+        int c = cell % cols;
+        if (forbidden != null) {
+            forbidden.remove(r, c);
+        }
+        tracker.undo();
+        board[r][c] = Rules.EMPTY;
+        pathLength--;
+    }
+}
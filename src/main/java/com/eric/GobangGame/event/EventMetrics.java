@@ -0,0 +1,53 @@
+package com.eric.GobangGame.event;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 事件统计订阅者：各类事件数量，以及从发布到本订阅者收到的延迟
+ */
+public class EventMetrics implements GameEventListener<GameEvent> {
+
+    private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder totalLagNanos = new LongAdder();
+    private volatile long maxLagNanos = 0;
+
+    public GameEventBus.Subscription<GameEvent> attach(GameEventBus bus, Executor executor) {
+        return bus.subscribe(GameEvent.class, executor, this);
+    }
+
+    @Override
+    public void onEvent(GameEvent event) {
+        long lag = System.nanoTime() - event.getPublishedNanos();
+        counts.computeIfAbsent(event.getClass().getSimpleName(), k -> new LongAdder()).increment();
+        delivered.increment();
+        totalLagNanos.add(lag);
+        if (lag > maxLagNanos) {
+            maxLagNanos = lag; // 只有本订阅者的线程写入
+        }
+    }
+
+    public long getCount(Class<? extends GameEvent> type) {
+        LongAdder count = counts.get(type.getSimpleName());
+        return count == null ? 0 : count.sum();
+    }
+
+    public double getAverageLagMillis() {
+        long n = delivered.sum();
+        return n == 0 ? 0 : totalLagNanos.sum() / 1e6 / n;
+    }
+
+    public double getMaxLagMillis() {
+        return maxLagNanos / 1e6;
+    }
+
+    public String summary() {
+        Map<String, Long> sorted = new TreeMap<>();
+        counts.forEach((name, count) -> sorted.put(name, count.sum()));
+        return String.format("events %s, lag avg %.3f ms, max %.3f ms", sorted, getAverageLagMillis(), getMaxLagMillis());
+    }
+}
@@ -0,0 +1,19 @@
+package com.eric.GobangGame.event;
+
+import com.eric.GobangGame.core.BoardSnapshot;
+
+/**
+ * 对局事件的基类：携带事件发生时的不可变局面快照与发布时间
+ */
+public abstract class GameEvent {
+
+    private final BoardSnapshot snapshot;
+    private final long publishedNanos = System.nanoTime();
+
+    protected GameEvent(BoardSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public BoardSnapshot getSnapshot() { return snapshot; }
+    public long getPublishedNanos() { return publishedNanos; }
+}
@@ -0,0 +1,110 @@
+package com.eric.GobangGame.event;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 对局事件总线
+ *
+ * publish 只把事件放进各订阅者的队列，不等待任何订阅者；
+ * 每个订阅者在自己的 Executor 上按发布顺序依次收到事件，慢的订阅者（自动存档、网络）不影响落子路径和其他订阅者。
+ */
+public class GameEventBus {
+
+    private final CopyOnWriteArrayList<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * 订阅 type 及其子类事件，回调在 executor 上执行
+     */
+    public <E extends GameEvent> Subscription<E> subscribe(Class<E> type, Executor executor,
+                                                          GameEventListener<? super E> listener) {
+        Subscription<E> subscription = new Subscription<>(this, type, executor, listener);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * 发布事件（可在任意线程调用，不阻塞）
+     */
+    public void publish(GameEvent event) {
+        for (Subscription<?> subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * 一个订阅：自带无锁队列，同一时间最多有一个排空任务在 executor 上运行
+     */
+    public static final class Subscription<E extends GameEvent> implements Runnable {
+
+        private final GameEventBus bus;
+        private final Class<E> type;
+        private final Executor executor;
+        private final GameEventListener<? super E> listener;
+        private final Queue<E> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private volatile boolean cancelled = false;
+
+        private Subscription(GameEventBus bus, Class<E> type, Executor executor, GameEventListener<? super E> listener) {
+            this.bus = bus;
+            this.type = type;
+            this.executor = executor;
+            this.listener = listener;
+        }
+
+        private void offer(GameEvent event) {
+            if (cancelled || !type.isInstance(event)) return;
+            queue.add(type.cast(event));
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // 订阅者的线程已关闭
+                    cancel();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            E event;
+            while (!cancelled && (event = queue.poll()) != null) {
+                try {
+                    listener.onEvent(event);
+                } catch (RuntimeException e) {
+                    System.err.println("事件处理失败: " + e);
+                    e.printStackTrace();
+                }
+            }
+            scheduled.set(false);
+            // 排空与重置标志之间可能有新事件进入
+            if (!cancelled && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        /**
+         * 取消订阅，尚未处理的事件被丢弃
+         */
+        public void cancel() {
+            cancelled = true;
+            queue.clear();
+            bus.subscriptions.remove(this);
+        }
+
+        /**
+         * 尚未处理的事件数（用于观察慢订阅者）
+         */
+        public int getPending() {
+            return queue.size();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.eric.GobangGame.event;
+
+/**
+ * 事件订阅者
+ */
+@FunctionalInterface
+public interface GameEventListener<E extends GameEvent> {
+    void onEvent(E event);
+}
@@ -0,0 +1,23 @@
+package com.eric.GobangGame.event;
+
+import com.eric.GobangGame.core.BoardSnapshot;
+import com.eric.GobangGame.core.Rules;
+
+/**
+ * 对局结束；winner 为 Rules.EMPTY 时表示平局，附带整局落子（MoveLog 编码）供复盘等订阅者使用
+ */
+public class GameOver extends GameEvent {
+
+    private final int winner;
+    private final short[] moves;
+
+    public GameOver(BoardSnapshot snapshot, int winner, short[] moves) {
+        super(snapshot);
+        this.winner = winner;
+        this.moves = moves;
+    }
+
+    public int getWinner() { return winner; }
+    public short[] getMoves() { return moves.clone(); }
+    public boolean isDraw() { return winner == Rules.EMPTY; }
+}
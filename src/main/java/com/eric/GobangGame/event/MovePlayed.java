@@ -0,0 +1,24 @@
+package com.eric.GobangGame.event;
+
+import com.eric.GobangGame.core.BoardSnapshot;
+
+/**
+ * 一步棋已落下
+ */
+public class MovePlayed extends GameEvent {
+
+    private final int row;
+    private final int col;
+    private final int player;
+
+    public MovePlayed(BoardSnapshot snapshot, int row, int col, int player) {
+        super(snapshot);
+        this.row = row;
+        this.col = col;
+        this.player = player;
+    }
+
+    public int getRow() { return row; }
+    public int getCol() { return col; }
+    public int getPlayer() { return player; }
+}
@@ -0,0 +1,18 @@
+package com.eric.GobangGame.event;
+
+import com.eric.GobangGame.core.BoardSnapshot;
+
+/**
+ * 局面被整体替换（新游戏、读档、悔棋、重做），附带当前主线的全部落子（MoveLog 编码）
+ */
+public class PositionReset extends GameEvent {
+
+    private final short[] moves;
+
+    public PositionReset(BoardSnapshot snapshot, short[] moves) {
+        super(snapshot);
+        this.moves = moves;
+    }
+
+    public short[] getMoves() { return moves.clone(); }
+}
@@ -0,0 +1,18 @@
+package com.eric.GobangGame.event;
+
+import com.eric.GobangGame.core.BoardSnapshot;
+
+/**
+ * 对局未结束，轮到 player 落子
+ */
+public class TurnChanged extends GameEvent {
+
+    private final int player;
+
+    public TurnChanged(BoardSnapshot snapshot, int player) {
+        super(snapshot);
+        this.player = player;
+    }
+
+    public int getPlayer() { return player; }
+}
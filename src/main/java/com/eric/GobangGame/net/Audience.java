@@ -0,0 +1,206 @@
+package com.eric.GobangGame.net;
+
+import com.eric.GobangGame.core.MoveLog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * 一个房间的观众：记录对局着法，并把棋手的落子转发给所有观众
+ *
+ * 全部状态只在该房间分到的广播线程上访问（见 Lobby），不加锁，也不占用棋手连接的 I/O 线程，
+ * 观众再多，棋手之间的转发也不受影响。每条消息只编码一次，所有观众共用同一个字节数组。
+ * 每位观众的发送队列有上限：积压超过 QUEUE_LIMIT 时不再给他发消息（丢弃），
+ * 积压降到一半以下后（下一条消息到来时，或每隔 RESYNC_CHECK_MILLIS 检查一次）改发一次当前局面（快照 + 之后的落子）重新同步。
+ * 迟到的观众同样收到快照 + 之后的落子：快照每 SNAPSHOT_INTERVAL 步才重建一次，期间所有人共用。
+ * 服务器重启后重建的房间没有此前的着法，观众只能看到续局之后的落子（直到棋手之间发送整局快照）。
+ */
+final class Audience {
+
+    // 每位观众允许积压的字节数
+    static final int QUEUE_LIMIT = 32 * 1024;
+    static final int SNAPSHOT_INTERVAL = MoveLog.SNAPSHOT_INTERVAL;
+    static final long RESYNC_CHECK_MILLIS = 200;
+
+    private final Lobby lobby;
+    private final Executor executor;
+    private final int cols;
+    private boolean resyncScheduled = false;
+    private final List<Session> observers = new ArrayList<>();
+    private final Set<Session> behind = new HashSet<>();
+    // 全部着法（MoveLog 编码）
+    private short[] moves = new short[64];
+    private int moveCount = 0;
+    private boolean gameOver = false;
+    // 结束时补发给迟到观众的消息（服务器判定的官方结果）
+    private Message result = Message.gameOver();
+    // 两位棋手已记录的最大序号（补发的消息可能重复经过服务器）
+    private final int[] lastSeq = new int[3];
+    // 前 snapshotCount 步的快照（按需重建）与之后的落子消息
+    private Message snapshot;
+    private int snapshotCount = 0;
+    private final List<Message> tail = new ArrayList<>();
+
+    Audience(Lobby lobby, String roomName) {
+        this.lobby = lobby;
+        this.executor = lobby.broadcaster(roomName);
+        this.cols = lobby.getBoardSize();
+    }
+
+    void add(Session observer) {
+        executor.execute(() -> {
+            observers.add(observer);
+            sendState(observer);
+        });
+    }
+
+    void remove(Session observer) {
+        executor.execute(() -> {
+            observers.remove(observer);
+            behind.remove(observer);
+        });
+    }
+
+    /**
+     * 棋手发出的消息（color 为发送方的颜色）：记录局面变化并转发给观众
+     */
+    void publish(Message message, int color) {
+        executor.execute(() -> {
+            int seq = message.getSeq();
+            if (seq != 0) {
+                if (seq <= lastSeq[color]) {
+                    return;
+                }
+                lastSeq[color] = seq;
+            }
+            switch (message.getType()) {
+                case Message.MOVE:
+                    if (moveCount >= cols * cols) {
+                        // 棋盘已满，不可能再有合法的落子
+                        break;
+                    }
+                    if (moveCount == moves.length) {
+                        moves = Arrays.copyOf(moves, moveCount * 2);
+                    }
+                    moves[moveCount++] = MoveLog.encode(message.getRow(), message.getCol(), color, cols);
+                    tail.add(message);
+                    if (tail.size() >= SNAPSHOT_INTERVAL) {
+                        snapshot = null;
+                        snapshotCount = moveCount;
+                        tail.clear();
+                    }
+                    deliver(message);
+                    break;
+                case Message.GAME_OVER:
+                    gameOver = true;
+                    if (message.getValue() != 0) {
+                        result = message;
+                    }
+                    if (tail.isEmpty()) {
+                        snapshot = null;
+                    }
+                    deliver(message);
+                    break;
+                case Message.RESTART:
+                    if (message.getValue() == Message.RESTART_ACCEPT) {
+                        restore(new short[0], false);
+                    }
+                    break;
+                case Message.SNAPSHOT:
+                    // 棋手之间的整局快照：以它为准
+                    restore(message.getMoves(), message.isGameOver());
+                    break;
+                default:
+                    break;
+            }
+        });
+    }
+
+    /**
+     * 房间作废：通知所有观众并关闭连接
+     */
+    void close() {
+        executor.execute(() -> {
+            for (Session observer : observers) {
+                observer.send(Message.disconnect());
+                observer.close();
+            }
+            observers.clear();
+            behind.clear();
+        });
+    }
+
+    private void restore(short[] newMoves, boolean over) {
+        moves = Arrays.copyOf(newMoves, Math.max(64, newMoves.length));
+        moveCount = newMoves.length;
+        gameOver = over;
+        result = Message.gameOver();
+        snapshot = null;
+        snapshotCount = moveCount;
+        tail.clear();
+        for (Session observer : observers) {
+            if (!behind.contains(observer)) {
+                sendState(observer);
+            }
+        }
+    }
+
+    private void deliver(Message message) {
+        for (Session observer : observers) {
+            long queued = observer.queuedBytes();
+            if (behind.contains(observer)) {
+                if (queued <= QUEUE_LIMIT / 2) {
+                    behind.remove(observer);
+                    sendState(observer);
+                }
+            } else if (queued > QUEUE_LIMIT) {
+                behind.add(observer);
+            } else {
+                observer.send(message);
+            }
+        }
+        scheduleResync();
+    }
+
+    /**
+     * 有观众落后时定时检查，对局暂停（例如长考）期间也能及时重新同步
+     */
+    private void scheduleResync() {
+        if (behind.isEmpty() || resyncScheduled) {
+            return;
+        }
+        resyncScheduled = true;
+        lobby.scheduleMillis(() -> executor.execute(() -> {
+            resyncScheduled = false;
+            behind.removeIf(observer -> {
+                if (observer.queuedBytes() > QUEUE_LIMIT / 2) {
+                    return false;
+                }
+                sendState(observer);
+                return true;
+            });
+            scheduleResync();
+        }), RESYNC_CHECK_MILLIS);
+    }
+
+    /**
+     * 当前局面：快照 + 之后的落子（+ 已结束）
+     */
+    private void sendState(Session observer) {
+        if (snapshot == null) {
+            short[] prefix = Arrays.copyOf(moves, snapshotCount);
+            snapshot = Message.snapshot(prefix, snapshotCount % 2 == 0, gameOver && tail.isEmpty());
+        }
+        observer.send(snapshot);
+        for (Message move : tail) {
+            observer.send(move);
+        }
+        if (gameOver && !tail.isEmpty()) {
+            observer.send(result);
+        }
+    }
+}
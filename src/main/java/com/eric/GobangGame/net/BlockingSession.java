@@ -0,0 +1,166 @@
+package com.eric.GobangGame.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 阻塞套接字上的一个连接：读线程逐行（握手后逐帧）读取并交给协议处理，写线程从发送队列取出消息写出
+ *
+ * send 只入队不阻塞，转发消息的一方不会因为对端不读而卡住。
+ * 读缓冲区是 512 字节起、按需倍增的字节数组，不使用 BufferedReader（各自 8KB 的缓冲区在数万个空闲连接上开销明显）。
+ */
+class BlockingSession extends Session {
+
+    private static final int INITIAL_BUFFER = 512;
+    // 写线程见到它就在写完之前的消息后关闭连接
+    private static final byte[] CLOSE = new byte[0];
+
+    private final Socket socket;
+    private final LinkedBlockingQueue<byte[]> outbound = new LinkedBlockingQueue<>();
+    private final AtomicInteger queuedBytes = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean closing = false;
+
+    BlockingSession(Lobby lobby, Socket socket) {
+        super(lobby);
+        this.socket = socket;
+    }
+
+    /**
+     * 读线程：直到对端断开或连接被关闭；握手后从按行切分改为按帧切分
+     */
+    void readLoop() {
+        byte[] buffer = new byte[INITIAL_BUFFER];
+        ByteBuffer view = ByteBuffer.wrap(buffer);
+        int length = 0;
+        try {
+            InputStream in = socket.getInputStream();
+            while (true) {
+                if (length == buffer.length) {
+                    if (buffer.length >= Protocol.MAX_BUFFER) {
+                        break;
+                    }
+                    buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, Protocol.MAX_BUFFER));
+                    view = ByteBuffer.wrap(buffer);
+                }
+                int count = in.read(buffer, length, buffer.length - length);
+                if (count < 0) {
+                    break;
+                }
+                length += count;
+                int start = 0;
+                while (start < length && !closed.get()) {
+                    if (isBinary()) {
+                        if (length - start < 2) break;
+                        int frame = view.getShort(start) & 0xFFFF;
+                        if (frame > Protocol.MAX_FRAME) return;
+                        if (length - start - 2 < frame) break;
+                        Message message = Message.decode(view, start + 2, frame);
+                        start += 2 + frame;
+                        if (message != null) {
+                            onMessage(message);
+                        }
+                    } else {
+                        int newline = -1;
+                        for (int i = start; i < length; i++) {
+                            if (buffer[i] == '\n') {
+                                newline = i;
+                                break;
+                            }
+                        }
+                        if (newline < 0) break;
+                        int end = newline > start && buffer[newline - 1] == '\r' ? newline - 1 : newline;
+                        String line = new String(buffer, start, end - start, StandardCharsets.UTF_8);
+                        start = newline + 1;
+                        onLine(line);
+                    }
+                }
+                length -= start;
+                System.arraycopy(buffer, start, buffer, 0, length);
+            }
+        } catch (IOException e) {
+            // 连接已断开
+        } finally {
+            closeNow();
+        }
+    }
+
+    /**
+     * 写线程：把发送队列依次写出，遇到 CLOSE 或写失败时结束
+     */
+    void writeLoop() {
+        try {
+            OutputStream out = socket.getOutputStream();
+            while (true) {
+                byte[] message = outbound.take();
+                if (message == CLOSE) {
+                    break;
+                }
+                out.write(message);
+                queuedBytes.addAndGet(-message.length);
+            }
+        } catch (IOException | InterruptedException e) {
+            // 连接已断开或服务器关闭
+        } finally {
+            closeNow();
+        }
+    }
+
+    @Override
+    protected void sendBytes(byte[] bytes) {
+        if (closing) {
+            return;
+        }
+        if (queuedBytes.addAndGet(bytes.length) > NioSession.MAX_QUEUED) {
+            // 对端长期不读：关闭套接字，由读线程完成清理
+            closing = true;
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+            return;
+        }
+        outbound.add(bytes);
+    }
+
+    @Override
+    public void close() {
+        closing = true;
+        outbound.add(CLOSE);
+    }
+
+    @Override
+    long queuedBytes() {
+        return queuedBytes.get();
+    }
+
+    @Override
+    public void abort() {
+        closeNow();
+    }
+
+    /**
+     * 立即关闭；可以在任意线程上调用，只生效一次
+     */
+    void closeNow() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        closing = true;
+        outbound.clear();
+        outbound.add(CLOSE);
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+        onClosed();
+    }
+}
@@ -0,0 +1,99 @@
+package com.eric.GobangGame.net;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多路复用连接上的一盘对局（或一路观战）：对房间、大厅与观众来说就是一个普通的 Session
+ *
+ * 所属连接按对局编号把收到的消息分发过来（编号已清为 0，房间内的消息编号都是 0），
+ * 发出的消息带上本通道的编号后排入所属连接的发送队列。
+ * 按对局的流量控制：客户端处理完消息后用 WINDOW 确认字节数，queuedBytes() 是已发出尚未确认的字节数，
+ * 观战通道据此丢弃并重新同步（见 Audience）；某一盘积压超过 WINDOW_LIMIT 时只关闭这一盘，
+ * 同一连接上的其他对局不受影响。服务器发出 DISCONNECT 后这一盘结束，通道随即关闭，编号可以重新使用。
+ */
+final class GameChannel extends Session {
+
+    // 每盘允许客户端未确认的字节数
+    static final int WINDOW_LIMIT = 64 * 1024;
+
+    private final Lobby lobby;
+    private final Session connection;
+    private final int gameId;
+    private final AtomicLong unacknowledged = new AtomicLong();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean closing = false;
+
+    GameChannel(Lobby lobby, Session connection, int gameId) {
+        super(lobby, true);
+        this.lobby = lobby;
+        this.connection = connection;
+        this.gameId = gameId;
+    }
+
+    @Override
+    protected void onMessage(Message message) {
+        if (message.getType() == Message.WINDOW) {
+            // 确认的字节数由客户端给出：不是正数的忽略，超出未确认的部分不计，否则窗口会失效或被误关
+            int acknowledged = message.getValue();
+            if (acknowledged > 0) {
+                unacknowledged.accumulateAndGet(acknowledged, (pending, ack) -> pending - Math.min(pending, ack));
+            }
+            return;
+        }
+        super.onMessage(message);
+        if (message.getType() == Message.DISCONNECT) {
+            closeNow();
+        }
+    }
+
+    @Override
+    public void send(Message message) {
+        super.send(message.withGameId(gameId));
+        if (message.getType() == Message.DISCONNECT) {
+            closeNow();
+        }
+    }
+
+    @Override
+    protected void sendBytes(byte[] bytes) {
+        if (closing) {
+            return;
+        }
+        if (unacknowledged.addAndGet(bytes.length) > WINDOW_LIMIT) {
+            // 客户端长期不处理这一盘：通知并只关闭这一盘（调用方可能持有房间或大厅的锁，稍后关闭）
+            closing = true;
+            connection.sendBytes(Message.disconnect().withGameId(gameId).bytes(true));
+            lobby.scheduleMillis(this::closeNow, 0);
+            return;
+        }
+        connection.sendBytes(bytes);
+    }
+
+    @Override
+    public void close() {
+        closeNow();
+    }
+
+    @Override
+    public void abort() {
+        closeNow();
+    }
+
+    @Override
+    long queuedBytes() {
+        return unacknowledged.get();
+    }
+
+    /**
+     * 关闭这一盘：从所属连接移除，并像连接断开一样离开房间（支持续局时保留座位）；只生效一次
+     */
+    void closeNow() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        closing = true;
+        connection.removeChannel(gameId, this);
+        onClosed();
+    }
+}
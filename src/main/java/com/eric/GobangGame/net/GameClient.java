@@ -0,0 +1,247 @@
+package com.eric.GobangGame.net;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多路复用的客户端连接：一个套接字上同时进行多盘对局与观战，每盘使用自己的对局编号（服务器端见 GameChannel）
+ *
+ * 适合机器人与同时下多盘棋的玩家：连接数与握手次数从每盘一次降为一次。
+ * 读线程按对局编号把消息交给 Listener，同一盘的消息在虚拟线程上按顺序处理，不同对局之间互不等待。
+ * 每盘处理完的字节数累计到 WINDOW_STEP 时用 WINDOW 告知服务器（按对局的流量控制）：
+ * 某一盘处理得慢，服务器只对这一盘暂停观战消息或关闭这一盘，其他对局照常进行。
+ * 编号为 0 的消息属于连接本身；服务器只支持二进制协议时才能多路复用，握手失败时构造函数抛出 IOException。
+ */
+public class GameClient implements AutoCloseable {
+
+    /**
+     * 一盘对局的消息；同一盘的调用按到达顺序依次进行，不同对局可能并发
+     */
+    public interface Listener {
+        void onMessage(int gameId, Message message);
+
+        /** 连接已断开（不再有任何消息） */
+        default void onClosed() {
+        }
+    }
+
+    // 每盘累计处理多少字节后确认一次（须小于服务器的 GameChannel.WINDOW_LIMIT）
+    static final int WINDOW_STEP = 16 * 1024;
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final OutputStream out;
+    private final Listener listener;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentHashMap<Integer, Game> games = new ConcurrentHashMap<>();
+    private final AtomicInteger nextGameId = new AtomicInteger();
+    private final Thread reader;
+    private volatile boolean closed = false;
+
+    /**
+     * 一盘对局的待处理消息与未确认的字节数
+     */
+    private final class Game implements Runnable {
+
+        final int gameId;
+        final ConcurrentLinkedQueue<Message> pending = new ConcurrentLinkedQueue<>();
+        final ConcurrentLinkedQueue<Integer> sizes = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        // 只在处理线程上访问
+        int consumed = 0;
+
+        Game(int gameId) {
+            this.gameId = gameId;
+        }
+
+        void offer(Message message, int size) {
+            sizes.add(size);
+            pending.add(message);
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    drain();
+                } finally {
+                    // 无论如何都要清除，否则这一盘之后的消息永远留在 pending 中
+                    scheduled.set(false);
+                }
+                // 清空后又有消息到达且没有其他线程接手时继续处理
+                if (pending.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+
+        private void drain() {
+            Message message;
+            while ((message = pending.poll()) != null) {
+                consumed += sizes.poll();
+                try {
+                    listener.onMessage(gameId, message);
+                } catch (RuntimeException e) {
+                    // 监听器出错只影响这一条消息，照常确认并继续处理后面的消息
+                    e.printStackTrace();
+                }
+                if (message.getType() == Message.DISCONNECT) {
+                    // 服务器已关闭这一盘
+                    games.remove(gameId, this);
+                } else if (consumed >= WINDOW_STEP) {
+                    send(gameId, Message.window(consumed));
+                    consumed = 0;
+                }
+            }
+        }
+    }
+
+    public GameClient(String host, int port, Listener listener) throws IOException {
+        this.listener = listener;
+        this.socket = new Socket();
+        socket.connect(new InetSocketAddress(host, port), 5000);
+        socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = socket.getOutputStream();
+        out.write((Protocol.hello() + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        socket.setSoTimeout(5000);
+        String reply = readLine();
+        socket.setSoTimeout(0);
+        if (reply == null || !Protocol.isHello(reply)) {
+            socket.close();
+            throw new IOException("服务器不支持二进制协议，无法多路复用: " + reply);
+        }
+        this.reader = new Thread(this::readLoop, "gobang-client-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c < 0 || line.length() > Protocol.MAX_LINE) {
+                return null;
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * 开始一盘新的对局：room 为 null 时由大厅自动配对，返回这一盘的对局编号
+     */
+    public int join(String room, String playerName) {
+        int gameId = open();
+        if (room != null) {
+            send(gameId, Message.join(room));
+        }
+        send(gameId, Message.playerInfo(playerName));
+        return gameId;
+    }
+
+    /**
+     * 观看指定房间的对局，返回这一路观战的对局编号
+     */
+    public int watch(String room) {
+        int gameId = open();
+        send(gameId, Message.watch(room));
+        return gameId;
+    }
+
+    private int open() {
+        int gameId = nextGameId.incrementAndGet();
+        games.put(gameId, new Game(gameId));
+        return gameId;
+    }
+
+    /**
+     * 在指定对局上发送一条消息；可以在任意线程上调用
+     */
+    public void send(int gameId, Message message) {
+        byte[] bytes = message.withGameId(gameId).bytes(true);
+        synchronized (out) {
+            try {
+                out.write(bytes);
+                out.flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * 离开一盘对局（认输离场或停止观战）
+     */
+    public void leave(int gameId) {
+        send(gameId, Message.disconnect());
+        games.remove(gameId);
+    }
+
+    /**
+     * 进行中的对局数
+     */
+    public int getGameCount() {
+        return games.size();
+    }
+
+    private void readLoop() {
+        try {
+            byte[] frame = new byte[Protocol.MAX_FRAME];
+            ByteBuffer view = ByteBuffer.wrap(frame);
+            while (!closed) {
+                int length = in.readUnsignedShort();
+                if (length > Protocol.MAX_FRAME) {
+                    break;
+                }
+                in.readFully(frame, 0, length);
+                Message message = Message.decode(view, 0, length);
+                if (message == null) {
+                    continue;
+                }
+                Game game = games.get(message.getGameId());
+                if (game != null) {
+                    game.offer(message.withGameId(0), 2 + length);
+                } else if (message.getGameId() == 0 && message.getType() == Message.PING) {
+                    send(0, Message.pong(message.getTime(), LatencyTracker.nowMicros()));
+                }
+            }
+        } catch (IOException e) {
+            // 连接已断开
+        } finally {
+            close();
+            listener.onClosed();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,105 @@
+package com.eric.GobangGame.net;
+
+import com.eric.GobangGame.core.Rules;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * 一盘对局的棋钟：双方各有 base 毫秒，每走一步加 increment 毫秒（费舍尔加秒），轮到谁走谁的钟在走
+ *
+ * 只在房间锁内访问。走子的一方的钟用时间轮上的一个定时任务计时，每走一步取消并重新登记（都是 O(1)）；
+ * 任务到期时回调 onFlag（在时间轮线程上、不持有房间锁），回调须在房间锁内用 isFlagged 确认，
+ * 因为任务可能在刚走完一步、尚未取消时到期。断线续局期间钟照常走。
+ */
+final class GameClock {
+
+    private final TimingWheel wheel;
+    private final long baseMillis;
+    private final long incrementMillis;
+    private final IntConsumer onFlag;
+    // 双方剩余的毫秒数（不含正在走的钟本次已用的时间），下标为颜色
+    private final long[] remaining = new long[3];
+    // 钟在走的一方，0 表示停着
+    private int running = 0;
+    private long runningSince;
+    private TimingWheel.Timeout flag;
+
+    GameClock(TimingWheel wheel, long baseMillis, long incrementMillis, IntConsumer onFlag) {
+        this.wheel = wheel;
+        this.baseMillis = baseMillis;
+        this.incrementMillis = incrementMillis;
+        this.onFlag = onFlag;
+        reset();
+    }
+
+    /**
+     * 新的一盘：双方回到 base，钟停着
+     */
+    void reset() {
+        stop();
+        remaining[Rules.BLACK] = baseMillis;
+        remaining[Rules.WHITE] = baseMillis;
+    }
+
+    /**
+     * 开始走 color 一方的钟
+     */
+    void start(int color) {
+        stop();
+        running = color;
+        runningSince = System.nanoTime();
+        flag = wheel.schedule(() -> onFlag.accept(color), remaining[color], TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * color 一方走完一步：扣除用时、加秒，改走对方的钟；钟没在走 color 一方时不计
+     */
+    void moved(int color) {
+        if (running != color) {
+            return;
+        }
+        stop();
+        remaining[color] += incrementMillis;
+        start(Rules.opponent(color));
+    }
+
+    /**
+     * 停钟（对局结束或房间作废）
+     */
+    void stop() {
+        if (running != 0) {
+            remaining[running] = remaining(running);
+            running = 0;
+        }
+        if (flag != null) {
+            flag.cancel();
+            flag = null;
+        }
+    }
+
+    /**
+     * color 一方的钟是否正在走且已用完
+     */
+    boolean isFlagged(int color) {
+        return running == color && remaining(color) <= 0;
+    }
+
+    /**
+     * color 一方此刻剩余的毫秒数（不小于 0）
+     */
+    long remaining(int color) {
+        long left = remaining[color];
+        if (running == color) {
+            left -= TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - runningSince);
+        }
+        return Math.max(0, left);
+    }
+
+    /**
+     * 此刻双方的剩余时间
+     */
+    Message message() {
+        return Message.clock(running, remaining(Rules.BLACK), remaining(Rules.WHITE));
+    }
+}
@@ -0,0 +1,142 @@
+package com.eric.GobangGame.net;
+
+import com.eric.GobangGame.core.Rules;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 独立的多房间对战服务器，客户端用"加入游戏"连接即可（可在房间一栏填写房间名，留空则自动配对）
+ *
+ * 用法: java -jar GobangGame.jar server [--port 12345] [--mode nio|virtual|platform] [--threads N] [--nodelay true] [--size 15] [--stats 60] [--ratings ratings.properties] [--clock 5+3]
+ *   --mode     nio（默认）：选择器 + 少量 I/O 线程；virtual：每个连接一个虚拟线程，阻塞读写；
+ *              platform：同 virtual 但使用平台线程，仅用于对比
+ *   --threads  nio 模式的 I/O 线程数，默认为处理器数（最多 4 个）
+ *   --nodelay  是否设置 TCP_NODELAY（默认 true）
+ *   --size     棋盘大小，须与客户端的 -Dgobang.size 一致（默认 15）
+ *   --stats    每隔多少秒输出一次连接数、多路复用的对局数、房间数、排队人数、观众数、被拒绝的消息数、
+ *              空闲断开的连接数、定时任务数与落子延迟，0 为不输出
+ *   --ratings  等级分文件：启动时读入（文件不存在时从空表开始），关闭服务器时写回；不指定则不保存
+ *   --clock    棋钟"分钟+每步加秒"，例如 5+3；超时判负。默认不计时
+ */
+public class GameServer {
+
+    private int port = Protocol.DEFAULT_PORT;
+    private String mode = "nio";
+    private int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private int statsSeconds = 60;
+    private boolean tcpNoDelay = true;
+    private int size = Rules.DEFAULT_SIZE;
+    private Path ratingsFile;
+    private long clockMillis = 0;
+    private long incrementMillis = 0;
+
+    public static void main(String[] args) {
+        GameServer server = new GameServer();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("缺少参数值: " + args[i]);
+                }
+                String value = args[++i];
+                switch (args[i - 1]) {
+                    case "--port": server.port = Integer.parseInt(value); break;
+                    case "--mode": server.mode = value; break;
+                    case "--threads": server.threads = Math.max(1, Integer.parseInt(value)); break;
+                    case "--nodelay": server.tcpNoDelay = Boolean.parseBoolean(value); break;
+                    case "--size": server.size = Rules.checkSize(Integer.parseInt(value)); break;
+                    case "--stats": server.statsSeconds = Integer.parseInt(value); break;
+                    case "--ratings": server.ratingsFile = Path.of(value); break;
+                    case "--clock": server.parseClock(value); break;
+                    default: throw new IllegalArgumentException("未知参数: " + args[i - 1]);
+                }
+            }
+            server.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("服务器启动失败: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 解析"分钟+每步加秒"（加秒可省略）
+     */
+    private void parseClock(String value) {
+        int plus = value.indexOf('+');
+        try {
+            double minutes = Double.parseDouble(plus < 0 ? value : value.substring(0, plus));
+            double increment = plus < 0 ? 0 : Double.parseDouble(value.substring(plus + 1));
+            if (minutes <= 0 || increment < 0) {
+                throw new NumberFormatException();
+            }
+            clockMillis = Math.round(minutes * 60_000);
+            incrementMillis = Math.round(increment * 1000);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的棋钟: " + value + "（格式为 分钟+每步加秒，例如 5+3）");
+        }
+    }
+
+    public void run() throws IOException {
+        Lobby lobby = new Lobby(size);
+        lobby.setTimeControl(clockMillis, incrementMillis);
+        if (ratingsFile != null && Files.exists(ratingsFile)) {
+            lobby.getRatings().load(ratingsFile);
+            System.err.println("已读入 " + lobby.getRatings().size() + " 位玩家的等级分");
+        }
+        AutoCloseable server;
+        int boundPort;
+        switch (mode) {
+            case "nio":
+                NioServer nio = new NioServer(lobby, port, threads);
+                nio.setTcpNoDelay(tcpNoDelay);
+                nio.start();
+                server = nio;
+                boundPort = nio.getPort();
+                break;
+            case "virtual":
+            case "platform":
+                ThreadPerConnectionServer blocking = new ThreadPerConnectionServer(lobby, port, mode.equals("virtual"));
+                blocking.setTcpNoDelay(tcpNoDelay);
+                blocking.start();
+                server = blocking;
+                boundPort = blocking.getPort();
+                break;
+            default:
+                throw new IllegalArgumentException("未知模式: " + mode);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (Exception ignored) {
+            }
+            if (ratingsFile != null) {
+                try {
+                    lobby.getRatings().save(ratingsFile);
+                } catch (IOException e) {
+                    System.err.println("保存等级分失败: " + e.getMessage());
+                }
+            }
+        }));
+        System.err.println("服务器已启动，端口 " + boundPort + "，模式 " + mode);
+        try {
+            while (true) {
+                if (statsSeconds > 0) {
+                    Thread.sleep(statsSeconds * 1000L);
+                    System.err.println("连接 " + lobby.getConnectionCount() + "（多路复用对局 " + lobby.getChannelCount()
+                            + "），房间 " + lobby.getRoomCount() + "，排队 " + lobby.getQueuedCount()
+                            + "，观众 " + lobby.getObserverCount() + "，拒绝 " + lobby.getRejectedCount()
+                            + "，空闲断开 " + lobby.getIdleKickCount() + "，定时任务 " + lobby.getTimerCount()
+                            + "，落子延迟 " + lobby.getMoveLatency().summary());
+                } else {
+                    Thread.sleep(Long.MAX_VALUE);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.eric.GobangGame.net;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟直方图（微秒）：按 2 的幂分段、每段 8 个子桶，相对误差约 12%，固定 4KB 左右，可并发记录
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BITS + 1) * SUB);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private volatile long max = 0;
+
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(index(value));
+        total.increment();
+        sum.add(value);
+        if (value > max) {
+            max = value; // 并发时可能略小于真实最大值，只用于显示
+        }
+    }
+
+    private static int index(long value) {
+        if (value < SUB) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB + (int) ((value >>> shift) & (SUB - 1));
+    }
+
+    private static long lowerBound(int index) {
+        if (index < SUB) {
+            return index;
+        }
+        int shift = index / SUB - 1;
+        return (long) (SUB + index % SUB) << shift;
+    }
+
+    public long getCount() {
+        return total.sum();
+    }
+
+    public double getMeanMicros() {
+        long n = total.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    public long getMaxMicros() {
+        return max;
+    }
+
+    /**
+     * 百分位数（0-100），取所在桶的下界；没有样本时为 0
+     */
+    public long percentile(double p) {
+        long n = total.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(n * p / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return lowerBound(i);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 形如 "n=120 p50 1.2 ms p90 2.0 ms p99 5.1 ms max 9.8 ms"
+     */
+    public String summary() {
+        if (getCount() == 0) {
+            return "n=0";
+        }
+        return String.format("n=%d p50 %.1f ms p90 %.1f ms p99 %.1f ms max %.1f ms", getCount(),
+                percentile(50) / 1000.0, percentile(90) / 1000.0, percentile(99) / 1000.0, max / 1000.0);
+    }
+}
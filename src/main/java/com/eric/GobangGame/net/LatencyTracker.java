@@ -0,0 +1,66 @@
+package com.eric.GobangGame.net;
+
+/**
+ * 一条连接上的往返时间与时钟偏差
+ *
+ * 客户端定期发送 PING（本端时间），对端回复 PONG（原样带回 + 对端收到时的时间）。
+ * 往返时间记入直方图；参考时钟取对端（服务器或点对点的主机）的时钟，
+ * 偏差按 NTP 的方法估计：对端时间 - (发送时间 + 收到时间) / 2，只采用近期往返时间最短的样本。
+ * 落子消息带有参考时钟下的发送时间，接收方换算到同一时钟即可得到单程延迟，双方的时钟不需要同步。
+ * 时间都是 System.nanoTime() 换算的微秒，各进程的起点不同，由偏差吸收。
+ */
+public class LatencyTracker {
+
+    // 最短往返样本最多沿用的次数，之后即使往返变长也更新偏差
+    private static final int MAX_SAMPLE_AGE = 16;
+
+    private final boolean reference;
+    private final LatencyHistogram rtt = new LatencyHistogram();
+    private volatile long offsetMicros = 0;
+    private volatile long lastRttMicros = -1;
+    private long bestRttMicros = Long.MAX_VALUE;
+    private int sampleAge = 0;
+
+    /**
+     * @param reference 本端的时钟就是参考时钟（点对点的主机），偏差恒为 0
+     */
+    public LatencyTracker(boolean reference) {
+        this.reference = reference;
+    }
+
+    public static long nowMicros() {
+        return System.nanoTime() / 1000;
+    }
+
+    /**
+     * 收到 PONG
+     * @param sentMicros PING 发出时的本端时间
+     * @param peerMicros 对端收到 PING 时的时间
+     */
+    public synchronized void onPong(long sentMicros, long peerMicros) {
+        long now = nowMicros();
+        long roundTrip = now - sentMicros;
+        rtt.record(roundTrip);
+        lastRttMicros = roundTrip;
+        if (reference) {
+            return;
+        }
+        if (roundTrip <= bestRttMicros || ++sampleAge >= MAX_SAMPLE_AGE) {
+            bestRttMicros = roundTrip;
+            sampleAge = 0;
+            offsetMicros = peerMicros - (sentMicros + now) / 2;
+        }
+    }
+
+    /**
+     * 参考时钟下的当前时间
+     */
+    public long referenceNow() {
+        return nowMicros() + offsetMicros;
+    }
+
+    public LatencyHistogram getRtt() { return rtt; }
+    /** 最近一次往返时间（微秒），还没有样本时为 -1 */
+    public long getLastRttMicros() { return lastRttMicros; }
+    public long getOffsetMicros() { return offsetMicros; }
+}
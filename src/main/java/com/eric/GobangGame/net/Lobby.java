@@ -0,0 +1,253 @@
+package com.eric.GobangGame.net;
+
+import com.eric.GobangGame.core.Rules;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * 房间表：按名字进入指定房间，或由大厅按等级分为未指定房间的玩家配对（见 Matchmaker，配对的房间计分）
+ * 与传输方式无关，NIO 与虚拟线程两种服务器共用
+ * 支持续局的房间另按续局编号登记，编号是双方会话令牌的高 32 位；服务器重启后编号未知，
+ * 第一个带令牌重连的玩家会按编号重建房间
+ * 观众的消息分发在少量广播线程上进行，房间按名字固定分到其中一个，保证同一房间内的顺序
+ * 所有定时任务（连接的心跳与空闲检查、续局等待、棋钟、配对放宽）都登记在同一个时间轮（TimingWheel）上
+ */
+public class Lobby {
+
+    // 意外断线后保留座位的秒数
+    public static final int RESUME_GRACE_SECONDS = 60;
+
+    private final int boardSize;
+    private final ConcurrentHashMap<String, Room> rooms = new ConcurrentHashMap<>();
+    private final AtomicInteger observers = new AtomicInteger();
+    private final ExecutorService[] broadcasters = new ExecutorService[Math.min(2, Runtime.getRuntime().availableProcessors())];
+    // 续局编号 -> 房间
+    private final ConcurrentHashMap<Long, Room> resumable = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final TimingWheel timer = new TimingWheel("gobang-lobby-timer");
+    private final AtomicInteger connections = new AtomicInteger();
+    // 多路复用连接上的对局通道（不计入连接数）
+    private final AtomicInteger channels = new AtomicInteger();
+    private final AtomicLong roomCounter = new AtomicLong();
+    // 客户端发出落子到服务器收到的延迟（落子带有服务器时钟下的发送时间）
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    // 被裁判拒绝的对局消息数
+    private final AtomicLong rejected = new AtomicLong();
+    private final RatingTable ratings = new RatingTable();
+    private final Matchmaker matchmaker = new Matchmaker(this::pair);
+    // 因长时间没有消息而断开的连接数
+    private final AtomicLong idleKicks = new AtomicLong();
+    // 棋钟：每方的毫秒数与每步加秒，0 表示不计时
+    private volatile long clockMillis = 0;
+    private volatile long incrementMillis = 0;
+
+    public Lobby() {
+        this(Rules.DEFAULT_SIZE);
+    }
+
+    /**
+     * @param boardSize 棋盘大小，须与客户端一致（用于记录观众看到的着法）
+     */
+    public Lobby(int boardSize) {
+        this.boardSize = boardSize;
+        for (int i = 0; i < broadcasters.length; i++) {
+            String threadName = "gobang-broadcast-" + i;
+            broadcasters[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        sweepLater();
+    }
+
+    /**
+     * 每秒为排队的玩家按放宽后的分差重新配对
+     */
+    private void sweepLater() {
+        timer.schedule(() -> {
+            matchmaker.sweep();
+            sweepLater();
+        }, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 设置棋钟（之后开始的对局生效）；baseMillis 为 0 时不计时
+     */
+    public void setTimeControl(long baseMillis, long incrementMillis) {
+        this.clockMillis = baseMillis;
+        this.incrementMillis = incrementMillis;
+    }
+
+    /**
+     * 新房间的棋钟，不计时返回 null
+     */
+    GameClock newClock(IntConsumer onFlag) {
+        return clockMillis > 0 ? new GameClock(timer, clockMillis, incrementMillis, onFlag) : null;
+    }
+
+    void connected(Session session) {
+        (session instanceof GameChannel ? channels : connections).incrementAndGet();
+    }
+
+    void disconnected(Session session) {
+        (session instanceof GameChannel ? channels : connections).decrementAndGet();
+    }
+
+    /**
+     * 进入房间；roomName 为 null 时按等级分排队配对。指定的房间已满时告知客户端并关闭连接
+     */
+    void join(Session session, String roomName) {
+        if (roomName == null) {
+            session.setTicket(matchmaker.enqueue(session, (int) Math.round(ratings.get(session.getName()).getRating())));
+            return;
+        }
+        boolean[] accepted = new boolean[1];
+        rooms.compute(roomName, (key, room) -> {
+            if (room == null || room.isFinished()) {
+                room = new Room(key, this);
+            }
+            accepted[0] = room.add(session);
+            return room;
+        });
+        if (!accepted[0]) {
+            session.send(Message.disconnect());
+            session.close();
+        }
+    }
+
+    /**
+     * 配对成功：先等待的一方执黑。配对与加入之间断线的一方按离开处理（连接已关闭，不会再通知房间）
+     */
+    private void pair(Session black, Session white) {
+        Room room = new Room("match-" + roomCounter.incrementAndGet(), this, 0, true);
+        rooms.put(room.getName(), room);
+        room.add(black);
+        room.add(white);
+        for (Session session : new Session[] {black, white}) {
+            if (session.isClosed()) {
+                room.leave(session);
+            }
+        }
+    }
+
+    /**
+     * 离开排队（断线或发出 DISCONNECT）
+     */
+    void cancel(Matchmaker.Ticket ticket) {
+        matchmaker.cancel(ticket);
+    }
+
+    /**
+     * 带令牌重连；房间已作废时告知客户端并关闭连接
+     */
+    void resume(Session session, Message request) {
+        long roomKey = request.getToken() >>> 32;
+        if (roomKey == 0) {
+            session.send(Message.disconnect());
+            session.close();
+            return;
+        }
+        Room room = resumable.computeIfAbsent(roomKey, key -> {
+            Room restored = new Room("resume-" + Long.toHexString(key), this, key);
+            rooms.put(restored.getName(), restored);
+            return restored;
+        });
+        if (!room.resume(session, request)) {
+            session.send(Message.disconnect());
+            session.close();
+        }
+    }
+
+    /**
+     * 观看指定房间的对局；房间不存在或已作废时告知客户端并关闭连接
+     */
+    void watch(Session session, String roomName) {
+        Room room = rooms.get(roomName);
+        if (room == null || !room.addObserver(session)) {
+            session.send(Message.disconnect());
+            session.close();
+            return;
+        }
+        observers.incrementAndGet();
+    }
+
+    void unwatched(Session session) {
+        observers.decrementAndGet();
+    }
+
+    Executor broadcaster(String roomName) {
+        return broadcasters[Math.floorMod(roomName.hashCode(), broadcasters.length)];
+    }
+
+    /**
+     * 为房间分配一个未被使用的续局编号（非 0 的 32 位数）
+     */
+    long register(Room room) {
+        long roomKey;
+        do {
+            roomKey = random.nextInt() & 0xFFFFFFFFL;
+        } while (roomKey == 0 || resumable.putIfAbsent(roomKey, room) != null);
+        return roomKey;
+    }
+
+    /**
+     * 房间 roomKey 中 color 一方的会话令牌：高 32 位为续局编号，最低位为座位，其余 31 位随机
+     * 持有令牌即可占用该座位，一方的令牌推不出另一方的；猜错的重连会被断开
+     */
+    long seatToken(long roomKey, int color) {
+        long secret = random.nextInt() & 0xFFFFFFFEL;
+        return roomKey << 32 | secret | (color == Rules.WHITE ? 1 : 0);
+    }
+
+    /**
+     * 令牌对应的座位颜色
+     */
+    static int seatOf(long token) {
+        return (token & 1) == 0 ? Rules.BLACK : Rules.WHITE;
+    }
+
+    TimingWheel.Timeout schedule(Runnable task, long seconds) {
+        return timer.schedule(task, seconds, TimeUnit.SECONDS);
+    }
+
+    TimingWheel.Timeout scheduleMillis(Runnable task, long millis) {
+        return timer.schedule(task, millis, TimeUnit.MILLISECONDS);
+    }
+
+    void removeRoom(Room room) {
+        rooms.remove(room.getName(), room);
+        long roomKey = room.getRoomKey();
+        if (roomKey != 0) {
+            resumable.remove(roomKey, room);
+        }
+    }
+
+    void recordRejected() {
+        rejected.incrementAndGet();
+    }
+
+    void recordIdleKick() {
+        idleKicks.incrementAndGet();
+    }
+
+    public int getConnectionCount() { return connections.get(); }
+    public int getChannelCount() { return channels.get(); }
+    public int getRoomCount() { return rooms.size(); }
+    public int getObserverCount() { return observers.get(); }
+    public int getBoardSize() { return boardSize; }
+    public LatencyHistogram getMoveLatency() { return moveLatency; }
+    public long getRejectedCount() { return rejected.get(); }
+    public int getQueuedCount() { return matchmaker.getWaitingCount(); }
+    public RatingTable getRatings() { return ratings; }
+    public long getIdleKickCount() { return idleKicks.get(); }
+    public int getTimerCount() { return timer.size(); }
+}
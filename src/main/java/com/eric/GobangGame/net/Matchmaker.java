@@ -0,0 +1,189 @@
+package com.eric.GobangGame.net;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * 按等级分自动配对：等待的玩家按分数分桶（每 BUCKET_WIDTH 分一桶），桶内先来先配
+ *
+ * 每位玩家有一个可接受的分差窗口，从 WINDOW_START 开始随等待时间每秒放宽 WINDOW_GROWTH 分，最多 WINDOW_MAX；
+ * 双方的分差须同时在两人的窗口之内。新来的玩家从自己的桶向两侧由近及远查找，
+ * 找到就用 CAS 认领对方，不加全局锁，多个读线程可以同时入队；找不到才排进自己的桶。
+ * 每次入队最多查看窗口内的 2 * WINDOW_MAX / BUCKET_WIDTH + 1 个桶，每个桶在跳表中查找是 O(log 桶数)，
+ * 与等待人数无关；已配对或已取消的票据不立即从队列删除，由之后经过的查找顺手移除。
+ * 两人同时入队可能互相错过，sweep() 每秒为仍在等待的玩家按放宽后的窗口重新查找一次。
+ */
+final class Matchmaker {
+
+    static final int BUCKET_WIDTH = 50;
+    static final int WINDOW_START = 100;
+    static final int WINDOW_GROWTH = 50;
+    static final int WINDOW_MAX = 1000;
+
+    // 票据状态：等待中、正在被认领、已配对或已取消
+    private static final int WAITING = 0;
+    private static final int CLAIMING = 1;
+    private static final int DONE = 2;
+
+    /**
+     * 一位等待中的玩家
+     */
+    static final class Ticket {
+
+        final Session session;
+        final int rating;
+        final long since = System.nanoTime();
+        final AtomicInteger state = new AtomicInteger(WAITING);
+
+        Ticket(Session session, int rating) {
+            this.session = session;
+            this.rating = rating;
+        }
+
+        int window(long now) {
+            long seconds = (now - since) / 1_000_000_000L;
+            return (int) Math.min(WINDOW_MAX, WINDOW_START + WINDOW_GROWTH * seconds);
+        }
+    }
+
+    private final ConcurrentSkipListMap<Integer, ConcurrentLinkedQueue<Ticket>> buckets = new ConcurrentSkipListMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    // 配对成功时调用（先等待的一方在前），在入队或 sweep 的线程上、不持有任何锁
+    private final BiConsumer<Session, Session> pairing;
+
+    Matchmaker(BiConsumer<Session, Session> pairing) {
+        this.pairing = pairing;
+    }
+
+    /**
+     * 为玩家找对手，找不到时排队等待；返回的票据可用于 cancel
+     */
+    Ticket enqueue(Session session, int rating) {
+        Ticket ticket = new Ticket(session, rating);
+        if (match(ticket, false)) {
+            return ticket;
+        }
+        // 桶只增不删（分数范围有限，桶数很少），排进去的票据不会随空桶一起丢失
+        buckets.computeIfAbsent(Math.floorDiv(rating, BUCKET_WIDTH), key -> new ConcurrentLinkedQueue<>()).add(ticket);
+        waiting.incrementAndGet();
+        // 查找之后、排队之前到达的玩家可能没看到这张票据
+        match(ticket, true);
+        return ticket;
+    }
+
+    /**
+     * 取消排队（断线或离开）；已配对时不起作用
+     */
+    void cancel(Ticket ticket) {
+        while (true) {
+            int state = ticket.state.get();
+            if (state == DONE) {
+                return;
+            }
+            if (state == WAITING && ticket.state.compareAndSet(WAITING, DONE)) {
+                waiting.decrementAndGet();
+                return;
+            }
+            // 正在被认领，结果很快确定
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * 为仍在等待的玩家按当前窗口重新查找
+     */
+    void sweep() {
+        for (ConcurrentLinkedQueue<Ticket> queue : buckets.values()) {
+            for (Ticket ticket : queue) {
+                if (ticket.state.get() == WAITING) {
+                    match(ticket, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * 由近及远查找窗口内的对手并认领；queued 为 true 时 ticket 已在桶里，须先认领自己以免同时被别人配走
+     */
+    private boolean match(Ticket ticket, boolean queued) {
+        long now = System.nanoTime();
+        int window = ticket.window(now);
+        int home = Math.floorDiv(ticket.rating, BUCKET_WIDTH);
+        int reach = (window + BUCKET_WIDTH - 1) / BUCKET_WIDTH;
+        for (int distance = 0; distance <= reach; distance++) {
+            if (matchIn(buckets.get(home - distance), ticket, queued, window, now)
+                    || distance != 0 && matchIn(buckets.get(home + distance), ticket, queued, window, now)) {
+                return true;
+            }
+            if (queued && ticket.state.get() != WAITING) {
+                // 已被别人配走或已取消
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchIn(ConcurrentLinkedQueue<Ticket> queue, Ticket ticket, boolean queued, int window, long now) {
+        if (queue == null) {
+            return false;
+        }
+        for (Iterator<Ticket> it = queue.iterator(); it.hasNext(); ) {
+            Ticket other = it.next();
+            if (other == ticket) {
+                continue;
+            }
+            int state = other.state.get();
+            if (state == WAITING && other.session.isClosed() && other.state.compareAndSet(WAITING, DONE)) {
+                // 断线时没有来得及取消
+                waiting.decrementAndGet();
+                state = DONE;
+            }
+            if (state == DONE) {
+                it.remove();
+                continue;
+            }
+            int difference = Math.abs(other.rating - ticket.rating);
+            if (state != WAITING || difference > window || difference > other.window(now)) {
+                continue;
+            }
+            if (claim(ticket, other, queued)) {
+                it.remove();
+                pairing.accept(other.session, ticket.session);
+                return true;
+            }
+            if (queued && ticket.state.get() != WAITING) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 认领 other；queued 时先把自己置为认领中，认领失败再恢复为等待
+     */
+    private boolean claim(Ticket ticket, Ticket other, boolean queued) {
+        if (queued && !ticket.state.compareAndSet(WAITING, CLAIMING)) {
+            return false;
+        }
+        if (other.state.compareAndSet(WAITING, DONE)) {
+            waiting.decrementAndGet();
+            ticket.state.set(DONE);
+            if (queued) {
+                waiting.decrementAndGet();
+            }
+            return true;
+        }
+        if (queued) {
+            ticket.state.set(WAITING);
+        }
+        return false;
+    }
+
+    /** 排队等待中的玩家数 */
+    int getWaitingCount() {
+        return waiting.get();
+    }
+}
@@ -0,0 +1,427 @@
+package com.eric.GobangGame.net;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 一条对战消息，与线路格式无关；可以编码为文本行或二进制帧，两种编码都在第一次使用时生成并缓存
+ *
+ * 二进制帧: 2 字节长度（其后的字节数，大端） + 1 字节类型 + varint 对局编号 + varint 序号 + 负载
+ *   序号由发送方的 ResendBuffer 分配（0 表示不参与重传的控制消息），服务器原样转发
+ *   MOVE         1 字节行 + 1 字节列 [+ 8 字节发送时间（参考时钟的微秒，见 LatencyTracker），可省略]
+ *   START        1 字节颜色（对方的颜色，与文本协议相同）
+ *   RESTART      1 字节：0 请求 / 1 接受 / 2 拒绝
+ *   CHAT、PLAYER_INFO、JOIN、WATCH   UTF-8 文本直到帧尾（可以包含任意字符，包括冒号）
+ *   DISCONNECT   无负载；GAME_OVER  [1 字节官方结果：1 黑胜 / 2 白胜 / 3 平局，由服务器发出，可省略]
+ *   PING         8 字节发送方时间；PONG  8 字节原样带回的时间 + 8 字节回复方收到时的时间
+ *   SESSION      8 字节会话令牌；RESUME  8 字节令牌 + 1 字节本方颜色 + 4 字节已收到的最大序号
+ *   RESUMED      4 字节已收到的最大序号；SNAPSHOT  1 字节标志（1 黑方走，2 已结束） + 每步 2 字节（MoveLog 编码）
+ *   WINDOW       4 字节：客户端已处理完的该对局的字节数（按帧计，含长度字段），见 GameClient
+ *   CLOCK        1 字节正在走的钟（1 黑 / 2 白 / 0 停） + 8 字节黑方剩余毫秒 + 8 字节白方剩余毫秒，由服务器发出（见 GameClock）
+ * 对局编号为 0 的消息属于连接本身（一个连接一盘棋）；非 0 时一个连接可以同时进行多盘对局或观战，见 GameChannel。
+ * 文本协议中 MOVE 不带时间（旧版会把它当作格式错误），也没有序号；PING/PONG 与断线续局的消息只在二进制连接上使用。
+ * 解码直接从接收缓冲区按绝对位置读取，除文本负载外不复制、不创建字符串。
+ * 实例不可变，缓存的编码结果可以被多个连接共用。
+ */
+public final class Message {
+
+    public static final byte MOVE = 1;
+    public static final byte CHAT = 2;
+    public static final byte START = 3;
+    public static final byte RESTART = 4;
+    public static final byte DISCONNECT = 5;
+    public static final byte PLAYER_INFO = 6;
+    public static final byte GAME_OVER = 7;
+    public static final byte JOIN = 8;
+    public static final byte PING = 9;
+    public static final byte PONG = 10;
+    public static final byte SESSION = 11;
+    public static final byte RESUME = 12;
+    public static final byte RESUMED = 13;
+    public static final byte SNAPSHOT = 14;
+    public static final byte WATCH = 15;
+    public static final byte WINDOW = 16;
+    public static final byte CLOCK = 17;
+
+    // 没有时间戳
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    public static final int RESTART_REQUEST = 0;
+    public static final int RESTART_ACCEPT = 1;
+    public static final int RESTART_REJECT = 2;
+
+    // GAME_OVER 的官方结果（0 表示未给出）
+    public static final int RESULT_BLACK = 1;
+    public static final int RESULT_WHITE = 2;
+    public static final int RESULT_DRAW = 3;
+
+    public static final int SNAPSHOT_BLACK_TURN = 1;
+    public static final int SNAPSHOT_GAME_OVER = 2;
+
+    private final byte type;
+    private final int gameId;
+    private final int seq;
+    private final int first;   // MOVE 的行；START、RESTART 的参数；GAME_OVER 的结果；WINDOW 的字节数；RESUME 的颜色；RESUMED 的序号；SNAPSHOT 的标志；CLOCK 正在走的钟
+    private final int second;  // MOVE 的列；RESUME 的序号
+    private final String text;
+    private final long time;      // MOVE 的发送时间；PING、PONG 的发送方时间；SESSION、RESUME 的令牌；CLOCK 的黑方剩余时间
+    private final long peerTime;  // PONG 的回复方时间；CLOCK 的白方剩余时间
+    private final short[] moves;  // SNAPSHOT 的着法（不可修改）
+    // 编码缓存（不可修改）；并发下可能重复生成，结果相同
+    private byte[] textBytes;
+    private byte[] binaryBytes;
+
+    private Message(byte type, int gameId, int first, int second, String text) {
+        this(type, gameId, first, second, text, NO_TIME, NO_TIME);
+    }
+
+    private Message(byte type, int gameId, int first, int second, String text, long time, long peerTime) {
+        this(type, gameId, 0, first, second, text, time, peerTime, null);
+    }
+
+    private Message(byte type, int gameId, int seq, int first, int second, String text, long time, long peerTime,
+                    short[] moves) {
+        this.type = type;
+        this.gameId = gameId;
+        this.seq = seq;
+        this.moves = moves;
+        this.first = first;
+        this.second = second;
+        this.text = text;
+        this.time = time;
+        this.peerTime = peerTime;
+    }
+
+    public static Message move(int row, int col) { return new Message(MOVE, 0, row, col, null); }
+    public static Message move(int row, int col, long time) { return new Message(MOVE, 0, row, col, null, time, NO_TIME); }
+    public static Message chat(String text) { return new Message(CHAT, 0, 0, 0, text); }
+    public static Message start(int color) { return new Message(START, 0, color, 0, null); }
+    public static Message restart(int kind) { return new Message(RESTART, 0, kind, 0, null); }
+    public static Message disconnect() { return new Message(DISCONNECT, 0, 0, 0, null); }
+    public static Message playerInfo(String name) { return new Message(PLAYER_INFO, 0, 0, 0, name); }
+    public static Message gameOver() { return gameOver(0); }
+    public static Message gameOver(int result) { return new Message(GAME_OVER, 0, result, 0, null); }
+    public static Message join(String room) { return new Message(JOIN, 0, 0, 0, room); }
+    public static Message watch(String room) { return new Message(WATCH, 0, 0, 0, room); }
+    public static Message ping(long time) { return new Message(PING, 0, 0, 0, null, time, NO_TIME); }
+    public static Message pong(long time, long peerTime) { return new Message(PONG, 0, 0, 0, null, time, peerTime); }
+    public static Message session(long token) { return new Message(SESSION, 0, 0, 0, null, token, NO_TIME); }
+    public static Message resume(long token, int color, int lastReceived) {
+        return new Message(RESUME, 0, color, lastReceived, null, token, NO_TIME);
+    }
+    public static Message resumed(int lastReceived) { return new Message(RESUMED, 0, lastReceived, 0, null); }
+    public static Message window(int bytes) { return new Message(WINDOW, 0, bytes, 0, null); }
+    public static Message clock(int running, long blackMillis, long whiteMillis) {
+        return new Message(CLOCK, 0, running, 0, null, blackMillis, whiteMillis);
+    }
+    public static Message snapshot(short[] moves, boolean blackTurn, boolean gameOver) {
+        int flags = (blackTurn ? SNAPSHOT_BLACK_TURN : 0) | (gameOver ? SNAPSHOT_GAME_OVER : 0);
+        return new Message(SNAPSHOT, 0, 0, flags, 0, null, NO_TIME, NO_TIME, moves.clone());
+    }
+
+    /**
+     * 带序号的副本
+     */
+    public Message withSeq(int seq) {
+        return new Message(type, gameId, seq, first, second, text, time, peerTime, moves);
+    }
+
+    /**
+     * 属于另一个对局编号的副本（相同时返回自身）
+     */
+    public Message withGameId(int gameId) {
+        return gameId == this.gameId ? this : new Message(type, gameId, seq, first, second, text, time, peerTime, moves);
+    }
+
+    public byte getType() { return type; }
+    public int getGameId() { return gameId; }
+    public int getSeq() { return seq; }
+    public int getRow() { return first; }
+    public int getCol() { return second; }
+    /** START 的颜色、RESTART 的种类、GAME_OVER 的结果、WINDOW 的字节数或 CLOCK 正在走的钟 */
+    public int getValue() { return first; }
+    public String getText() { return text; }
+    public boolean hasTime() { return time != NO_TIME; }
+    public long getTime() { return time; }
+    public long getPeerTime() { return peerTime; }
+    /** SESSION、RESUME 的会话令牌 */
+    public long getToken() { return time; }
+    /** RESUME 中发送方的颜色 */
+    public int getColor() { return first; }
+    /** RESUME、RESUMED 中发送方已收到的最大序号 */
+    public int getLastReceived() { return type == RESUME ? second : first; }
+    /** SNAPSHOT 的着法，调用方不得修改 */
+    public short[] getMoves() { return moves; }
+    public boolean isBlackTurn() { return (first & SNAPSHOT_BLACK_TURN) != 0; }
+    public boolean isGameOver() { return (first & SNAPSHOT_GAME_OVER) != 0; }
+    /** CLOCK 中黑方、白方剩余的毫秒数 */
+    public long getBlackMillis() { return time; }
+    public long getWhiteMillis() { return peerTime; }
+
+    // --- 文本协议 ---
+
+    /**
+     * 解析一行文本消息；未知类型或格式错误时返回 null
+     */
+    public static Message parseText(String line) {
+        String argument = Protocol.argument(line);
+        try {
+            switch (Protocol.type(line)) {
+                case Protocol.MOVE:
+                    int comma = argument.indexOf(',');
+                    if (comma < 0) return null;
+                    return move(Integer.parseInt(argument.substring(0, comma).trim()),
+                            Integer.parseInt(argument.substring(comma + 1).trim()));
+                case Protocol.CHAT: return chat(argument);
+                case Protocol.START: return start(Integer.parseInt(argument.trim()));
+                case Protocol.RESTART:
+                    switch (argument) {
+                        case "": return restart(RESTART_REQUEST);
+                        case "ACCEPT": return restart(RESTART_ACCEPT);
+                        case "REJECT": return restart(RESTART_REJECT);
+                        default: return null;
+                    }
+                case Protocol.DISCONNECT: return disconnect();
+                case Protocol.PLAYER_INFO: return playerInfo(argument);
+                case Protocol.GAME_OVER: return gameOver(argument.isEmpty() ? 0 : Integer.parseInt(argument.trim()));
+                case Protocol.JOIN: return join(argument);
+                case Protocol.WATCH: return watch(argument);
+                case Protocol.PING: return ping(Long.parseLong(argument.trim()));
+                case Protocol.PONG:
+                    int separator = argument.indexOf(',');
+                    if (separator < 0) return null;
+                    return pong(Long.parseLong(argument.substring(0, separator).trim()),
+                            Long.parseLong(argument.substring(separator + 1).trim()));
+                case Protocol.SESSION: return session(Long.parseLong(argument.trim()));
+                case Protocol.RESUME: {
+                    String[] parts = argument.split(",");
+                    if (parts.length != 3) return null;
+                    return resume(Long.parseLong(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                            Integer.parseInt(parts[2].trim()));
+                }
+                case Protocol.RESUMED: return resumed(Integer.parseInt(argument.trim()));
+                case Protocol.WINDOW: return window(Integer.parseInt(argument.trim()));
+                case Protocol.CLOCK: {
+                    String[] parts = argument.split(",");
+                    if (parts.length != 3) return null;
+                    return clock(Integer.parseInt(parts[0].trim()), Long.parseLong(parts[1].trim()),
+                            Long.parseLong(parts[2].trim()));
+                }
+                case Protocol.SNAPSHOT: {
+                    String[] parts = argument.split(",");
+                    short[] moves = new short[parts.length - 1];
+                    for (int i = 0; i < moves.length; i++) {
+                        moves[i] = Short.parseShort(parts[i + 1].trim());
+                    }
+                    int flags = Integer.parseInt(parts[0].trim());
+                    return snapshot(moves, (flags & SNAPSHOT_BLACK_TURN) != 0, (flags & SNAPSHOT_GAME_OVER) != 0);
+                }
+                default: return null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 文本协议中的一行（不含换行符）
+     */
+    public String toText() {
+        switch (type) {
+            case MOVE: return Protocol.MOVE + ":" + first + "," + second;
+            case CHAT: return Protocol.CHAT + ":" + text;
+            case START: return Protocol.START + ":" + first;
+            case RESTART:
+                return first == RESTART_ACCEPT ? Protocol.RESTART + ":ACCEPT"
+                        : first == RESTART_REJECT ? Protocol.RESTART + ":REJECT" : Protocol.RESTART;
+            case DISCONNECT: return Protocol.DISCONNECT;
+            case PLAYER_INFO: return Protocol.PLAYER_INFO + ":" + text;
+            case GAME_OVER: return first == 0 ? Protocol.GAME_OVER : Protocol.GAME_OVER + ":" + first;
+            case PING: return Protocol.PING + ":" + time;
+            case PONG: return Protocol.PONG + ":" + time + "," + peerTime;
+            case SESSION: return Protocol.SESSION + ":" + time;
+            case RESUME: return Protocol.RESUME + ":" + time + "," + first + "," + second;
+            case RESUMED: return Protocol.RESUMED + ":" + first;
+            case WINDOW: return Protocol.WINDOW + ":" + first;
+            case CLOCK: return Protocol.CLOCK + ":" + first + "," + time + "," + peerTime;
+            case WATCH: return Protocol.WATCH + ":" + text;
+            case SNAPSHOT: {
+                StringBuilder line = new StringBuilder(Protocol.SNAPSHOT).append(':').append(first);
+                for (short move : moves) {
+                    line.append(',').append(move);
+                }
+                return line.toString();
+            }
+            default: return Protocol.JOIN + ":" + text;
+        }
+    }
+
+    // --- 二进制协议 ---
+
+    /**
+     * 从 buffer 的 [offset, offset + length) 解码一帧（不含长度字段），不改变 buffer 的位置
+     * 未知类型或格式错误时返回 null
+     */
+    public static Message decode(ByteBuffer buffer, int offset, int length) {
+        int end = offset + length;
+        int p = offset;
+        if (p >= end) return null;
+        byte type = buffer.get(p++);
+        // 对局编号与序号两个 varint，都是非负的 int：第 5 个字节只能带低 3 位，否则会溢出到符号位
+        int[] header = new int[2];
+        for (int i = 0; i < 2; i++) {
+            for (int shift = 0; ; shift += 7) {
+                if (p >= end || shift > 28) return null;
+                byte b = buffer.get(p++);
+                if (shift == 28 && (b & 0xFF) > 0x07) return null;
+                header[i] |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) break;
+            }
+        }
+        int gameId = header[0];
+        int seq = header[1];
+        switch (type) {
+            case MOVE:
+                if (end - p < 2) return null;
+                return new Message(MOVE, gameId, seq, buffer.get(p) & 0xFF, buffer.get(p + 1) & 0xFF, null,
+                        end - p >= 10 ? buffer.getLong(p + 2) : NO_TIME, NO_TIME, null);
+            case PING:
+            case SESSION:
+                if (end - p < 8) return null;
+                return new Message(type, gameId, seq, 0, 0, null, buffer.getLong(p), NO_TIME, null);
+            case PONG:
+                if (end - p < 16) return null;
+                return new Message(PONG, gameId, seq, 0, 0, null, buffer.getLong(p), buffer.getLong(p + 8), null);
+            case RESUME:
+                if (end - p < 13) return null;
+                return new Message(RESUME, gameId, seq, buffer.get(p + 8) & 0xFF, buffer.getInt(p + 9), null,
+                        buffer.getLong(p), NO_TIME, null);
+            case CLOCK:
+                if (end - p < 17) return null;
+                return new Message(CLOCK, gameId, seq, buffer.get(p) & 0xFF, 0, null, buffer.getLong(p + 1),
+                        buffer.getLong(p + 9), null);
+            case RESUMED:
+            case WINDOW:
+                if (end - p < 4) return null;
+                return new Message(type, gameId, seq, buffer.getInt(p), 0, null, NO_TIME, NO_TIME, null);
+            case SNAPSHOT: {
+                if (end - p < 1 || (end - p - 1) % 2 != 0) return null;
+                short[] moves = new short[(end - p - 1) / 2];
+                for (int i = 0; i < moves.length; i++) {
+                    moves[i] = buffer.getShort(p + 1 + i * 2);
+                }
+                return new Message(SNAPSHOT, gameId, seq, buffer.get(p) & 0xFF, 0, null, NO_TIME, NO_TIME, moves);
+            }
+            case START:
+            case RESTART:
+                if (end - p < 1) return null;
+                return new Message(type, gameId, seq, buffer.get(p) & 0xFF, 0, null, NO_TIME, NO_TIME, null);
+            case GAME_OVER:
+                return new Message(GAME_OVER, gameId, seq, end - p >= 1 ? buffer.get(p) & 0xFF : 0, 0, null,
+                        NO_TIME, NO_TIME, null);
+            case DISCONNECT:
+                return new Message(type, gameId, seq, 0, 0, null, NO_TIME, NO_TIME, null);
+            case CHAT:
+            case PLAYER_INFO:
+            case JOIN:
+            case WATCH:
+                return new Message(type, gameId, seq, 0, 0, utf8(buffer, p, end - p), NO_TIME, NO_TIME, null);
+            default:
+                return null;
+        }
+    }
+
+    private static String utf8(ByteBuffer buffer, int offset, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 编码后的字节：文本为一行（含换行符），二进制为完整的一帧（含长度字段）
+     * 返回的是缓存的数组，调用方不得修改
+     */
+    public byte[] bytes(boolean binary) {
+        if (binary) {
+            byte[] cached = binaryBytes;
+            if (cached == null) {
+                binaryBytes = cached = encodeBinary();
+            }
+            return cached;
+        }
+        byte[] cached = textBytes;
+        if (cached == null) {
+            textBytes = cached = (toText() + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+        return cached;
+    }
+
+    private byte[] encodeBinary() {
+        byte[] payload;
+        switch (type) {
+            case MOVE:
+                payload = time == NO_TIME ? new byte[]{(byte) first, (byte) second}
+                        : ByteBuffer.allocate(10).put((byte) first).put((byte) second).putLong(time).array();
+                break;
+            case PING: payload = ByteBuffer.allocate(8).putLong(time).array(); break;
+            case PONG: payload = ByteBuffer.allocate(16).putLong(time).putLong(peerTime).array(); break;
+            case SESSION: payload = ByteBuffer.allocate(8).putLong(time).array(); break;
+            case RESUME: payload = ByteBuffer.allocate(13).putLong(time).put((byte) first).putInt(second).array(); break;
+            case RESUMED:
+            case WINDOW: payload = ByteBuffer.allocate(4).putInt(first).array(); break;
+            case CLOCK: payload = ByteBuffer.allocate(17).put((byte) first).putLong(time).putLong(peerTime).array(); break;
+            case SNAPSHOT: {
+                ByteBuffer buffer = ByteBuffer.allocate(1 + moves.length * 2).put((byte) first);
+                for (short move : moves) {
+                    buffer.putShort(move);
+                }
+                payload = buffer.array();
+                break;
+            }
+            case START:
+            case RESTART: payload = new byte[]{(byte) first}; break;
+            case GAME_OVER: payload = first == 0 ? new byte[0] : new byte[]{(byte) first}; break;
+            case CHAT:
+            case PLAYER_INFO:
+            case JOIN:
+            case WATCH: payload = text.getBytes(StandardCharsets.UTF_8); break;
+            default: payload = new byte[0];
+        }
+        int length = 1 + varintLength(gameId) + varintLength(seq) + payload.length;
+        if (length > Protocol.MAX_FRAME) {
+            throw new IllegalArgumentException("消息过长: " + length);
+        }
+        ByteBuffer frame = ByteBuffer.allocate(2 + length);
+        frame.putShort((short) length);
+        frame.put(type);
+        putVarint(frame, gameId);
+        putVarint(frame, seq);
+        frame.put(payload);
+        return frame.array();
+    }
+
+    private static int varintLength(int value) {
+        int length = 1;
+        for (int v = value >>> 7; v != 0; v >>>= 7) {
+            length++;
+        }
+        return length;
+    }
+
+    private static void putVarint(ByteBuffer frame, int value) {
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            frame.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        frame.put((byte) v);
+    }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+}
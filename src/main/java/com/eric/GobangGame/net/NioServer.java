@@ -0,0 +1,207 @@
+package com.eric.GobangGame.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 基于 java.nio 选择器的对战服务器：少量 I/O 线程各持有一个 Selector，以非阻塞方式服务全部连接
+ *
+ * 第一个 I/O 线程同时负责 accept，新连接按轮转分给各线程，此后该连接的读写都只在所属线程上进行。
+ * 其他线程（例如对手所在的线程转发消息）通过任务队列 + wakeup 把工作交给所属线程，
+ * 因此连接状态不需要加锁。每个连接有自己的读缓冲区与发送队列，见 NioSession。
+ * 观众连接的写出进入低优先级队列，每轮 select 之间最多处理 BULK_BATCH 个，
+ * 大量观众的广播不会长时间占住 I/O 线程，棋手的读写总能在两批之间得到处理。
+ */
+public class NioServer implements AutoCloseable {
+
+    private final Lobby lobby;
+    private final ServerSocketChannel serverChannel;
+    private final IoLoop[] loops;
+    private int nextLoop = 0;
+    private volatile boolean tcpNoDelay = true;
+    static final int BULK_BATCH = 32;
+
+    public NioServer(Lobby lobby, int port, int threads) throws IOException {
+        this.lobby = lobby;
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        this.loops = new IoLoop[Math.max(1, threads)];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new IoLoop("gobang-nio-" + i);
+        }
+        serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public void start() {
+        for (IoLoop loop : loops) {
+            loop.thread.start();
+        }
+    }
+
+    /**
+     * 是否对新连接关闭 Nagle 算法（默认关闭，小消息立即发出）
+     */
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (IoLoop loop : loops) {
+            loop.running = false;
+            loop.selector.wakeup();
+        }
+        for (IoLoop loop : loops) {
+            try {
+                loop.thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        serverChannel.close();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, tcpNoDelay);
+            IoLoop loop = loops[nextLoop];
+            nextLoop = (nextLoop + 1) % loops.length;
+            SocketChannel accepted = channel;
+            loop.execute(() -> loop.register(accepted));
+        }
+    }
+
+    /**
+     * 一个 I/O 线程：select 循环 + 来自其他线程的任务队列
+     */
+    final class IoLoop implements Runnable {
+
+        final Selector selector;
+        final Thread thread;
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<Runnable> bulkTasks = new ConcurrentLinkedQueue<>();
+        private volatile boolean running = true;
+
+        IoLoop(String name) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, name);
+        }
+
+        /**
+         * 在本线程上执行；从其他线程调用时排入队列并唤醒 select
+         */
+        void execute(Runnable task) {
+            if (Thread.currentThread() == thread) {
+                task.run();
+            } else {
+                tasks.add(task);
+                selector.wakeup();
+            }
+        }
+
+        /**
+         * 低优先级任务（观众的写出）：总是排队，由 select 循环分批执行
+         */
+        void executeBulk(Runnable task) {
+            bulkTasks.add(task);
+            if (Thread.currentThread() != thread) {
+                selector.wakeup();
+            }
+        }
+
+        void register(SocketChannel channel) {
+            try {
+                NioSession session = new NioSession(lobby, channel, this);
+                session.setKey(channel.register(selector, SelectionKey.OP_READ, session));
+                session.startHeartbeat();
+            } catch (IOException e) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        /**
+         * 执行一个排队的任务；任务出错不影响本线程上的其他连接
+         */
+        private void runTask(Runnable task) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    if (bulkTasks.isEmpty()) {
+                        selector.select();
+                    } else {
+                        selector.selectNow();
+                    }
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        runTask(task);
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                            continue;
+                        }
+                        NioSession session = (NioSession) key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                session.read();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                session.flush();
+                            }
+                        } catch (RuntimeException e) {
+                            // 只断开出错的连接，同一线程上的其他连接照常服务
+                            e.printStackTrace();
+                            session.closeNow();
+                        }
+                    }
+                    for (int i = 0; i < BULK_BATCH && (task = bulkTasks.poll()) != null; i++) {
+                        runTask(task);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("I/O 线程异常退出: " + e.getMessage());
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.attachment() instanceof NioSession) {
+                        ((NioSession) key.attachment()).closeNow();
+                    }
+                }
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.eric.GobangGame.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * NIO 服务器上的一个连接：读缓冲区按行或按帧切分，发送队列在所属 I/O 线程上写出
+ *
+ * 读缓冲区初始 512 字节，遇到长行或长帧时倍增到能容纳最大的一行或一帧为止；
+ * 发送队列积压超过 MAX_QUEUED 字节（对端长期不读）时断开该连接，不让慢客户端占用服务器内存。
+ */
+class NioSession extends Session {
+
+    private static final int INITIAL_BUFFER = 512;
+    static final int MAX_QUEUED = 256 * 1024;
+
+    private final SocketChannel channel;
+    private final NioServer.IoLoop loop;
+    private SelectionKey key;
+    private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER);
+    private final ConcurrentLinkedQueue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedBytes = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile boolean closing = false;
+    private boolean closed = false;
+
+    NioSession(Lobby lobby, SocketChannel channel, NioServer.IoLoop loop) {
+        super(lobby);
+        this.channel = channel;
+        this.loop = loop;
+    }
+
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    /**
+     * 可读：读入缓冲区，把其中完整的行（文本模式）或帧（二进制模式）逐一交给协议处理
+     * 握手行之后的字节可能已经在同一次读取中到达，因此每处理一条都重新检查模式
+     */
+    void read() {
+        int count;
+        try {
+            count = channel.read(readBuffer);
+        } catch (IOException e) {
+            count = -1;
+        }
+        if (count < 0) {
+            closeNow();
+            return;
+        }
+        readBuffer.flip();
+        int start = readBuffer.position();
+        int limit = readBuffer.limit();
+        while (!closed && start < limit) {
+            if (isBinary()) {
+                if (limit - start < 2) break;
+                int length = readBuffer.getShort(start) & 0xFFFF;
+                if (length > Protocol.MAX_FRAME) {
+                    closeNow();
+                    return;
+                }
+                if (limit - start - 2 < length) break;
+                Message message = Message.decode(readBuffer, start + 2, length);
+                start += 2 + length;
+                if (message != null) {
+                    onMessage(message);
+                }
+            } else {
+                int newline = -1;
+                for (int i = start; i < limit; i++) {
+                    if (readBuffer.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline < 0) break;
+                int end = newline > start && readBuffer.get(newline - 1) == '\r' ? newline - 1 : newline;
+                String line = new String(readBuffer.array(), start, end - start, StandardCharsets.UTF_8);
+                start = newline + 1;
+                onLine(line);
+            }
+        }
+        if (closed) {
+            return;
+        }
+        readBuffer.position(start);
+        readBuffer.compact();
+        if (!readBuffer.hasRemaining()) {
+            if (readBuffer.capacity() >= Protocol.MAX_BUFFER) {
+                closeNow();
+                return;
+            }
+            ByteBuffer larger = ByteBuffer.allocate(Math.min(readBuffer.capacity() * 2, Protocol.MAX_BUFFER));
+            readBuffer.flip();
+            larger.put(readBuffer);
+            readBuffer = larger;
+        }
+    }
+
+    @Override
+    protected void sendBytes(byte[] bytes) {
+        if (closing) {
+            return;
+        }
+        if (queuedBytes.addAndGet(bytes.length) > MAX_QUEUED) {
+            closing = true;
+            loop.execute(this::closeNow);
+            return;
+        }
+        // 数组可能与其他连接共用，wrap 只创建各自的读写位置
+        outbound.add(ByteBuffer.wrap(bytes));
+        if (flushScheduled.compareAndSet(false, true)) {
+            if (isObserver()) {
+                // 观众的写出排在棋手之后
+                loop.executeBulk(this::flush);
+            } else {
+                loop.execute(this::flush);
+            }
+        }
+    }
+
+    /**
+     * 在所属 I/O 线程上尽量写出发送队列；写不完时关注 OP_WRITE，等可写时再继续
+     */
+    void flush() {
+        flushScheduled.set(false);
+        if (closed) {
+            return;
+        }
+        try {
+            ByteBuffer head;
+            while ((head = outbound.peek()) != null) {
+                channel.write(head);
+                if (head.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                outbound.poll();
+                queuedBytes.addAndGet(-head.limit());
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            if (closing) {
+                closeNow();
+            }
+        } catch (IOException e) {
+            closeNow();
+        }
+    }
+
+    @Override
+    public void close() {
+        closing = true;
+        loop.execute(this::flush);
+    }
+
+    @Override
+    long queuedBytes() {
+        return queuedBytes.get();
+    }
+
+    @Override
+    public void abort() {
+        closing = true;
+        loop.execute(this::closeNow);
+    }
+
+    /**
+     * 立即关闭（只在所属 I/O 线程上调用）
+     */
+    void closeNow() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        outbound.clear();
+        onClosed();
+    }
+}
@@ -0,0 +1,82 @@
+package com.eric.GobangGame.net;
+
+import com.eric.GobangGame.core.Rules;
+
+/**
+ * 服务器与客户端之间的协议：每行一条消息，"类型:参数"
+ * 与点对点对战（GobangGameMultiPlayer）使用的消息相同，另加客户端可选的 JOIN
+ *
+ * 握手：新版客户端连接后先发送一行 "HELLO:2"，对方（服务器或点对点的主机）同样回复 "HELLO:2"，
+ * 此后双方改用 Message 中定义的二进制帧。旧版的一方不认识 HELLO，会直接发送其他消息，
+ * 新版一方见到第一行不是同版本的 HELLO 就继续使用文本协议，并照常处理这一行（版本不同的 HELLO 被忽略）。
+ */
+public final class Protocol {
+
+    public static final String MOVE = "MOVE";
+    public static final String CHAT = "CHAT";
+    public static final String START = "START";
+    public static final String RESTART = "RESTART";
+    public static final String DISCONNECT = "DISCONNECT";
+    public static final String PLAYER_INFO = "PLAYER_INFO";
+    public static final String GAME_OVER = "GAME_OVER";
+    // 客户端在 PLAYER_INFO 之前发送 JOIN:房间名 进入指定房间，不发送则由大厅自动配对
+    public static final String JOIN = "JOIN";
+    // 客户端发送 WATCH:房间名 观看该房间的对局（代替 JOIN 与 PLAYER_INFO），此后只接收局面与落子
+    public static final String WATCH = "WATCH";
+    public static final String HELLO = "HELLO";
+    // 心跳与往返时间测量，只在二进制连接上发送
+    public static final String PING = "PING";
+    public static final String PONG = "PONG";
+    // 断线续局：会话令牌、续局请求与应答、整局快照，只在二进制连接上发送
+    public static final String SESSION = "SESSION";
+    public static final String RESUME = "RESUME";
+    public static final String RESUMED = "RESUMED";
+    public static final String SNAPSHOT = "SNAPSHOT";
+    // 多路复用连接上按对局的流量控制（见 GameClient），只在二进制连接上发送
+    public static final String WINDOW = "WINDOW";
+    // 服务器的棋钟（见 GameClock），只在二进制连接上发送
+    public static final String CLOCK = "CLOCK";
+    // 二进制帧协议的版本号（版本 2 在帧头加入序号）
+    public static final int BINARY_VERSION = 2;
+
+    public static final int DEFAULT_PORT = 12345;
+    // 单行消息的最大字节数，超出视为异常连接
+    public static final int MAX_LINE = 8192;
+    // 二进制帧（不含长度字段）的最大字节数：最大棋盘的整局快照（每步 2 字节）也能放进一帧
+    public static final int MAX_FRAME = Math.max(MAX_LINE, 2 * Rules.MAX_SIZE * Rules.MAX_SIZE + 16);
+    // 服务器读缓冲区的上限（一行或一帧，含长度字段）
+    public static final int MAX_BUFFER = Math.max(MAX_LINE, MAX_FRAME) + 2;
+
+    private Protocol() {
+    }
+
+    /**
+     * 握手行
+     */
+    public static String hello() {
+        return HELLO + ":" + BINARY_VERSION;
+    }
+
+    /**
+     * 是否为同版本的握手行（对方支持同一版本的二进制帧）
+     */
+    public static boolean isHello(String line) {
+        return line.equals(hello());
+    }
+
+    /**
+     * 消息类型（第一个冒号之前的部分）
+     */
+    public static String type(String line) {
+        int colon = line.indexOf(':');
+        return colon < 0 ? line : line.substring(0, colon);
+    }
+
+    /**
+     * 消息参数（第一个冒号之后的全部内容，可以包含冒号），没有参数时为空串
+     */
+    public static String argument(String line) {
+        int colon = line.indexOf(':');
+        return colon < 0 ? "" : line.substring(colon + 1);
+    }
+}
@@ -0,0 +1,66 @@
+package com.eric.GobangGame.net;
+
+/**
+ * Glicko 等级分（不可变）：分数 + 评分偏差（RD，越小越可信）
+ *
+ * 新玩家从 1500 ± 350 开始，每下一盘按 Glicko-1 的单局公式更新，偏差随对局数减小，最低 MIN_DEVIATION。
+ * 偏差大的一方分数变化大，对手偏差大时这一盘的权重小。
+ */
+public final class Rating {
+
+    public static final double INITIAL_RATING = 1500;
+    public static final double INITIAL_DEVIATION = 350;
+    public static final double MIN_DEVIATION = 30;
+
+    private static final double Q = Math.log(10) / 400;
+
+    private final double rating;
+    private final double deviation;
+    private final int games;
+
+    public Rating(double rating, double deviation, int games) {
+        this.rating = rating;
+        this.deviation = deviation;
+        this.games = games;
+    }
+
+    public static Rating initial() {
+        return new Rating(INITIAL_RATING, INITIAL_DEVIATION, 0);
+    }
+
+    /**
+     * 对手偏差的折减系数 g(RD)
+     */
+    private static double g(double deviation) {
+        return 1 / Math.sqrt(1 + 3 * Q * Q * deviation * deviation / (Math.PI * Math.PI));
+    }
+
+    /**
+     * 对 opponent 的期望得分（0..1）
+     */
+    public double expectedScore(Rating opponent) {
+        return 1 / (1 + Math.pow(10, -g(opponent.deviation) * (rating - opponent.rating) / 400));
+    }
+
+    /**
+     * 与 opponent 下完一盘后的等级分；score 为 1 胜、0.5 平、0 负
+     */
+    public Rating update(Rating opponent, double score) {
+        double g = g(opponent.deviation);
+        double expected = expectedScore(opponent);
+        double dSquaredInverse = Q * Q * g * g * expected * (1 - expected);
+        double precision = 1 / (deviation * deviation) + dSquaredInverse;
+        double newRating = rating + Q / precision * g * (score - expected);
+        double newDeviation = Math.max(MIN_DEVIATION, Math.sqrt(1 / precision));
+        return new Rating(newRating, newDeviation, games + 1);
+    }
+
+    public double getRating() { return rating; }
+    public double getDeviation() { return deviation; }
+    public int getGames() { return games; }
+
+    @Override
+    public String toString() {
+        return Math.round(rating) + " ±" + Math.round(deviation);
+    }
+}
@@ -0,0 +1,69 @@
+package com.eric.GobangGame.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 服务器上所有玩家的等级分，按玩家名字登记（名字即身份，不做认证）
+ *
+ * 更新只替换不可变的 Rating，读取不加锁；同一时刻一位玩家可能在多盘对局中，
+ * 用 ConcurrentHashMap.compute 保证各盘的结果依次累加而不互相覆盖。
+ * 文件格式为 properties：名字=分数,偏差,对局数。
+ */
+public class RatingTable {
+
+    private final ConcurrentHashMap<String, Rating> ratings = new ConcurrentHashMap<>();
+
+    public Rating get(String name) {
+        return ratings.getOrDefault(name, Rating.initial());
+    }
+
+    /**
+     * 记录一盘对局的结果（Message.RESULT_BLACK / RESULT_WHITE / RESULT_DRAW）；双方同名时不计
+     * 双方都按对局前对方的分数更新
+     */
+    public void record(String black, String white, int result) {
+        if (black.equals(white)) {
+            return;
+        }
+        Rating blackBefore = get(black);
+        Rating whiteBefore = get(white);
+        double blackScore = result == Message.RESULT_BLACK ? 1 : result == Message.RESULT_WHITE ? 0 : 0.5;
+        ratings.compute(black, (name, rating) -> (rating != null ? rating : Rating.initial()).update(whiteBefore, blackScore));
+        ratings.compute(white, (name, rating) -> (rating != null ? rating : Rating.initial()).update(blackBefore, 1 - blackScore));
+    }
+
+    public int size() {
+        return ratings.size();
+    }
+
+    public void load(Path file) throws IOException {
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            props.load(in);
+        }
+        for (String name : props.stringPropertyNames()) {
+            String[] parts = props.getProperty(name).split(",");
+            try {
+                ratings.put(name, new Rating(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()),
+                        Integer.parseInt(parts[2].trim())));
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("无效的等级分 " + name + "=" + props.getProperty(name), e);
+            }
+        }
+    }
+
+    public void save(Path file) throws IOException {
+        Properties props = new Properties();
+        ratings.forEach((name, rating) -> props.setProperty(name,
+                String.format("%.1f,%.1f,%d", rating.getRating(), rating.getDeviation(), rating.getGames())));
+        try (OutputStream out = Files.newOutputStream(file)) {
+            props.store(out, "GobangGame ratings");
+        }
+    }
+}
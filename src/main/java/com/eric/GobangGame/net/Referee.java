@@ -0,0 +1,181 @@
+package com.eric.GobangGame.net;
+
+import com.eric.GobangGame.core.MoveLog;
+import com.eric.GobangGame.core.RunTracker;
+import com.eric.GobangGame.core.Rules;
+
+import java.util.Arrays;
+
+/**
+ * 房间的权威局面：服务器按它检查双方的消息（轮次、越界、占位、重新开始是否经对方同意），
+ * 用 RunTracker 常数时间判定胜负与平局，并以它为准给出官方结果
+ *
+ * 只在房间锁内访问。检查一步只有几次数组读写，不创建对象，每步的额外开销是微秒级。
+ * 不合法的消息不转发；带序号的改为把权威局面的快照带上同一序号转给对方，对方的序号因此保持连续。
+ * 快照也发回给发送方纠正其棋盘（见 Room.relay）。补发的消息（序号不大于已检查过的）不再重新检查，
+ * 而是与该序号当初检查过的消息逐字节比较：相同且当初合法才原样转发，否则（内容不同、当初不合法、
+ * 或已超出保留的最近 ResendBuffer.DEFAULT_CAPACITY 条）改转带同一序号的权威快照，
+ * 因此不能借旧序号绕过检查发出结果或同意重新开始。
+ * 服务器重启后重建的房间不知道此前的着法，在收到棋手的整局快照或重新开始之前不做检查。
+ * 协议中没有协商规则，服务器按自由规则判定；客户端开始联机对局时也切换到自由规则、连接期间不能切换
+ * （GobangGame.useOnlineRules），因此双方本地的胜负与官方结果一致。
+ */
+final class Referee {
+
+    private final int size;
+    private final RunTracker tracker;
+    // 棋盘（行优先），Rules.EMPTY / BLACK / WHITE
+    private final byte[] board;
+    private final short[] moves;
+    private int moveCount = 0;
+    private boolean blackTurn = true;
+    // 官方结果：0 未结束，否则为 Message.RESULT_BLACK / RESULT_WHITE / RESULT_DRAW
+    private int result = 0;
+    // 是否掌握完整局面
+    private boolean synced;
+    // 提出重新开始、尚未得到答复的一方，0 表示没有
+    private int restartRequestedBy = 0;
+    // 双方已检查过的最大序号
+    private final int[] lastSeq = new int[3];
+    // 双方最近检查过的带序号消息（按序号取模存放，下标为颜色），以及它们当初是否合法
+    private final Message[][] judged = new Message[3][ResendBuffer.DEFAULT_CAPACITY];
+    private final boolean[][] accepted = new boolean[3][ResendBuffer.DEFAULT_CAPACITY];
+
+    Referee(int size, boolean synced) {
+        this.size = size;
+        this.synced = synced;
+        this.tracker = new RunTracker(size, size);
+        this.board = new byte[size * size];
+        this.moves = new short[size * size];
+    }
+
+    /**
+     * 检查 color 一方发出的消息并更新局面，返回应转发给对方的消息：
+     * 合法时为原消息，否则为带同一序号的权威快照（不带序号的消息返回 null，不转发）
+     */
+    Message judge(Message message, int color) {
+        int seq = message.getSeq();
+        if (seq == 0) {
+            return accept(message, color) ? message : null;
+        }
+        if (seq < 0) {
+            // 合法的序号都是正数（Message.decode 不会给出负数，这里不依赖它）
+            return snapshot().withSeq(seq);
+        }
+        int slot = seq % ResendBuffer.DEFAULT_CAPACITY;
+        if (seq <= lastSeq[color]) {
+            return seq > lastSeq[color] - ResendBuffer.DEFAULT_CAPACITY && accepted[color][slot]
+                    && Arrays.equals(judged[color][slot].bytes(true), message.bytes(true))
+                    ? message : snapshot().withSeq(seq);
+        }
+        lastSeq[color] = seq;
+        boolean legal = accept(message, color);
+        judged[color][slot] = message;
+        accepted[color][slot] = legal;
+        return legal ? message : snapshot().withSeq(seq);
+    }
+
+    private boolean accept(Message message, int color) {
+        switch (message.getType()) {
+            case Message.MOVE:
+                return !synced || place(message.getRow(), message.getCol(), color);
+            case Message.GAME_OVER:
+                // 结果只由服务器判定
+                return !synced || result != 0;
+            case Message.RESTART:
+                switch (message.getValue()) {
+                    case Message.RESTART_REQUEST:
+                        restartRequestedBy = color;
+                        return true;
+                    case Message.RESTART_ACCEPT:
+                        if (synced && restartRequestedBy != Rules.opponent(color)) {
+                            return false;
+                        }
+                        reset();
+                        return true;
+                    default:
+                        if (restartRequestedBy == Rules.opponent(color)) {
+                            restartRequestedBy = 0;
+                        }
+                        return true;
+                }
+            case Message.SNAPSHOT:
+                // 已掌握局面时以服务器为准；否则按快照重放（全部合法才采用），照常转发
+                if (synced) {
+                    return false;
+                }
+                restore(message.getMoves());
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * 当前一方在 (row, col) 落子；不合法（已结束、不是他的回合、越界、已有棋子）时返回 false
+     */
+    private boolean place(int row, int col, int color) {
+        if (result != 0 || color != (blackTurn ? Rules.BLACK : Rules.WHITE) || !inBounds(row, col)
+                || board[row * size + col] != Rules.EMPTY) {
+            return false;
+        }
+        board[row * size + col] = (byte) color;
+        moves[moveCount++] = MoveLog.encode(row, col, color, size);
+        if (tracker.place(row, col, color) >= 5) {
+            result = color;
+        } else if (tracker.isFull()) {
+            result = Message.RESULT_DRAW;
+        } else {
+            blackTurn = !blackTurn;
+        }
+        return true;
+    }
+
+    private void restore(short[] snapshotMoves) {
+        reset();
+        for (short move : snapshotMoves) {
+            int index = MoveLog.index(move);
+            if (index >= board.length || !place(index / size, index % size, MoveLog.player(move))) {
+                reset();
+                synced = false;
+                return;
+            }
+        }
+    }
+
+    private void reset() {
+        Arrays.fill(board, (byte) Rules.EMPTY);
+        tracker.clear();
+        moveCount = 0;
+        blackTurn = true;
+        result = 0;
+        restartRequestedBy = 0;
+        synced = true;
+    }
+
+    private boolean inBounds(int row, int col) {
+        return row >= 0 && row < size && col >= 0 && col < size;
+    }
+
+    /**
+     * color 一方超时：对局未结束时判对方胜，返回官方结果
+     */
+    int flag(int color) {
+        if (result == 0) {
+            result = Rules.opponent(color);
+            restartRequestedBy = 0;
+        }
+        return result;
+    }
+
+    /**
+     * 权威局面的快照（序号为 0）
+     */
+    Message snapshot() {
+        return Message.snapshot(Arrays.copyOf(moves, moveCount), blackTurn, result != 0);
+    }
+
+    /** 官方结果，0 表示未结束 */
+    int getResult() { return result; }
+    int getMoveCount() { return moveCount; }
+}
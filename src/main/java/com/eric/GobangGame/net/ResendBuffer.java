@@ -0,0 +1,77 @@
+package com.eric.GobangGame.net;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一方的断线续局状态：为发出的对局消息分配序号并保留最近的若干条，同时记录已收到的对方最大序号
+ *
+ * 序号在两位棋手之间端到端编号，服务器原样转发，因此服务器重启也不影响续局。
+ * 重连后双方交换各自已收到的最大序号（RESUME / RESUMED），只补发对方缺少的消息；
+ * 缺口超出保留范围时改发一条 SNAPSHOT（整局着法），不回放完整历史。
+ * TCP 保证顺序，收到的序号只会是下一条、重复（补发）或跳号（断线期间服务器丢弃了中间的消息，稍后会补发）。
+ */
+public class ResendBuffer {
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final Message[] ring;
+    private int lastSent = 0;
+    private int lastReceived = 0;
+
+    public ResendBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ResendBuffer(int capacity) {
+        this.ring = new Message[capacity];
+    }
+
+    /**
+     * 为一条待发送的消息分配下一个序号并保留，返回带序号的消息
+     */
+    public synchronized Message stamp(Message message) {
+        Message sequenced = message.withSeq(++lastSent);
+        ring[lastSent % ring.length] = sequenced;
+        return sequenced;
+    }
+
+    /**
+     * 对方已收到 peerLastReceived 为止的消息时需要补发的消息；缺口超出保留范围时返回 null（改发快照）
+     */
+    public synchronized List<Message> since(int peerLastReceived) {
+        int from = Math.max(peerLastReceived, 0) + 1;
+        if (from <= lastSent - ring.length) {
+            return null;
+        }
+        List<Message> missing = new ArrayList<>(Math.max(0, lastSent - from + 1));
+        for (int seq = from; seq <= lastSent; seq++) {
+            missing.add(ring[seq % ring.length]);
+        }
+        return missing;
+    }
+
+    /**
+     * 收到一条消息时调用：序号为 0（不参与重传）或恰好是下一条时返回 true，重复或跳号时返回 false（丢弃）
+     */
+    public synchronized boolean accept(int seq) {
+        if (seq == 0) {
+            return true;
+        }
+        if (seq != lastReceived + 1) {
+            return false;
+        }
+        lastReceived = seq;
+        return true;
+    }
+
+    /**
+     * 收到快照：快照之前的消息都不再需要
+     */
+    public synchronized void skipTo(int seq) {
+        lastReceived = Math.max(lastReceived, seq);
+    }
+
+    public synchronized int getLastSent() { return lastSent; }
+    public synchronized int getLastReceived() { return lastReceived; }
+}
@@ -0,0 +1,429 @@
+package com.eric.GobangGame.net;
+
+import com.eric.GobangGame.core.Rules;
+
+/**
+ * 一盘对局的房间：先进入的玩家执黑，第二位执白，满员后通知双方开始并转发双方的消息
+ * 双方的连接可能在不同的线程上，成员变化在房间锁内完成，发送在锁外进行
+ *
+ * 双方都使用二进制协议时，开始后向每一方发出自己座位的会话令牌（SESSION，两个座位的令牌不同）。此后连接意外断开只空出座位，
+ * 在 Lobby.RESUME_GRACE_SECONDS 内带令牌重连（RESUME）即可回到令牌对应的座位（不看请求中的颜色，
+ * 对手知道的只有自己的令牌，无法占用对方的座位），续局请求换上对手的令牌后转给对手，
+ * 由双方自行补发缺少的消息（见 ResendBuffer）；超时未重连则通知对手并作废房间。
+ * 观众（WATCH）不占座位，双方的落子转给对手之后再交给 Audience 在广播线程上分发。
+ * 服务器持有权威局面（Referee）：每条对局消息先在房间锁内检查，不合法的不转发，
+ * 改发权威快照纠正双方；分出胜负或平局时由服务器向双方与观众发出带结果的 GAME_OVER。
+ * 大厅配对的房间计分（rated）：每盘的官方结果记入 RatingTable，对局中途离开或超时未重连按负计。
+ * 服务器设置了棋钟时每盘计时（GameClock）：每步之后把双方剩余时间（CLOCK）发给使用二进制协议的一方，
+ * 一方超时由服务器判负并像分出胜负一样发出 GAME_OVER。
+ */
+public class Room {
+
+    private final String name;
+    private final Lobby lobby;
+    private Session black;
+    private Session white;
+    // 有人离开后房间作废，不再接受加入
+    private boolean finished = false;
+    // 房间在大厅中的续局编号（令牌的高 32 位），0 表示不支持续局
+    private long roomKey;
+    // 双方座位的会话令牌；按编号重建的房间不知道令牌，由第一个带该座位令牌重连的连接确定
+    private long blackToken;
+    private long whiteToken;
+    // 有座位空出时等待重连的超时任务
+    private TimingWheel.Timeout expiry;
+    private final Audience audience;
+    private final Referee referee;
+    // 棋钟，null 表示不计时
+    private final GameClock clock;
+    private final boolean rated;
+    // 开始时双方的名字（计分按名字登记）
+    private String blackName;
+    private String whiteName;
+
+    Room(String name, Lobby lobby) {
+        this(name, lobby, 0);
+    }
+
+    Room(String name, Lobby lobby, long roomKey) {
+        this(name, lobby, roomKey, false);
+    }
+
+    Room(String name, Lobby lobby, long roomKey, boolean rated) {
+        this.name = name;
+        this.lobby = lobby;
+        this.roomKey = roomKey;
+        this.rated = rated;
+        this.audience = new Audience(lobby, name);
+        // 按编号重建的房间不知道此前的着法
+        this.referee = new Referee(lobby.getBoardSize(), roomKey == 0);
+        // 按编号重建的房间不知道双方的用时，不计时
+        this.clock = roomKey == 0 ? lobby.newClock(this::flag) : null;
+    }
+
+    /**
+     * 加入房间，已满或已作废时返回 false
+     */
+    synchronized boolean add(Session session) {
+        if (finished) {
+            return false;
+        }
+        if (black == null) {
+            black = session;
+        } else if (white == null) {
+            white = session;
+        } else {
+            return false;
+        }
+        session.setRoom(this);
+        if (white != null) {
+            start();
+        }
+        return true;
+    }
+
+    /**
+     * 通知双方对手的名字与执子颜色（START 的参数是对方的颜色，与点对点对战中主机发出的消息一致）
+     * 计分的房间在名字后附上对手的等级分
+     */
+    private void start() {
+        blackName = black.getName();
+        whiteName = white.getName();
+        black.send(Message.playerInfo(displayName(whiteName)));
+        white.send(Message.playerInfo(displayName(blackName)));
+        black.send(Message.start(2));
+        white.send(Message.start(1));
+        if (black.isBinary() && white.isBinary()) {
+            roomKey = lobby.register(this);
+            blackToken = lobby.seatToken(roomKey, Rules.BLACK);
+            whiteToken = lobby.seatToken(roomKey, Rules.WHITE);
+            black.send(Message.session(blackToken));
+            white.send(Message.session(whiteToken));
+        }
+        if (clock != null) {
+            clock.start(Rules.BLACK);
+            sendClock(black, white);
+        }
+    }
+
+    /**
+     * 把双方剩余时间发给支持 CLOCK 的一方（在房间锁内调用，发送不阻塞）
+     */
+    private void sendClock(Session first, Session second) {
+        Message message = clock.message();
+        for (Session player : new Session[] {first, second}) {
+            if (player != null && player.isBinary()) {
+                player.send(message);
+            }
+        }
+    }
+
+    /**
+     * 棋钟到期（时间轮线程）：确认 color 一方确实超时后判负
+     */
+    private void flag(int color) {
+        Session first;
+        Session second;
+        int result;
+        synchronized (this) {
+            if (finished || !clock.isFlagged(color) || referee.getResult() != 0) {
+                return;
+            }
+            result = referee.flag(color);
+            clock.stop();
+            first = black;
+            second = white;
+            sendClock(first, second);
+        }
+        rate(result);
+        Message gameOver = Message.gameOver(result);
+        for (Session player : new Session[] {first, second}) {
+            if (player != null) {
+                player.send(gameOver);
+            }
+        }
+        audience.publish(gameOver, color);
+    }
+
+    private String displayName(String player) {
+        return rated ? player + " (" + lobby.getRatings().get(player) + ")" : player;
+    }
+
+    /**
+     * 计分的房间记录一盘的结果（0 表示没有结果可计）
+     */
+    private void rate(int result) {
+        if (rated && result != 0) {
+            lobby.getRatings().record(blackName, whiteName, result);
+        }
+    }
+
+    /**
+     * 对局进行中 color 一方离开时的判负结果（在房间锁内调用）
+     */
+    private int forfeit(int color) {
+        if (!rated || blackName == null || referee.getResult() != 0 || referee.getMoveCount() == 0) {
+            return 0;
+        }
+        return color == 1 ? Message.RESULT_WHITE : Message.RESULT_BLACK;
+    }
+
+    /**
+     * 带令牌重连：回到令牌对应的座位（仍占着座位的旧连接被关闭），并把续局请求换上对手的令牌转给对手
+     * 房间已作废或令牌与座位不符时返回 false
+     */
+    boolean resume(Session session, Message request) {
+        long token = request.getToken();
+        int color = Lobby.seatOf(token);
+        Session replaced;
+        Session other;
+        Message forward;
+        synchronized (this) {
+            if (finished) {
+                return false;
+            }
+            long expected = color == Rules.BLACK ? blackToken : whiteToken;
+            if (expected == 0) {
+                // 服务器重启后重建的房间：第一个带该座位令牌的连接确定令牌
+                expected = token;
+                if (color == Rules.BLACK) {
+                    blackToken = token;
+                } else {
+                    whiteToken = token;
+                }
+            }
+            if (expected != token) {
+                return false;
+            }
+            if (color == Rules.BLACK) {
+                replaced = black;
+                black = session;
+                other = white;
+            } else {
+                replaced = white;
+                white = session;
+                other = black;
+            }
+            forward = Message.resume(color == Rules.BLACK ? whiteToken : blackToken, color, request.getLastReceived());
+            session.setRoom(this);
+            if (replaced == session) {
+                replaced = null;
+            } else if (replaced != null) {
+                replaced.setRoom(null);
+            }
+            awaitReconnect();
+        }
+        if (replaced != null) {
+            // 半开连接（例如 Wi-Fi 中断后对端已换了连接）
+            replaced.abort();
+        }
+        if (other != null) {
+            other.send(forward);
+        }
+        return true;
+    }
+
+    /**
+     * 连接意外断开：有令牌时空出座位等待重连，否则与 leave 相同
+     */
+    void suspend(Session session) {
+        synchronized (this) {
+            if (roomKey != 0 && !finished && (session == black || session == white)) {
+                if (session == black) {
+                    black = null;
+                } else {
+                    white = null;
+                }
+                session.setRoom(null);
+                awaitReconnect();
+                return;
+            }
+        }
+        leave(session);
+    }
+
+    /**
+     * 有座位空着时开始计时，满员时取消（在房间锁内调用）
+     */
+    private void awaitReconnect() {
+        if (black != null && white != null) {
+            if (expiry != null) {
+                expiry.cancel();
+                expiry = null;
+            }
+        } else if (expiry == null) {
+            expiry = lobby.schedule(this::expire, Lobby.RESUME_GRACE_SECONDS);
+        }
+    }
+
+    /**
+     * 重连超时：通知仍在的一方，房间作废
+     */
+    private void expire() {
+        Session other;
+        int result = 0;
+        synchronized (this) {
+            expiry = null;
+            if (finished || black != null && white != null) {
+                return;
+            }
+            other = black != null ? black : white;
+            if (other != null) {
+                // 未回来的一方判负；双方都未回来不计
+                result = forfeit(other == black ? 2 : 1);
+                other.setRoom(null);
+            }
+            black = null;
+            white = null;
+            finished = true;
+            if (clock != null) {
+                clock.stop();
+            }
+        }
+        rate(result);
+        if (other != null) {
+            other.send(Message.disconnect());
+        }
+        audience.close();
+        lobby.removeRoom(this);
+    }
+
+    /**
+     * 经裁判检查后把一方的消息转给另一方（按对方的协议编码，同为二进制时直接共用编码结果）
+     */
+    void relay(Session from, Message message) {
+        Session to;
+        int color;
+        Message forward;
+        Message correction = null;
+        Message result = null;
+        synchronized (this) {
+            if (from == black) {
+                to = white;
+                color = 1;
+            } else if (from == white) {
+                to = black;
+                color = 2;
+            } else {
+                return;
+            }
+            int before = referee.getResult();
+            int movesBefore = referee.getMoveCount();
+            forward = referee.judge(message, color);
+            if (forward != message && message.getType() != Message.SNAPSHOT) {
+                // 不合法：发送方的棋盘也要纠正
+                correction = referee.snapshot();
+                lobby.recordRejected();
+            }
+            if (before == 0 && referee.getResult() != 0) {
+                result = Message.gameOver(referee.getResult());
+            }
+            if (clock != null) {
+                tick(message, forward, color, movesBefore, before);
+            }
+        }
+        if (correction != null) {
+            from.send(correction);
+        }
+        if (forward == message) {
+            if (to != null) {
+                to.send(message);
+            }
+            audience.publish(message, color);
+        } else if (to != null && forward != null) {
+            // 观众只看到合法的消息，局面没有变化，不需要快照
+            to.send(forward);
+        }
+        if (result != null) {
+            rate(result.getValue());
+            from.send(result);
+            if (to != null) {
+                to.send(result);
+            }
+            audience.publish(result, color);
+        }
+    }
+
+    /**
+     * 按裁判的判定拨钟（在房间锁内调用）：落子后换对方的钟，分出结果时停钟，同意重新开始时双方回到初始时间
+     */
+    private void tick(Message message, Message forward, int color, int movesBefore, int resultBefore) {
+        if (resultBefore == 0 && referee.getResult() != 0) {
+            clock.stop();
+        } else if (referee.getMoveCount() == movesBefore + 1) {
+            clock.moved(color);
+        } else if (forward == message && message.getType() == Message.RESTART
+                && message.getValue() == Message.RESTART_ACCEPT && referee.getMoveCount() == 0) {
+            clock.reset();
+            clock.start(Rules.BLACK);
+        } else {
+            return;
+        }
+        sendClock(black, white);
+    }
+
+    /**
+     * 加入观众；房间已作废时返回 false
+     */
+    boolean addObserver(Session observer) {
+        synchronized (this) {
+            if (finished) {
+                return false;
+            }
+            observer.setWatching(this);
+        }
+        audience.add(observer);
+        return true;
+    }
+
+    void removeObserver(Session observer) {
+        audience.remove(observer);
+    }
+
+    /**
+     * 一方离开：通知另一方，房间作废
+     */
+    void leave(Session session) {
+        Session other;
+        int result;
+        synchronized (this) {
+            if (session != black && session != white) {
+                return;
+            }
+            other = session == black ? white : black;
+            result = forfeit(session == black ? 1 : 2);
+            session.setRoom(null);
+            if (other != null) {
+                other.setRoom(null);
+            }
+            black = null;
+            white = null;
+            finished = true;
+            if (expiry != null) {
+                expiry.cancel();
+                expiry = null;
+            }
+            if (clock != null) {
+                clock.stop();
+            }
+        }
+        // 发送、计分与从大厅移除都在房间锁之外，避免与大厅的加锁顺序相反
+        rate(result);
+        if (other != null) {
+            other.send(Message.disconnect());
+        }
+        audience.close();
+        lobby.removeRoom(this);
+    }
+
+    synchronized boolean isFull() {
+        return black != null && white != null;
+    }
+
+    synchronized boolean isFinished() {
+        return finished;
+    }
+
+    public String getName() { return name; }
+    synchronized long getRoomKey() { return roomKey; }
+}
@@ -0,0 +1,296 @@
+package com.eric.GobangGame.net;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务器端的一个客户端连接：与传输方式无关的协议处理
+ * 子类负责收发字节（NIO 或阻塞套接字）：文本模式下把收到的每一行交给 onLine，
+ * 握手切换到二进制后（isBinary() 为 true）把每一帧解码后交给 onMessage，连接结束时调用 onClosed
+ * 对局编号不为 0 的消息属于同一连接上的另一盘对局，交给按编号创建的 GameChannel 处理
+ *
+ * 连接的存活检查在时间轮上进行，每个连接只有一个每 HEARTBEAT_SECONDS 秒检查一次的定时任务，收到消息时只记下时间：
+ * 二进制连接静默超过 HEARTBEAT_SECONDS 秒时服务器发出 PING，超过 IDLE_TIMEOUT_SECONDS 秒视为意外断线（房间保留座位等待续局）；
+ * 连接后超过 IDLE_TIMEOUT_SECONDS 秒仍未发出第一行的也断开。文本协议的旧客户端不发心跳，握手之后不做空闲检查。
+ */
+public abstract class Session {
+
+    // 一个连接上最多同时进行的对局（含观战）数
+    static final int MAX_CHANNELS = 256;
+    static final int HEARTBEAT_SECONDS = 5;
+    static final int IDLE_TIMEOUT_SECONDS = 20;
+
+    private final Lobby lobby;
+    private volatile String name = "Player";
+    private String requestedRoom;
+    private volatile Room room;
+    // 观看中的房间（观众不占座位，不转发消息）
+    private volatile Room watching;
+    private boolean joined = false;
+    // 读线程写入，时间轮线程读取
+    private volatile boolean negotiated = false;
+    private volatile boolean binary = false;
+    // 多路复用的对局通道（第一次收到非 0 对局编号时创建，只在读线程上添加）
+    private volatile ConcurrentHashMap<Integer, GameChannel> channels;
+    private volatile boolean closed = false;
+    // 自动配对的排队票据（配对成功后即失效）
+    private volatile Matchmaker.Ticket ticket;
+    // 最后一次收到消息的时间（System.nanoTime）
+    private volatile long lastReceived = System.nanoTime();
+    private volatile TimingWheel.Timeout heartbeat;
+
+    protected Session(Lobby lobby) {
+        this.lobby = lobby;
+        lobby.connected(this);
+    }
+
+    /**
+     * binary 为 true 时不握手，直接使用二进制帧（多路复用连接上的对局通道）
+     */
+    Session(Lobby lobby, boolean binary) {
+        this(lobby);
+        this.negotiated = binary;
+        this.binary = binary;
+    }
+
+    /**
+     * 处理一行文本消息；只在该连接的读线程上调用
+     * 第一行是 HELLO 时回复握手并切换到二进制帧，之后的字节由子类按帧解析
+     */
+    protected void onLine(String line) {
+        lastReceived = System.nanoTime();
+        if (!negotiated) {
+            negotiated = true;
+            if (Protocol.isHello(line)) {
+                sendLine(Protocol.hello());
+                binary = true;
+                return;
+            }
+        }
+        Message message = Message.parseText(line);
+        if (message != null) {
+            onMessage(message);
+        }
+    }
+
+    /**
+     * 处理一条消息；只在该连接的读线程上调用
+     */
+    protected void onMessage(Message message) {
+        lastReceived = System.nanoTime();
+        negotiated = true;
+        if (message.getGameId() != 0) {
+            GameChannel channel = channel(message.getGameId());
+            if (channel != null) {
+                channel.onMessage(message.withGameId(0));
+            }
+            return;
+        }
+        switch (message.getType()) {
+            case Message.JOIN:
+                String roomName = message.getText().trim();
+                requestedRoom = roomName.isEmpty() ? null : roomName;
+                break;
+            case Message.PLAYER_INFO:
+                name = message.getText();
+                if (!joined) {
+                    joined = true;
+                    lobby.join(this, requestedRoom);
+                }
+                break;
+            case Message.WATCH:
+                if (!joined) {
+                    joined = true;
+                    lobby.watch(this, message.getText().trim());
+                }
+                break;
+            case Message.RESUME:
+                // 带令牌重连，代替 JOIN 与 PLAYER_INFO
+                if (!joined) {
+                    joined = true;
+                    lobby.resume(this, message);
+                }
+                break;
+            case Message.DISCONNECT:
+                leaveQueue();
+                leaveRoom();
+                stopWatching();
+                break;
+            case Message.PING:
+                // 服务器的时钟就是各连接的参考时钟
+                send(Message.pong(message.getTime(), LatencyTracker.nowMicros()));
+                break;
+            case Message.PONG:
+            case Message.WINDOW:
+                // 连接本身不做流量控制（发送队列有总量上限）
+                break;
+            case Message.MOVE:
+                if (message.hasTime()) {
+                    lobby.getMoveLatency().record(LatencyTracker.nowMicros() - message.getTime());
+                }
+                relay(message);
+                break;
+            default:
+                relay(message);
+        }
+    }
+
+    /**
+     * 开始存活检查；由服务器在连接登记完成后调用（多路复用的对局通道随所属连接，不单独检查）
+     */
+    void startHeartbeat() {
+        heartbeat = lobby.schedule(this::checkLiveness, HEARTBEAT_SECONDS);
+    }
+
+    /**
+     * 时间轮线程：静默太久的连接断开，否则按需发 PING 并登记下一次检查
+     */
+    private void checkLiveness() {
+        if (closed) {
+            return;
+        }
+        long idleSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - lastReceived);
+        if ((binary || !negotiated) && idleSeconds >= IDLE_TIMEOUT_SECONDS) {
+            lobby.recordIdleKick();
+            abort();
+            return;
+        }
+        if (binary && idleSeconds >= HEARTBEAT_SECONDS) {
+            send(Message.ping(LatencyTracker.nowMicros()));
+        }
+        heartbeat = lobby.schedule(this::checkLiveness, HEARTBEAT_SECONDS);
+    }
+
+    /**
+     * 对局编号对应的通道，没有时创建；超出 MAX_CHANNELS 时告知客户端这一盘无法进行并返回 null
+     */
+    private GameChannel channel(int gameId) {
+        ConcurrentHashMap<Integer, GameChannel> map = channels;
+        if (map == null) {
+            channels = map = new ConcurrentHashMap<>();
+        }
+        GameChannel channel = map.get(gameId);
+        if (channel == null) {
+            if (map.size() >= MAX_CHANNELS) {
+                send(Message.disconnect().withGameId(gameId));
+                return null;
+            }
+            channel = new GameChannel(lobby, this, gameId);
+            map.put(gameId, channel);
+            if (closed) {
+                // 连接已在其他线程上关闭
+                channel.closeNow();
+                return null;
+            }
+        }
+        return channel;
+    }
+
+    void removeChannel(int gameId, GameChannel channel) {
+        ConcurrentHashMap<Integer, GameChannel> map = channels;
+        if (map != null) {
+            map.remove(gameId, channel);
+        }
+    }
+
+    private void stopWatching() {
+        Room current = watching;
+        if (current != null) {
+            watching = null;
+            current.removeObserver(this);
+            lobby.unwatched(this);
+        }
+    }
+
+    private void relay(Message message) {
+        Room current = room;
+        if (current != null) {
+            current.relay(this, message);
+        }
+    }
+
+    /**
+     * 连接已关闭（对端断开或服务器关闭）；支持续局的房间保留座位等待重连
+     */
+    protected void onClosed() {
+        closed = true;
+        TimingWheel.Timeout timeout = heartbeat;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        ConcurrentHashMap<Integer, GameChannel> map = channels;
+        if (map != null) {
+            for (GameChannel channel : map.values()) {
+                channel.closeNow();
+            }
+        }
+        leaveQueue();
+        Room current = room;
+        if (current != null) {
+            current.suspend(this);
+        }
+        stopWatching();
+        lobby.disconnected(this);
+    }
+
+    private void leaveQueue() {
+        Matchmaker.Ticket current = ticket;
+        if (current != null) {
+            ticket = null;
+            lobby.cancel(current);
+        }
+    }
+
+    private void leaveRoom() {
+        Room current = room;
+        if (current != null) {
+            current.leave(this);
+        }
+    }
+
+    /**
+     * 按该连接协商好的格式发送一条消息；可以在任意线程上调用，不阻塞
+     */
+    public void send(Message message) {
+        sendBytes(message.bytes(binary));
+    }
+
+    private void sendLine(String line) {
+        sendBytes((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 把已编码的字节排入发送队列；数组可能被多个连接共用，不得修改
+     */
+    protected abstract void sendBytes(byte[] bytes);
+
+    /**
+     * 发送完已排队的消息后关闭连接；可以在任意线程上调用
+     */
+    public abstract void close();
+
+    /**
+     * 立即关闭，丢弃未发出的消息；可以在任意线程上调用
+     */
+    public abstract void abort();
+
+    /**
+     * 已排队尚未写出的字节数
+     */
+    abstract long queuedBytes();
+
+    /**
+     * 是否已切换到二进制帧
+     */
+    public boolean isBinary() { return binary; }
+    public String getName() { return name; }
+    public Room getRoom() { return room; }
+    /** 连接是否已关闭 */
+    boolean isClosed() { return closed; }
+    /** 是否为观众连接（发送优先级低于棋手） */
+    boolean isObserver() { return watching != null; }
+    void setRoom(Room room) { this.room = room; }
+    void setWatching(Room watching) { this.watching = watching; }
+    void setTicket(Matchmaker.Ticket ticket) { this.ticket = ticket; }
+}
@@ -0,0 +1,89 @@
+package com.eric.GobangGame.net;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 每个连接一个线程的对战服务器：保持 GobangGameMultiPlayer 那样的阻塞读写写法，
+ * 默认在 Java 21 虚拟线程上运行，阻塞只挂起虚拟线程，不占用平台线程，因此可以保持数万个空闲连接
+ *
+ * 每个连接有一个读线程和一个写线程（见 BlockingSession），全部提交到同一个执行器；
+ * 关闭时先停止 accept 并关闭所有套接字，再由执行器的 close() 等待所有连接线程结束（结构化关闭）。
+ * virtual = false 时改用平台线程，仅用于对比内存占用。
+ */
+public class ThreadPerConnectionServer implements AutoCloseable {
+
+    private final Lobby lobby;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final Set<BlockingSession> sessions = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+    private volatile boolean tcpNoDelay = true;
+
+    public ThreadPerConnectionServer(Lobby lobby, int port, boolean virtual) throws IOException {
+        this.lobby = lobby;
+        this.serverSocket = new ServerSocket(port, 1024);
+        this.executor = virtual
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newCachedThreadPool();
+    }
+
+    public void start() {
+        executor.execute(this::acceptLoop);
+    }
+
+    /**
+     * 是否对新连接关闭 Nagle 算法（默认关闭，小消息立即发出）
+     */
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("accept 失败: " + e.getMessage());
+                }
+                continue;
+            }
+            try {
+                socket.setTcpNoDelay(tcpNoDelay);
+            } catch (IOException ignored) {
+            }
+            BlockingSession session = new BlockingSession(lobby, socket);
+            sessions.add(session);
+            session.startHeartbeat();
+            executor.execute(() -> {
+                try {
+                    session.readLoop();
+                } finally {
+                    sessions.remove(session);
+                }
+            });
+            executor.execute(session::writeLoop);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        for (BlockingSession session : sessions) {
+            session.closeNow();
+        }
+        executor.close();
+    }
+}
@@ -0,0 +1,243 @@
+package com.eric.GobangGame.net;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 哈希时间轮：服务器上所有的定时任务（心跳与空闲检查、续局等待、对局计时、观众重新同步）共用一个线程
+ *
+ * 轮上有 WHEEL_SIZE 个槽，每 tick 前进一格；到期时间按 tick 数取模落进槽里，超过一圈的记下剩余圈数。
+ * 槽是双向链表：加入与取消都是 O(1)，与定时任务的总数无关，数百万个也只占各自一个小对象。
+ * 其他线程的加入与取消先进入无锁队列，由时间轮线程在每个 tick 开始时并入或摘除，槽本身只在时间轮线程上访问。
+ * 精度为一个 tick（默认 10 毫秒）。任务在时间轮线程上执行，必须很快返回、不得阻塞，耗时的工作应转交其他线程。
+ */
+final class TimingWheel implements AutoCloseable {
+
+    static final long DEFAULT_TICK_MILLIS = 10;
+    static final int WHEEL_SIZE = 512;
+    // 每个 tick 最多并入的新任务数，避免大量任务同时加入时拖慢到期任务的执行
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    /**
+     * 一个定时任务；cancel() 可以在任意线程上调用
+     */
+    static final class Timeout {
+
+        // 状态字段直接放在对象里（不另建 AtomicInteger），每个定时任务只占一个对象
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimingWheel wheel;
+        private final Runnable task;
+        // 到期时间（相对时间轮启动的纳秒数）
+        private final long deadline;
+        private volatile int state = PENDING;
+        // 以下只在时间轮线程上访问
+        private long remainingRounds;
+        private Slot slot;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(TimingWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 取消；已执行或已取消时返回 false
+         */
+        boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        boolean isCancelled() {
+            return state == CANCELLED;
+        }
+    }
+
+    /**
+     * 一个槽：到期 tick 落在这里的任务
+     */
+    private static final class Slot {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.slot = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        Timeout remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.slot = null;
+            return next;
+        }
+
+        /**
+         * 执行本圈到期的任务，其余的圈数减一
+         */
+        void expire(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                } else if (timeout.deadline <= deadline) {
+                    next = remove(timeout);
+                    if (Timeout.STATE.compareAndSet(timeout, PENDING, EXPIRED)) {
+                        timeout.wheel.count.decrementAndGet();
+                        run(timeout.task);
+                    }
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    private final long tickNanos;
+    private final Slot[] wheel = new Slot[WHEEL_SIZE];
+    private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final long startTime = System.nanoTime();
+    private final Thread worker;
+    private volatile boolean stopped = false;
+    // 已处理的 tick 数，只在时间轮线程上访问
+    private long tick = 0;
+
+    TimingWheel(String name) {
+        this(name, DEFAULT_TICK_MILLIS);
+    }
+
+    TimingWheel(String name, long tickMillis) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Slot();
+        }
+        worker = new Thread(this::work, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * delay 之后在时间轮线程上执行 task；O(1)，可以在任意线程上调用
+     */
+    Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(this, task, System.nanoTime() - startTime + Math.max(0, unit.toNanos(delay)));
+        pending.add(timeout);
+        count.incrementAndGet();
+        return timeout;
+    }
+
+    /**
+     * 尚未执行也未取消的任务数（近似值）
+     */
+    int size() {
+        return count.get();
+    }
+
+    private void work() {
+        while (!stopped) {
+            long deadline = waitForNextTick();
+            if (deadline < 0) {
+                continue;
+            }
+            removeCancelled();
+            transferPending();
+            wheel[(int) (tick & (WHEEL_SIZE - 1))].expire(deadline);
+            tick++;
+        }
+    }
+
+    /**
+     * 睡到下一个 tick 的结束时刻，返回该时刻（相对启动的纳秒数）；被提前唤醒时返回 -1
+     */
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        long sleep = deadline - (System.nanoTime() - startTime);
+        if (sleep > 0) {
+            LockSupport.parkNanos(this, sleep);
+            return System.nanoTime() - startTime >= deadline ? deadline : -1;
+        }
+        return deadline;
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            count.decrementAndGet();
+            if (timeout.slot != null) {
+                timeout.slot.remove(timeout);
+            }
+        }
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = pending.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state == CANCELLED) {
+                // 计数在 removeCancelled 中扣除
+                continue;
+            }
+            long expiryTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (expiryTick - tick) / WHEEL_SIZE;
+            // 已经过期的放进当前槽，本 tick 就执行
+            long slotTick = Math.max(expiryTick, tick);
+            wheel[(int) (slotTick & (WHEEL_SIZE - 1))].add(timeout);
+        }
+    }
+
+    private static void run(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            // 一个任务出错不影响其他任务
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 停止时间轮，尚未到期的任务不再执行
+     */
+    @Override
+    public void close() {
+        stopped = true;
+        LockSupport.unpark(worker);
+    }
+}